@@ -0,0 +1,86 @@
+package com.bookstore.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.export.Column;
+import com.bookstore.export.ColumnType;
+import com.bookstore.export.ColumnarReader;
+import com.bookstore.export.ColumnarWriter;
+
+/**
+ * Writing and reading back 10 million purchase lines (purchase_id, book_id) in the
+ * columnar export format, three lines per purchase with books drawn at random from a
+ * catalog of 10,000. Runs in a small heap to show that the writer and reader hold one row
+ * group at a time; the file size is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx64m")
+public class ColumnarExportBenchmark {
+
+	private static final int LINES = 10_000_000;
+
+	private static final List<Column> COLUMNS = List.of(new Column("purchase_id", ColumnType.DELTA), new Column("book_id", ColumnType.DELTA));
+
+	private Path	directory;
+	private Path	file;
+
+	@Setup
+	public void setup() throws IOException {
+		directory	= Files.createTempDirectory("columnar-benchmark");
+		file		= directory.resolve("purchase_books.bkc");
+		write();
+		System.out.printf("%n%,d purchase lines: %,d bytes%n", LINES, Files.size(file));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(directory);
+	}
+
+	@Benchmark
+	public long write() throws IOException {
+		SplittableRandom random = new SplittableRandom(42);
+		try (ColumnarWriter writer = ColumnarWriter.create(file, COLUMNS, 65_536)) {
+			for (int line = 0; line < LINES; line++) {
+				writer.set(0, 1 + line / 3).set(1, 1 + random.nextInt(10_000)).endRow();
+			}
+			return writer.rowCount();
+		}
+	}
+
+	@Benchmark
+	public long read() throws IOException {
+		long sum = 0;
+		try (ColumnarReader reader = ColumnarReader.open(file)) {
+			for (int group = 0; group < reader.rowGroupCount(); group++) {
+				ColumnarReader.RowGroup rowGroup = reader.rowGroup(group);
+				for (int row = 0; row < rowGroup.rows(); row++) {
+					sum += rowGroup.getLong(1, row);
+				}
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,93 @@
+package com.bookstore.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.bookstore.BookstoreApplication;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.model.Book;
+import com.bookstore.model.Customer;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.service.PurchaseService;
+
+/**
+ * {@link PurchaseService#createPurchase(PurchaseDTO)} end to end against in-memory H2:
+ * validation, pricing, the loyalty ledger and the inserts, in one transaction. Runs on one
+ * thread and on four, where purchases of different customers compete for the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Hibernate and Spring take long to reach compiled code, hence the longer warm-up
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreatePurchaseBenchmark {
+
+	private static final int BOOKS		= 1000;
+	private static final int CUSTOMERS	= 1000;
+
+	private ConfigurableApplicationContext	context;
+	private PurchaseService					purchaseService;
+	private long[]							bookIds;
+	private long[]							customerIds;
+
+	@Setup
+	public void setup() {
+		context = new SpringApplicationBuilder(BookstoreApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.main.banner-mode=off", "logging.level.root=WARN",
+						"bookstore.loyalty.compaction.enabled=false", "bookstore.reactive.enabled=false")
+				.run();
+		purchaseService = context.getBean(PurchaseService.class);
+
+		bookIds		= context.getBean(BookRepository.class).saveAll(Fixtures.books(BOOKS).stream().peek(book -> book.setId(null)).toList())
+				.stream().mapToLong(Book::getId).toArray();
+		customerIds	= context.getBean(CustomerRepository.class).saveAll(IntStream.range(0, CUSTOMERS)
+				.mapToObj(i -> new Customer(null, "Customer " + i, 0)).toList())
+				.stream().mapToLong(Customer::getId).toArray();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public PurchaseDTO createPurchase() {
+		return purchaseService.createPurchase(nextPurchase());
+	}
+
+	@Benchmark
+	@Threads(4)
+	public PurchaseDTO createPurchaseConcurrently() {
+		return purchaseService.createPurchase(nextPurchase());
+	}
+
+	// Three different books for a random customer
+	private PurchaseDTO nextPurchase() {
+		ThreadLocalRandom	random	= ThreadLocalRandom.current();
+		int					first	= random.nextInt(BOOKS);
+		return new PurchaseDTO(null, customerIds[random.nextInt(CUSTOMERS)],
+				List.of(bookIds[first], bookIds[(first + 1) % BOOKS], bookIds[(first + 2) % BOOKS]), 0);
+	}
+}
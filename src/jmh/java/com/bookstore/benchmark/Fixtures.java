@@ -0,0 +1,42 @@
+package com.bookstore.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.model.Purchase;
+
+/**
+ * Deterministic test data for the benchmarks, the same on every run.
+ */
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	static List<Book> books(int count) {
+		Random		random	= new Random(42);
+		BookType[]	types	= BookType.values();
+		List<Book>	books	= new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			books.add(new Book((long) i + 1, "Book title " + i, "Author " + (i % 100), 5 + random.nextInt(50), types[random.nextInt(types.length)]));
+		}
+		return books;
+	}
+
+	// Purchases of three books each, spread over a hundred customers
+	static List<Purchase> purchases(int count) {
+		List<Book>		books		= books(100);
+		List<Purchase>	purchases	= new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Customer	customer	= new Customer((long) (i % 100) + 1, "Customer " + (i % 100), 0);
+			Purchase	purchase	= new Purchase(customer, List.of(books.get(i % 100), books.get((i + 7) % 100), books.get((i + 31) % 100)), 42.5 + i % 10, i % 10 == 0);
+			purchase.setId((long) i + 1);
+			purchases.add(purchase);
+		}
+		return purchases;
+	}
+}
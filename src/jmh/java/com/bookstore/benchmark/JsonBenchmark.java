@@ -0,0 +1,62 @@
+package com.bookstore.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.mapper.PurchaseMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Jackson serialization of a purchase list response, with an ObjectMapper configured
+ * like the one Spring MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int size;
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	private ObjectWriter		listWriter;
+	private List<PurchaseDTO>	purchases;
+
+	@Setup
+	public void setup() {
+		listWriter	= objectMapper.writerFor(new TypeReference<List<PurchaseDTO>>() {});
+		purchases	= PurchaseMapper.INSTANCE.convertToPurchaseDTOList(Fixtures.purchases(size));
+	}
+
+	@Benchmark
+	public byte[] objectMapper() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(purchases);
+	}
+
+	// Writer bound to the list type up front, so the serializer is not looked up per call
+	@Benchmark
+	public byte[] typedWriter() throws JsonProcessingException {
+		return listWriter.writeValueAsBytes(purchases);
+	}
+}
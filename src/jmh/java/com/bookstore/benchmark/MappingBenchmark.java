@@ -0,0 +1,62 @@
+package com.bookstore.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.mapper.BookMapper;
+import com.bookstore.mapper.BookMapperImpl;
+import com.bookstore.mapper.PurchaseMapper;
+import com.bookstore.model.Book;
+import com.bookstore.model.Purchase;
+
+/**
+ * List conversions of the generated MapStruct mappers, as done for every list and page
+ * response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int size;
+
+	private final BookMapper		bookMapper		= new BookMapperImpl();
+	private final PurchaseMapper	purchaseMapper	= PurchaseMapper.INSTANCE;
+
+	private List<Book>		books;
+	private List<Purchase>	purchases;
+
+	@Setup
+	public void setup() {
+		books		= Fixtures.books(size);
+		purchases	= Fixtures.purchases(size);
+	}
+
+	@Benchmark
+	public List<BookDTO> booksToDTOs() {
+		return bookMapper.convertToBookDTOList(books);
+	}
+
+	@Benchmark
+	public List<PurchaseDTO> purchasesToDTOs() {
+		return purchaseMapper.convertToPurchaseDTOList(purchases);
+	}
+}
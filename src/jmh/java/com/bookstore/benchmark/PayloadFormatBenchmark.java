@@ -0,0 +1,90 @@
+package com.bookstore.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.mapper.PurchaseMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Server encode time, payload size and client decode time of a 10,000 purchase response
+ * in each format the API negotiates, with and without gzip. The payload size of each
+ * combination is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+	private static final int PURCHASES = 10_000;
+
+	@Param({ "json", "cbor", "smile" })
+	private String format;
+
+	@Param({ "false", "true" })
+	private boolean gzip;
+
+	private ObjectWriter		writer;
+	private ObjectReader		reader;
+	private List<PurchaseDTO>	purchases;
+	private byte[]				payload;
+
+	@Setup
+	public void setup() throws IOException {
+		ObjectMapper objectMapper = switch (format) {
+			case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+			case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+			default -> Jackson2ObjectMapperBuilder.json().build();
+		};
+		TypeReference<List<PurchaseDTO>> listType = new TypeReference<>() {};
+
+		writer		= objectMapper.writerFor(listType);
+		reader		= objectMapper.readerFor(listType);
+		purchases	= PurchaseMapper.INSTANCE.convertToPurchaseDTOList(Fixtures.purchases(PURCHASES));
+		payload		= encode();
+		System.out.printf("%n%s%s: %,d bytes%n", format, gzip ? "+gzip" : "", payload.length);
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+			writer.writeValue(out, purchases);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Benchmark
+	public List<PurchaseDTO> decode() throws IOException {
+		try (InputStream in = gzip ? new GZIPInputStream(new ByteArrayInputStream(payload)) : new ByteArrayInputStream(payload)) {
+			return reader.readValue(in);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.bookstore.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.service.PricingEngine;
+import com.bookstore.service.PricingEngine.PriceBreakdown;
+
+/**
+ * Pricing a cart with {@link PricingEngine}, which replaced the per-book
+ * PurchaseService.calculateBookPrice, against that previous two-stream pricing. A cart
+ * of one book is the per-book cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+	@Param({ "1", "3", "10", "100", "1000" })
+	private int cartSize;
+
+	private final PricingEngine pricingEngine = new PricingEngine();
+
+	private List<Book> cart;
+
+	@Setup
+	public void setup() {
+		cart = Fixtures.books(cartSize);
+	}
+
+	@Benchmark
+	public PriceBreakdown priceCart() {
+		return pricingEngine.price(cart);
+	}
+
+	// Full checkout pricing: breakdown plus the total with the loyalty discount applied
+	@Benchmark
+	public double totalWithLoyalty() {
+		return pricingEngine.price(cart).totalPrice(true);
+	}
+
+	// The previous pricing: one stream for the total, a second for the cheapest discountable book
+	@Benchmark
+	public double legacyTotalWithLoyalty() {
+		int		bookCount	= cart.size();
+		double	totalPrice	= cart.stream().mapToDouble(book -> legacyBookPrice(book, bookCount)).sum();
+		return totalPrice - cart.stream()
+				.filter(book -> book.getType() != BookType.NEW_RELEASE)
+				.mapToDouble(book -> legacyBookPrice(book, bookCount))
+				.min()
+				.orElse(0.0);
+	}
+
+	// The switch based pricing PurchaseService used before PricingEngine
+	private static double legacyBookPrice(Book book, int bookCount) {
+		double bookPrice = book.getPrice();
+		switch (book.getType()) {
+		case	OLD_EDITION	: {
+			bookPrice *= 0.8;
+			if (bookCount >= 3) {
+				bookPrice *= 0.95;
+			}
+			break;
+		}
+		case	REGULAR		: {
+			if (bookCount >= 3) {
+				bookPrice *= 0.9;
+			}
+			break;
+		}
+		case	NEW_RELEASE	: {
+			break;
+		}
+		}
+		return bookPrice;
+	}
+}
@@ -0,0 +1,55 @@
+package com.bookstore.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies per endpoint in HDR histograms (microseconds, three significant digits, up
+ * to a minute), plus the requests that failed or were never sent. Requests the server
+ * turned away with 503 (bulkhead or intake queue full) are counted apart from the errors
+ * as well.
+ */
+final class LatencyRecorder {
+
+	private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	static final class Stats {
+
+		final Histogram		latencies	= new ConcurrentHistogram(HIGHEST_MICROS, 3);
+		final LongAdder		errors		= new LongAdder();
+		final LongAdder		rejected	= new LongAdder();
+		final LongAdder		dropped		= new LongAdder();
+	}
+
+	private final Map<String, Stats> stats = new LinkedHashMap<>();
+
+	LatencyRecorder(Traffic traffic) {
+		traffic.endpoints().forEach(endpoint -> stats.put(endpoint.key(), new Stats()));
+	}
+
+	// Status 0 when no response arrived. Failed requests count as errors and their latency is recorded as well
+	void record(Traffic.Endpoint endpoint, long nanos, int status) {
+		Stats endpointStats = stats.get(endpoint.key());
+		endpointStats.latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_MICROS));
+		if (status == 0 || status >= 400) {
+			endpointStats.errors.increment();
+		}
+		if (status == 503) {
+			endpointStats.rejected.increment();
+		}
+	}
+
+	// Open loop only: the request was due but too many were still waiting for a response
+	void drop(Traffic.Endpoint endpoint) {
+		stats.get(endpoint.key()).dropped.increment();
+	}
+
+	Map<String, Stats> stats() {
+		return stats;
+	}
+}
@@ -0,0 +1,75 @@
+package com.bookstore.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings, read from system properties (the "load" Maven profile passes them on).
+ *
+ * @param mode			open: requests arrive at a constant rate, whatever the latency;
+ *						closed: a fixed number of clients each wait for the previous response
+ * @param rate			requests per second in open mode
+ * @param concurrency	number of clients in closed mode
+ * @param warmup		traffic sent before measuring, not reported
+ * @param duration		measured traffic
+ * @param mix			endpoint keys with their relative weights, e.g. book=40,purchase=20
+ * @param readDelay		pause before reading each further chunk of a response, to act as slow
+ *						clients; zero reads responses at once
+ * @param profiles		Spring profiles the application runs with, e.g. virtual
+ * @param report		directory the report is written to
+ */
+record LoadConfig(Mode mode, int rate, int concurrency, Duration warmup, Duration duration, Map<String, Integer> mix,
+		Duration readDelay, List<String> profiles, Path report) {
+
+	enum Mode {
+		OPEN,
+		CLOSED
+	}
+
+	static LoadConfig fromSystemProperties() {
+		LoadConfig config = new LoadConfig(
+				Mode.valueOf(System.getProperty("load.mode", "open").toUpperCase()),
+				Integer.getInteger("load.rate", 200),
+				Integer.getInteger("load.concurrency", 16),
+				Duration.parse(System.getProperty("load.warmup", "PT10S")),
+				Duration.parse(System.getProperty("load.duration", "PT30S")),
+				parseMix(System.getProperty("load.mix", "book=40,book-page=10,customer=20,purchase=20,purchase-update=10")),
+				Duration.parse(System.getProperty("load.read-delay", "PT0S")),
+				Arrays.stream(System.getProperty("load.profiles", "").split(",")).map(String::trim).filter(profile -> !profile.isEmpty()).toList(),
+				Path.of(System.getProperty("load.report", "target/load-report")));
+		if (config.rate() < 1 || config.concurrency() < 1) {
+			throw new IllegalArgumentException("load.rate and load.concurrency must be at least 1");
+		}
+		if (config.readDelay().isNegative()) {
+			throw new IllegalArgumentException("load.read-delay must not be negative");
+		}
+		return config;
+	}
+
+	private static Map<String, Integer> parseMix(String mix) {
+		Map<String, Integer> weights = new LinkedHashMap<>();
+		for (String entry : mix.split(",")) {
+			String[] parts = entry.trim().split("=");
+			if (parts.length != 2) {
+				throw new IllegalArgumentException("Invalid load.mix entry: " + entry);
+			}
+			int weight = Integer.parseInt(parts[1].trim());
+			if (weight < 0) {
+				throw new IllegalArgumentException("Negative weight in load.mix: " + entry);
+			}
+			weights.put(parts[0].trim(), weight);
+		}
+		return weights;
+	}
+
+	String describe() {
+		String load = mode == Mode.OPEN ? rate + " requests/s" : concurrency + " clients";
+		return mode.name().toLowerCase() + " loop, " + load + ", " + duration.toSeconds() + " s after " + warmup.toSeconds() + " s warm-up, "
+				+ (readDelay.isZero() ? "" : readDelay.toMillis() + " ms between reads, ")
+				+ (profiles.isEmpty() ? "" : "profiles " + String.join(",", profiles) + ", ") + "mix " + mix;
+	}
+}
@@ -0,0 +1,116 @@
+package com.bookstore.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the traffic and records every response.
+ *
+ * Open loop schedules requests at fixed intervals and measures each latency from the
+ * time the request was due rather than from when it was sent, so a slow server shows up
+ * as latency instead of silently lowering the request rate (coordinated omission).
+ * Closed loop runs a fixed number of clients that each send the next request as soon as
+ * the previous response arrives.
+ */
+final class LoadDriver {
+
+	// Open loop: requests due while this many are still waiting for a response are dropped
+	private static final int MAX_IN_FLIGHT = 10_000;
+
+	private final HttpClient					client;
+	private final Traffic						traffic;
+	private final HttpResponse.BodyHandler<?>	bodyHandler;
+
+	LoadDriver(HttpClient client, Traffic traffic, HttpResponse.BodyHandler<?> bodyHandler) {
+		this.client			= client;
+		this.traffic		= traffic;
+		this.bodyHandler	= bodyHandler;
+	}
+
+	void run(LoadConfig config, Duration duration, LatencyRecorder recorder) throws Exception {
+		switch (config.mode()) {
+		case	OPEN	: {
+			runOpen(config.rate(), duration, recorder);
+			break;
+		}
+		case	CLOSED	: {
+			runClosed(config.concurrency(), duration, recorder);
+			break;
+		}
+		}
+	}
+
+	private void runOpen(int rate, Duration duration, LatencyRecorder recorder) throws InterruptedException {
+		long			interval	= TimeUnit.SECONDS.toNanos(1) / rate;
+		long			end			= System.nanoTime() + duration.toNanos();
+		AtomicInteger	inFlight	= new AtomicInteger();
+
+		for (long due = System.nanoTime(); due < end; due += interval) {
+			long now;
+			while ((now = System.nanoTime()) < due) {
+				LockSupport.parkNanos(due - now);
+			}
+
+			Traffic.Endpoint	endpoint	= traffic.next(ThreadLocalRandom.current());
+			long				intended	= due;
+			if (inFlight.get() >= MAX_IN_FLIGHT) {
+				recorder.drop(endpoint);
+				continue;
+			}
+			inFlight.incrementAndGet();
+			client.sendAsync(endpoint.request().apply(ThreadLocalRandom.current()), bodyHandler)
+					.whenComplete((response, error) -> {
+						recorder.record(endpoint, System.nanoTime() - intended, error != null ? 0 : response.statusCode());
+						inFlight.decrementAndGet();
+					});
+		}
+
+		// Let the requests still in flight finish, they belong to the measured window
+		while (inFlight.get() > 0) {
+			Thread.sleep(10);
+		}
+	}
+
+	private void runClosed(int concurrency, Duration duration, LatencyRecorder recorder) throws Exception {
+		long			end		= System.nanoTime() + duration.toNanos();
+		ExecutorService	clients	= Executors.newFixedThreadPool(concurrency);
+		try {
+			List<Future<?>> running = new ArrayList<>();
+			for (int i = 0; i < concurrency; i++) {
+				running.add(clients.submit(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					while (System.nanoTime() < end) {
+						Traffic.Endpoint	endpoint	= traffic.next(random);
+						long				start		= System.nanoTime();
+						int					status;
+						try {
+							status = client.send(endpoint.request().apply(random), bodyHandler).statusCode();
+						} catch (IOException e) {
+							status = 0;
+						}
+						recorder.record(endpoint, System.nanoTime() - start, status);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> worker : running) {
+				worker.get();
+			}
+		} finally {
+			// Wait for the client threads to end, so they do not count towards the next run's threads
+			clients.shutdown();
+			clients.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.bookstore.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Writes the results: a summary table of all endpoints (summary.txt, also printed) and the
+ * full percentile distribution of each endpoint (<endpoint>.hgrm, which HdrHistogram's
+ * plotter reads). Latencies are reported in milliseconds; the 503 column counts the
+ * errors that were rejections.
+ */
+final class LoadReport {
+
+	private static final String	HEADER	= "%-38s %9s %7s %7s %8s %9s %9s %9s %9s %9s %9s%n";
+	private static final String	ROW		= "%-38s %9d %7d %7d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n";
+
+	private LoadReport() {
+	}
+
+	static void write(LoadConfig config, Traffic traffic, LatencyRecorder recorder, ResourceMonitor resources, Duration measured)
+			throws IOException {
+		Files.createDirectories(config.report());
+		Map<String, LatencyRecorder.Stats> stats = recorder.stats();
+
+		try (PrintStream summary = new PrintStream(Files.newOutputStream(config.report().resolve("summary.txt")))) {
+			for (PrintStream out : new PrintStream[] { summary, System.out }) {
+				out.println(config.describe());
+				out.printf(HEADER, "endpoint", "requests", "errors", "503", "dropped", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+				for (Traffic.Endpoint endpoint : traffic.endpoints()) {
+					LatencyRecorder.Stats	endpointStats	= stats.get(endpoint.key());
+					Histogram				latencies		= endpointStats.latencies;
+					out.printf(ROW, endpoint.label(), latencies.getTotalCount(), endpointStats.errors.sum(), endpointStats.rejected.sum(),
+							endpointStats.dropped.sum(),
+							latencies.getTotalCount() / (measured.toNanos() / 1e9),
+							millis(latencies, 50), millis(latencies, 90), millis(latencies, 99), millis(latencies, 99.9),
+							latencies.getMaxValue() / 1000.0);
+				}
+				out.println(resources.describe());
+			}
+		}
+
+		for (Traffic.Endpoint endpoint : traffic.endpoints()) {
+			try (PrintStream distribution = new PrintStream(Files.newOutputStream(config.report().resolve(endpoint.key() + ".hgrm")))) {
+				distribution.println("# " + endpoint.label() + ", " + config.describe());
+				stats.get(endpoint.key()).latencies.outputPercentileDistribution(distribution, 1000.0);
+			}
+		}
+		System.out.println("Report written to " + config.report().toAbsolutePath());
+	}
+
+	private static double millis(Histogram latencies, double percentile) {
+		return latencies.getValueAtPercentile(percentile) / 1000.0;
+	}
+}
@@ -0,0 +1,69 @@
+package com.bookstore.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.bookstore.BookstoreApplication;
+import com.bookstore.reactive.ReactiveServer;
+
+/**
+ * HTTP load test of the bookstore on this machine alone.
+ *
+ * Starts the application on a random port with its in-memory H2 database, seeds books,
+ * customers and purchases, sends the configured traffic mix (warm-up first, then the
+ * measured window) and writes latency percentiles per endpoint. Settings are described
+ * in {@link LoadConfig}; run it with the "load" Maven profile, and with the
+ * "virtual-threads" one as well to serve the requests on virtual threads (JDK 21):
+ *   mvn -Pload -DskipTests verify -Dload.mode=open -Dload.rate=500
+ *   mvn -Pload,virtual-threads -DskipTests verify -Dload.mode=open -Dload.rate=500
+ */
+public final class LoadTest {
+
+	private LoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		LoadConfig config = LoadConfig.fromSystemProperties();
+
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(BookstoreApplication.class)
+				.properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN")
+				.profiles(config.profiles().toArray(String[]::new))
+				.run(args);
+		ExecutorService				responses	= Executors.newFixedThreadPool(4);
+		ScheduledExecutorService	scheduler	= Executors.newScheduledThreadPool(2);
+		try {
+			int				port			= ((WebServerApplicationContext) context).getWebServer().getPort();
+			ReactiveServer	reactiveServer	= context.getBeanProvider(ReactiveServer.class).getIfAvailable();
+			URI				reactiveBase	= reactiveServer == null ? null : URI.create("http://localhost:" + reactiveServer.port());
+			SeedData		data			= SeedData.write(context);
+			Traffic			traffic			= new Traffic(config.mix(), URI.create("http://localhost:" + port), reactiveBase, data);
+			HttpClient		client			= HttpClient.newBuilder().executor(responses).connectTimeout(Duration.ofSeconds(5)).build();
+			LoadDriver		driver			= new LoadDriver(client, traffic, config.readDelay().isZero()
+					? HttpResponse.BodyHandlers.discarding() : SlowReader.handler(scheduler, config.readDelay()));
+
+			System.out.println("Warming up: " + config.describe());
+			driver.run(config, config.warmup(), new LatencyRecorder(traffic));
+
+			LatencyRecorder	recorder	= new LatencyRecorder(traffic);
+			ResourceMonitor	resources	= new ResourceMonitor(context, scheduler);
+			long			start		= System.nanoTime();
+			resources.start();
+			driver.run(config, config.duration(), recorder);
+			resources.stop();
+			LoadReport.write(config, traffic, recorder, resources, Duration.ofNanos(System.nanoTime() - start));
+		} finally {
+			responses.shutdownNow();
+			scheduler.shutdownNow();
+			context.close();
+		}
+	}
+}
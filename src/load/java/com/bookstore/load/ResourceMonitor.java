@@ -0,0 +1,64 @@
+package com.bookstore.load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.sql.SQLException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.ApplicationContext;
+
+import com.bookstore.reactive.ReactiveDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Whether requests run on virtual threads, and over the measured window the live JVM
+ * threads and the peak number of JDBC and R2DBC connections in use, sampled every two
+ * milliseconds. The application and the load driver share the JVM, so the thread count
+ * includes the driver's own threads: one per client in closed mode, a handful in open mode.
+ */
+final class ResourceMonitor {
+
+	private final ThreadMXBean				threads		= ManagementFactory.getThreadMXBean();
+	private final AtomicInteger				jdbc		= new AtomicInteger();
+	private final AtomicInteger				r2dbc		= new AtomicInteger();
+	private final boolean					virtual;
+	private final HikariDataSource			pool;
+	private final ReactiveDatabase			reactiveDatabase;
+	private final ScheduledExecutorService	scheduler;
+
+	private int					threadsAtStart;
+	private ScheduledFuture<?>	sampler;
+
+	ResourceMonitor(ApplicationContext context, ScheduledExecutorService scheduler) throws SQLException {
+		this.virtual			= Threading.VIRTUAL.isActive(context.getEnvironment());
+		this.pool				= context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+		this.reactiveDatabase	= context.getBeanProvider(ReactiveDatabase.class).getIfAvailable();
+		this.scheduler			= scheduler;
+	}
+
+	void start() {
+		threadsAtStart = threads.getThreadCount();
+		threads.resetPeakThreadCount();
+		sampler = scheduler.scheduleAtFixedRate(() -> {
+			jdbc.accumulateAndGet(pool.getHikariPoolMXBean().getActiveConnections(), Math::max);
+			if (reactiveDatabase != null) {
+				r2dbc.accumulateAndGet(reactiveDatabase.acquired(), Math::max);
+			}
+		}, 0, 2, TimeUnit.MILLISECONDS);
+	}
+
+	void stop() {
+		sampler.cancel(false);
+	}
+
+	String describe() {
+		return "Requests on " + (virtual ? "virtual" : "platform") + " threads, JVM threads: " + threadsAtStart + " at start, "
+				+ threads.getPeakThreadCount() + " at peak, peak connections in use: JDBC " + jdbc.get() + ", R2DBC " + r2dbc.get();
+	}
+}
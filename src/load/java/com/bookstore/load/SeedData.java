@@ -0,0 +1,95 @@
+package com.bookstore.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.springframework.context.ApplicationContext;
+
+import com.bookstore.dto.PurchaseBatchItemDTO;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.service.PurchaseService;
+
+/**
+ * Books, customers and purchases written before the load starts, the same on every run.
+ */
+final class SeedData {
+
+	static final int BOOKS		= 2000;
+	static final int CUSTOMERS	= 1000;
+	static final int PURCHASES	= 1000;
+
+	record SeededPurchase(long id, long customerId) {
+	}
+
+	private final long[]				bookIds;
+	private final long[]				customerIds;
+	private final List<SeededPurchase>	purchases	= new ArrayList<>();
+
+	private SeedData(long[] bookIds, long[] customerIds) {
+		this.bookIds		= bookIds;
+		this.customerIds	= customerIds;
+	}
+
+	static SeedData write(ApplicationContext context) {
+		Random		random	= new Random(42);
+		BookType[]	types	= BookType.values();
+
+		long[] bookIds = context.getBean(BookRepository.class).saveAll(IntStream.range(0, BOOKS)
+				.mapToObj(i -> new Book(null, "Book title " + i, "Author " + (i % 200), 5 + random.nextInt(50), types[random.nextInt(types.length)]))
+				.toList())
+				.stream().mapToLong(Book::getId).toArray();
+		long[] customerIds = context.getBean(CustomerRepository.class).saveAll(IntStream.range(0, CUSTOMERS)
+				.mapToObj(i -> new Customer(null, "Customer " + i, 0))
+				.toList())
+				.stream().mapToLong(Customer::getId).toArray();
+		SeedData data = new SeedData(bookIds, customerIds);
+
+		List<PurchaseDTO> purchases = IntStream.range(0, PURCHASES)
+				.mapToObj(i -> new PurchaseDTO(null, customerIds[i % CUSTOMERS], toList(data.bookIds(random)), 0))
+				.toList();
+		for (PurchaseBatchItemDTO item : context.getBean(PurchaseService.class).createPurchases(purchases, false).getItems()) {
+			if (item.getStatus() == PurchaseBatchItemDTO.Status.CREATED) {
+				data.purchases.add(new SeededPurchase(item.getPurchase().getId(), item.getPurchase().getCustomerId()));
+			}
+		}
+		return data;
+	}
+
+	long bookId(ThreadLocalRandom random) {
+		return bookIds[random.nextInt(bookIds.length)];
+	}
+
+	long customerId(ThreadLocalRandom random) {
+		return customerIds[random.nextInt(customerIds.length)];
+	}
+
+	// The customer every hot-purchase request buys for
+	long hotCustomerId() {
+		return customerIds[0];
+	}
+
+	SeededPurchase purchase(ThreadLocalRandom random) {
+		return purchases.get(random.nextInt(purchases.size()));
+	}
+
+	// One to five different books next to each other in the catalog
+	long[] bookIds(Random random) {
+		int		count	= 1 + random.nextInt(5);
+		int		first	= random.nextInt(bookIds.length - count);
+		long[]	ids		= new long[count];
+		System.arraycopy(bookIds, first, ids, 0, count);
+		return ids;
+	}
+
+	private static List<Long> toList(long[] ids) {
+		return IntStream.range(0, ids.length).mapToObj(i -> ids[i]).toList();
+	}
+}
@@ -0,0 +1,63 @@
+package com.bookstore.load;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Reads a response body like a slow client: one chunk at a time, with a pause before
+ * asking for the next, so the server has to wait for the client to take the rest of the
+ * response. Completes with the number of bytes read.
+ */
+final class SlowReader implements HttpResponse.BodySubscriber<Long> {
+
+	private final ScheduledExecutorService	scheduler;
+	private final long						delayNanos;
+	private final CompletableFuture<Long>	result	= new CompletableFuture<>();
+
+	private Flow.Subscription	subscription;
+	private long				bytes;
+
+	private SlowReader(ScheduledExecutorService scheduler, Duration delay) {
+		this.scheduler	= scheduler;
+		this.delayNanos	= delay.toNanos();
+	}
+
+	static HttpResponse.BodyHandler<Long> handler(ScheduledExecutorService scheduler, Duration delay) {
+		return info -> new SlowReader(scheduler, delay);
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		this.subscription = subscription;
+		subscription.request(1);
+	}
+
+	@Override
+	public void onNext(List<ByteBuffer> buffers) {
+		buffers.forEach(buffer -> bytes += buffer.remaining());
+		scheduler.schedule(() -> subscription.request(1), delayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void onError(Throwable error) {
+		result.completeExceptionally(error);
+	}
+
+	@Override
+	public void onComplete() {
+		result.complete(bytes);
+	}
+
+	@Override
+	public CompletionStage<Long> getBody() {
+		return result;
+	}
+}
@@ -0,0 +1,120 @@
+package com.bookstore.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * The endpoints a load test can call and the weighted mix among them.
+ *
+ * Requests pick random seeded books, customers and purchases, so reads hit the caches
+ * about as often as real traffic over a catalog of that size would. The hot-purchase
+ * endpoints instead always buy for the same customer, so that every request contends on
+ * that customer's loyalty ledger. The book-list endpoints return the whole catalog, from
+ * the servlet and from the reactive stack.
+ */
+final class Traffic {
+
+	private static final Duration	TIMEOUT			= Duration.ofSeconds(30);
+	private static final int		HOT_BATCH_SIZE	= 5;
+
+	/**
+	 * @param key		name in load.mix and in the report
+	 * @param label		method and path shown in the report
+	 * @param request	builds the next request to send
+	 */
+	record Endpoint(String key, String label, Function<ThreadLocalRandom, HttpRequest> request) {
+	}
+
+	private final List<Endpoint>	endpoints	= new ArrayList<>();
+	private final List<Integer>		cumulative	= new ArrayList<>();
+	private int						total;
+
+	Traffic(Map<String, Integer> mix, URI base, URI reactiveBase, SeedData data) {
+		Map<String, Endpoint> known = Map.of(
+				"book", new Endpoint("book", "GET /api/books/{id}", random ->
+						get(base, "/api/books/" + data.bookId(random))),
+				"book-page", new Endpoint("book-page", "GET /api/books?limit=20&after={id}", random ->
+						get(base, "/api/books?limit=20&after=" + data.bookId(random))),
+				"purchase-page", new Endpoint("purchase-page", "GET /api/purchases?limit=20", random ->
+						get(base, "/api/purchases?limit=20")),
+				"book-list", new Endpoint("book-list", "GET /api/books", random ->
+						get(base, "/api/books")),
+				"reactive-book-list", new Endpoint("reactive-book-list", "GET /api/books (reactive)", random ->
+						get(reactiveBase, "/api/books")),
+				"customer", new Endpoint("customer", "GET /api/customers/{id}", random ->
+						get(base, "/api/customers/" + data.customerId(random))),
+				"purchase", new Endpoint("purchase", "POST /api/purchases", random ->
+						send(base, "/api/purchases", "POST", purchaseJson(data.customerId(random), data.bookIds(random)))),
+				"purchase-update", new Endpoint("purchase-update", "PUT /api/purchases/{id}", random -> {
+					SeedData.SeededPurchase purchase = data.purchase(random);
+					return send(base, "/api/purchases/" + purchase.id(), "PUT", purchaseJson(purchase.customerId(), data.bookIds(random)));
+				}),
+				"hot-purchase", new Endpoint("hot-purchase", "POST /api/purchases (hot customer)", random ->
+						send(base, "/api/purchases", "POST", purchaseJson(data.hotCustomerId(), data.bookIds(random)))),
+				"hot-purchase-batch", new Endpoint("hot-purchase-batch", "POST /api/purchases/batch (hot, 5)", random -> {
+					StringBuilder json = new StringBuilder("[");
+					for (int i = 0; i < HOT_BATCH_SIZE; i++) {
+						json.append(i == 0 ? "" : ",").append(purchaseJson(data.hotCustomerId(), data.bookIds(random)));
+					}
+					return send(base, "/api/purchases/batch?atomic=true", "POST", json.append("]").toString());
+				}));
+
+		mix.forEach((key, weight) -> {
+			Endpoint endpoint = known.get(key);
+			if (endpoint == null) {
+				throw new IllegalArgumentException("Unknown endpoint in load.mix: " + key + ", expected one of " + known.keySet());
+			}
+			if (key.startsWith("reactive-") && reactiveBase == null && weight > 0) {
+				throw new IllegalArgumentException("load.mix names " + key + " but the reactive server is disabled");
+			}
+			if (weight > 0) {
+				total += weight;
+				endpoints.add(endpoint);
+				cumulative.add(total);
+			}
+		});
+		if (endpoints.isEmpty()) {
+			throw new IllegalArgumentException("load.mix has no endpoint with a positive weight");
+		}
+	}
+
+	List<Endpoint> endpoints() {
+		return endpoints;
+	}
+
+	Endpoint next(ThreadLocalRandom random) {
+		int pick = random.nextInt(total);
+		for (int i = 0; i < endpoints.size(); i++) {
+			if (pick < cumulative.get(i)) {
+				return endpoints.get(i);
+			}
+		}
+		throw new IllegalStateException("Weight " + pick + " outside of " + total);
+	}
+
+	private static HttpRequest get(URI base, String path) {
+		return HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT).GET().build();
+	}
+
+	private static HttpRequest send(URI base, String path, String method, String json) {
+		return HttpRequest.newBuilder(base.resolve(path))
+				.timeout(TIMEOUT)
+				.header("Content-Type", "application/json")
+				.method(method, HttpRequest.BodyPublishers.ofString(json))
+				.build();
+	}
+
+	private static String purchaseJson(long customerId, long[] bookIds) {
+		StringBuilder json = new StringBuilder("{\"customerId\":").append(customerId).append(",\"bookIds\":[");
+		for (int i = 0; i < bookIds.length; i++) {
+			json.append(i == 0 ? "" : ",").append(bookIds[i]);
+		}
+		return json.append("],\"totalPrice\":0}").toString();
+	}
+}
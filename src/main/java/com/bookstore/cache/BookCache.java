@@ -0,0 +1,27 @@
+package com.bookstore.cache;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.model.Book;
+
+@Component
+public class BookCache extends EntityCache<Book> {
+
+	public BookCache(@Value("${bookstore.cache.books.maximum-size:10000}") long maximumSize,
+			@Value("${bookstore.cache.books.expire-after-write:10m}") Duration expireAfterWrite) {
+		super(maximumSize, expireAfterWrite);
+	}
+
+	@Override
+	protected Long idOf(Book book) {
+		return book.getId();
+	}
+
+	@Override
+	protected Book copy(Book book) {
+		return new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getPrice(), book.getType(), book.getVersion());
+	}
+}
@@ -0,0 +1,27 @@
+package com.bookstore.cache;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.model.Customer;
+
+@Component
+public class CustomerCache extends EntityCache<Customer> {
+
+	public CustomerCache(@Value("${bookstore.cache.customers.maximum-size:10000}") long maximumSize,
+			@Value("${bookstore.cache.customers.expire-after-write:1m}") Duration expireAfterWrite) {
+		super(maximumSize, expireAfterWrite);
+	}
+
+	@Override
+	protected Long idOf(Customer customer) {
+		return customer.getId();
+	}
+
+	@Override
+	protected Customer copy(Customer customer) {
+		return new Customer(customer.getId(), customer.getName(), customer.getLoyaltyPoints(), customer.getVersion());
+	}
+}
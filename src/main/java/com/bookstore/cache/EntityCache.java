@@ -0,0 +1,128 @@
+package com.bookstore.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import com.bookstore.support.Transactions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of entities by id, bounded by size and time to live.
+ *
+ * Callers pass the repository lookup to use on a miss, so the cache never talks to the
+ * database on its own. The cache holds private copies: a hit returns a new copy and a
+ * miss returns what the loader found, so callers may change what they get without
+ * affecting the cache or each other. Ids that are not found are not cached.
+ *
+ * A miss loads outside the cache, so a load can be overtaken by an invalidation: it may
+ * read a row just before a change commits and finish after the change invalidated it.
+ * Every invalidation therefore bumps a generation counter for its id, and a load only
+ * caches what it read if the generation of the id is the one it started with.
+ */
+public abstract class EntityCache<T> {
+
+	// Invalidation generations, by id modulo the number of stripes
+	private static final int STRIPES = 64;
+
+	private final Cache<Long, T>	cache;
+	private final AtomicLongArray	generations	= new AtomicLongArray(STRIPES);
+
+	protected EntityCache(long maximumSize, Duration expireAfterWrite) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.recordStats()
+				.build();
+	}
+
+	protected abstract Long idOf(T entity);
+
+	protected abstract T copy(T entity);
+
+	public Optional<T> get(Long id, Function<Long, Optional<T>> loader) {
+		T cached = cache.getIfPresent(id);
+		if (cached != null) {
+			return Optional.of(copy(cached));
+		}
+		long		generation	= generation(id);
+		Optional<T>	entity		= loader.apply(id);
+		entity.ifPresent(loaded -> putIfNotInvalidated(id, loaded, generation));
+		return entity;
+	}
+
+	// Loads every missing id with a single call to the loader, ids that are not found are left out
+	public Map<Long, T> getAll(Collection<Long> ids, Function<List<Long>, List<T>> loader) {
+		Map<Long, T> entities = new LinkedHashMap<>(ids.size() * 2);
+		cache.getAllPresent(ids).forEach((id, cached) -> entities.put(id, copy(cached)));
+
+		List<Long> missing = ids.stream().distinct().filter(id -> !entities.containsKey(id)).toList();
+		if (!missing.isEmpty()) {
+			Map<Long, Long> generations = new LinkedHashMap<>(missing.size() * 2);
+			missing.forEach(id -> generations.put(id, generation(id)));
+			for (T loaded : loader.apply(missing)) {
+				entities.put(idOf(loaded), loaded);
+				putIfNotInvalidated(idOf(loaded), loaded, generations.get(idOf(loaded)));
+			}
+		}
+		return entities;
+	}
+
+	private long generation(Long id) {
+		return generations.get(stripe(id));
+	}
+
+	private static int stripe(Long id) {
+		return (int) Math.floorMod(id, (long) STRIPES);
+	}
+
+	// Checked under the entry's lock, so an invalidation either rejects the load or removes what it cached
+	private void putIfNotInvalidated(Long id, T loaded, long generation) {
+		cache.asMap().compute(id, (key, current) -> generation(id) == generation ? copy(loaded) : current);
+	}
+
+	/**
+	 * Drops the entity now and again once the current transaction completes, so that
+	 * a concurrent miss cannot put back the row as it was before the change committed.
+	 */
+	public void invalidate(Long id) {
+		evict(id);
+		Transactions.afterCompletion(() -> evict(id));
+	}
+
+	public void invalidateAll() {
+		for (int stripe = 0; stripe < STRIPES; stripe++) {
+			generations.incrementAndGet(stripe);
+		}
+		cache.invalidateAll();
+	}
+
+	// Bumps the generation before removing, so a load still running cannot cache its row afterwards
+	private void evict(Long id) {
+		generations.incrementAndGet(stripe(id));
+		cache.invalidate(id);
+	}
+
+	public long size() {
+		return cache.estimatedSize();
+	}
+
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	// Publishes the same counters as stats() as cache.* meters tagged with the cache name
+	public void bindTo(MeterRegistry registry, String name) {
+		CaffeineCacheMetrics.monitor(registry, cache, name);
+	}
+}
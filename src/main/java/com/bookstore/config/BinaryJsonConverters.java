@@ -0,0 +1,35 @@
+package com.bookstore.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * CBOR (application/cbor) and Smile (application/x-jackson-smile) next to JSON, chosen by
+ * the Accept header. Both are binary encodings of the same data model as JSON, so every
+ * DTO serializes to them unchanged; numbers are written as binary values instead of text
+ * and Smile also refers back to field names it has already written, which is what makes
+ * long lists smaller and cheaper to encode and decode.
+ *
+ * Spring MVC would register both on its own once the formats are on the classpath, but
+ * with a default ObjectMapper; these are built from Spring Boot's builder, so they are
+ * configured exactly like the JSON one and replace the defaults.
+ */
+@Configuration
+public class BinaryJsonConverters {
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+}
@@ -0,0 +1,88 @@
+package com.bookstore.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source that lets at most a fixed number of threads hold or wait for a connection.
+ *
+ * A permit is taken before asking the pool for a connection and given back when the
+ * connection is closed. Threads beyond the limit wait in a fair queue for at most the
+ * acquire timeout and then fail with a transient exception, instead of all piling onto
+ * the pool at once.
+ */
+class BulkheadDataSource extends DelegatingDataSource {
+
+	private interface ConnectionSupplier {
+		Connection get() throws SQLException;
+	}
+
+	private final Semaphore	permits;
+	private final Duration	acquireTimeout;
+
+	BulkheadDataSource(DataSource target, int permits, Duration acquireTimeout) {
+		super(target);
+		this.permits		= new Semaphore(permits, true);
+		this.acquireTimeout	= acquireTimeout;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return acquire(super::getConnection);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return acquire(() -> super.getConnection(username, password));
+	}
+
+	int availablePermits() {
+		return permits.availablePermits();
+	}
+
+	private Connection acquire(ConnectionSupplier supplier) throws SQLException {
+		try {
+			if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+				throw new SQLTransientConnectionException("No database connection available within " + acquireTimeout.toMillis() + " ms");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+		}
+
+		try {
+			return releasingOnClose(supplier.get());
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	// Closing the connection gives the permit back, once however often close is called
+	private Connection releasingOnClose(Connection connection) {
+		AtomicBoolean released = new AtomicBoolean();
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+				(proxy, method, args) -> {
+					try {
+						return method.invoke(connection, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					} finally {
+						if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+							permits.release();
+						}
+					}
+				});
+	}
+}
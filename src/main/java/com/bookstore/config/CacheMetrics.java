@@ -0,0 +1,28 @@
+package com.bookstore.config;
+
+import org.springframework.stereotype.Component;
+
+import com.bookstore.cache.BookCache;
+import com.bookstore.cache.CustomerCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Entity cache meters. The Hikari pool, Hibernate statistics and HTTP requests are bound by
+ * Spring Boot itself; these caches are not Spring caches, so they are bound here.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics implements MeterBinder {
+
+	private final BookCache		bookCache;
+	private final CustomerCache	customerCache;
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		bookCache.bindTo(registry, "books");
+		customerCache.bindTo(registry, "customers");
+	}
+}
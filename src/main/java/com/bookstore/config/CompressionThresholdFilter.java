@@ -0,0 +1,162 @@
+package com.bookstore.config;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Lets Tomcat apply server.compression.min-response-size to JSON, CBOR and Smile bodies.
+ *
+ * Tomcat decides whether to compress when the response is committed, and a response
+ * committed before its length is known is always compressed. Spring MVC flushes the
+ * response once a message converter has written a body, which commits it; ignoring those
+ * flushes lets a body that fits in the servlet buffer complete with a Content-Length, so
+ * small responses go out as they are. Larger bodies fill the buffer, commit on their own
+ * and are compressed as before.
+ *
+ * Only flushes of a JSON, CBOR or Smile body outside async processing are ignored, on the
+ * output stream and the writer alike. The NDJSON reads are written asynchronously with
+ * their own content type and keep every flush, as do the actuator endpoints.
+ */
+@Component
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+	private static final List<MediaType> BUFFERED_TYPES = List.of(
+			MediaType.APPLICATION_JSON,
+			MediaType.APPLICATION_CBOR,
+			MediaType.parseMediaType("application/x-jackson-smile"));
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		chain.doFilter(request, new DeferredFlushResponse(request, response));
+	}
+
+	private static boolean isBuffered(String contentType) {
+		if (contentType == null) {
+			return false;
+		}
+		try {
+			MediaType type = MediaType.parseMediaType(contentType);
+			return BUFFERED_TYPES.stream().anyMatch(buffered -> buffered.equalsTypeAndSubtype(type));
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	private static final class DeferredFlushResponse extends HttpServletResponseWrapper {
+
+		private final HttpServletRequest request;
+
+		private ServletOutputStream	outputStream;
+		private PrintWriter			writer;
+
+		DeferredFlushResponse(HttpServletRequest request, HttpServletResponse response) {
+			super(response);
+			this.request = request;
+		}
+
+		// Decided on every flush, since the content type is only known once the handler has chosen it
+		boolean defersFlush() {
+			return !request.isAsyncStarted() && isBuffered(getContentType());
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (outputStream == null) {
+				outputStream = new DeferredFlushOutputStream(super.getOutputStream(), this);
+			}
+			return outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (writer == null) {
+				writer = new DeferredFlushWriter(super.getWriter(), this);
+			}
+			return writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (!defersFlush()) {
+				super.flushBuffer();
+			}
+		}
+	}
+
+	private static final class DeferredFlushWriter extends PrintWriter {
+
+		private final DeferredFlushResponse response;
+
+		DeferredFlushWriter(PrintWriter delegate, DeferredFlushResponse response) {
+			super(delegate);
+			this.response = response;
+		}
+
+		@Override
+		public void flush() {
+			if (!response.defersFlush()) {
+				super.flush();
+			}
+		}
+	}
+
+	private static final class DeferredFlushOutputStream extends ServletOutputStream {
+
+		private final ServletOutputStream	delegate;
+		private final DeferredFlushResponse	response;
+
+		DeferredFlushOutputStream(ServletOutputStream delegate, DeferredFlushResponse response) {
+			this.delegate = delegate;
+			this.response = response;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			delegate.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			delegate.write(b, off, len);
+		}
+
+		// A deferred flush is left to the container, which writes out whatever is left when the response completes
+		@Override
+		public void flush() throws IOException {
+			if (!response.defersFlush()) {
+				delegate.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+		}
+
+		@Override
+		public boolean isReady() {
+			return delegate.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			delegate.setWriteListener(writeListener);
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.bookstore.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Puts a bulkhead sized to the connection pool in front of the Hikari data source.
+ *
+ * With platform threads Tomcat's thread pool already bounds how many requests can wait
+ * for a connection. On virtual threads every request gets its own thread, so thousands
+ * of them could queue inside the pool at once; the bulkhead makes the excess wait in a
+ * fair semaphore and fail fast (503) once the acquire timeout passes. Enabled by the
+ * "virtual" Spring profile.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "bookstore.db.bulkhead.enabled", havingValue = "true")
+public class DatabaseBulkhead implements BeanPostProcessor, Ordered {
+
+	private final Duration acquireTimeout;
+
+	public DatabaseBulkhead(@Value("${bookstore.db.bulkhead.acquire-timeout:5s}") Duration acquireTimeout) {
+		this.acquireTimeout = acquireTimeout;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean instanceof HikariDataSource hikari) {
+			log.info("Database bulkhead of {} permits in front of the connection pool", hikari.getMaximumPoolSize());
+			return new BulkheadDataSource(hikari, hikari.getMaximumPoolSize(), acquireTimeout);
+		}
+		return bean;
+	}
+
+	// Before SqlAccounting wraps the pool and hides its type
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+}
@@ -0,0 +1,45 @@
+package com.bookstore.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.service.LoyaltyLedger;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rolls loyalty ledger entries into the customer snapshots in the background, one
+ * bounded transaction at a time, so balances stay cheap to compute however long the
+ * history grows.
+ */
+@Slf4j
+@Component
+@EnableScheduling
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "bookstore.loyalty.compaction.enabled", matchIfMissing = true)
+public class LoyaltyCompactionJob {
+
+	private final LoyaltyLedger loyaltyLedger;
+
+	@Value("${bookstore.loyalty.compaction.batch-size:1000}")
+	private int batchSize;
+
+	@Scheduled(fixedDelayString = "${bookstore.loyalty.compaction.interval:PT1M}", initialDelayString = "${bookstore.loyalty.compaction.interval:PT1M}")
+	public void compact() {
+		long	start	= System.nanoTime();
+		int		total	= 0;
+		int		rolled;
+		do {
+			rolled	= loyaltyLedger.compact(batchSize);
+			total	+= rolled;
+		} while (rolled == batchSize);
+
+		if (total > 0) {
+			log.info("Compacted {} loyalty entries in {} ms", total, (System.nanoTime() - start) / 1_000_000);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.bookstore.config;
+
+import org.springframework.stereotype.Component;
+
+import com.bookstore.service.BookService;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds the in-memory book search index from the database at startup. From then on
+ * BookService keeps it up to date on every write.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndexInitializer {
+
+	private final BookService bookService;
+
+	@PostConstruct
+	public void initialize() {
+		long start = System.nanoTime();
+		bookService.rebuildSearchIndex();
+		log.info("Built book search index in {} ms", (System.nanoTime() - start) / 1_000_000);
+	}
+}
@@ -0,0 +1,54 @@
+package com.bookstore.config;
+
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves the id sequences past rows that were inserted while the tables still used
+ * IDENTITY columns, so a database created before the switch keeps working.
+ *
+ * With the pooled optimizer a sequence value is the top of the next block of ids,
+ * so the sequence must be at least one allocation past the highest existing id.
+ * Runs once at startup and does nothing when the sequences are already ahead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SequenceMigration {
+
+	// Must match the allocationSize of the entity sequence generators
+	static final int ALLOCATION_SIZE = 50;
+
+	private static final Map<String, String> SEQUENCES = Map.of(
+			"books",		"books_seq",
+			"customers",	"customers_seq",
+			"purchases",	"purchases_seq");
+
+	private final JdbcTemplate jdbcTemplate;
+
+	// Injected so that Hibernate has created or updated the schema first
+	private final EntityManagerFactory entityManagerFactory;
+
+	@PostConstruct
+	public void migrate() {
+		SEQUENCES.forEach((table, sequence) -> {
+			long maxId		= jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+			Long nextValue	= jdbcTemplate.queryForObject(
+					"SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+					Long.class, sequence.toUpperCase());
+
+			if (nextValue != null && nextValue - ALLOCATION_SIZE < maxId) {
+				long restart = maxId + ALLOCATION_SIZE;
+				jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+				log.info("Restarted sequence {} at {} to skip existing ids of {}", sequence, restart, table);
+			}
+		});
+	}
+}
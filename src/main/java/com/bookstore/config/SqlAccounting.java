@@ -0,0 +1,31 @@
+package com.bookstore.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the data source so that every statement is counted and timed, see
+ * {@link SqlStatistics}. Runs after the other data source wrappers, so it sees the
+ * statements of every connection handed out.
+ */
+@Component
+@ConditionalOnProperty(name = "bookstore.sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccounting implements BeanPostProcessor, Ordered {
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean instanceof DataSource dataSource && !(bean instanceof SqlAccountingDataSource)) {
+			return new SqlAccountingDataSource(dataSource);
+		}
+		return bean;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+}
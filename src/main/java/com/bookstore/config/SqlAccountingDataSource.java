@@ -0,0 +1,77 @@
+package com.bookstore.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source that times every statement executed on its connections and records it in
+ * the {@link SqlStatistics} of the calling thread.
+ *
+ * Only the execute calls are timed, so the time is what the database took to answer and
+ * not the time spent reading the results.
+ */
+class SqlAccountingDataSource extends DelegatingDataSource {
+
+	SqlAccountingDataSource(DataSource target) {
+		super(target);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return accounting(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return accounting(super.getConnection(username, password));
+	}
+
+	// Statements created by the connection are accounted, everything else is passed through
+	private static Connection accounting(Connection connection) {
+		return proxy(Connection.class, connection, (proxy, method, args) -> {
+			Object result = invoke(connection, method, args);
+			if (result instanceof Statement statement) {
+				return accounting(method.getReturnType(), statement, method.getName().startsWith("prepare") ? (String) args[0] : null);
+			}
+			return result;
+		});
+	}
+
+	// A plain statement gets its SQL with each execute call, a prepared one when it is prepared
+	private static Object accounting(Class<?> type, Statement statement, String preparedSql) {
+		return proxy(type, statement, (proxy, method, args) -> {
+			if (!method.getName().startsWith("execute")) {
+				return invoke(statement, method, args);
+			}
+			String	sql		= preparedSql != null ? preparedSql : args != null && args.length > 0 ? (String) args[0] : "batch";
+			long	start	= System.nanoTime();
+			try {
+				return invoke(statement, method, args);
+			} finally {
+				SqlStatistics.record(sql, System.nanoTime() - start);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
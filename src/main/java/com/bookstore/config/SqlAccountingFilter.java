@@ -0,0 +1,132 @@
+package com.bookstore.config;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts the SQL statements each request runs on its thread.
+ *
+ * Requests slower than the threshold are logged with their statement count and time, and
+ * any SQL text run at least the repeated-statement threshold times within one request is
+ * logged as a possible N+1. With headers enabled the response carries X-SQL-Count and
+ * X-SQL-Time (milliseconds). Headers must be written before the body, so they cover the
+ * statements run before the response started; streamed responses run the rest later.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "bookstore.sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+	public static final String COUNT_HEADER	= "X-SQL-Count";
+	public static final String TIME_HEADER	= "X-SQL-Time";
+
+	private final boolean	headers;
+	private final Duration	slowRequest;
+	private final int		repeatedStatements;
+
+	public SqlAccountingFilter(@Value("${bookstore.sql.headers.enabled:false}") boolean headers,
+			@Value("${bookstore.sql.slow-request:1s}") Duration slowRequest,
+			@Value("${bookstore.sql.repeated-statement-threshold:10}") int repeatedStatements) {
+		this.headers			= headers;
+		this.slowRequest		= slowRequest;
+		this.repeatedStatements	= repeatedStatements;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		SqlStatistics	statistics	= SqlStatistics.start();
+		long			start		= System.nanoTime();
+		try {
+			if (headers) {
+				SqlHeadersResponse withHeaders = new SqlHeadersResponse(response, statistics);
+				chain.doFilter(request, withHeaders);
+				withHeaders.writeHeaders();
+			} else {
+				chain.doFilter(request, response);
+			}
+		} finally {
+			SqlStatistics.stop();
+			report(request, statistics, Duration.ofNanos(System.nanoTime() - start));
+		}
+	}
+
+	private void report(HttpServletRequest request, SqlStatistics statistics, Duration elapsed) {
+		if (elapsed.compareTo(slowRequest) >= 0) {
+			log.warn("{} {} took {} ms, {} SQL statements in {} ms", request.getMethod(), request.getRequestURI(),
+					elapsed.toMillis(), statistics.count(), statistics.time().toMillis());
+		}
+		statistics.repeated(repeatedStatements).forEach((sql, executions) ->
+				log.warn("{} {} ran the same SQL statement {} times, possible N+1: {}", request.getMethod(), request.getRequestURI(), executions, sql));
+	}
+
+	// Adds the headers once, just before anything can commit the response
+	private static final class SqlHeadersResponse extends HttpServletResponseWrapper {
+
+		private final SqlStatistics	statistics;
+		private boolean				written;
+
+		SqlHeadersResponse(HttpServletResponse response, SqlStatistics statistics) {
+			super(response);
+			this.statistics = statistics;
+		}
+
+		void writeHeaders() {
+			if (!written && !isCommitted()) {
+				setHeader(COUNT_HEADER, String.valueOf(statistics.count()));
+				setHeader(TIME_HEADER, String.valueOf(statistics.time().toMillis()));
+			}
+			written = true;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			writeHeaders();
+			return super.getOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			writeHeaders();
+			return super.getWriter();
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			writeHeaders();
+			super.flushBuffer();
+		}
+
+		@Override
+		public void sendError(int status, String message) throws IOException {
+			writeHeaders();
+			super.sendError(status, message);
+		}
+
+		@Override
+		public void sendError(int status) throws IOException {
+			writeHeaders();
+			super.sendError(status);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			writeHeaders();
+			super.sendRedirect(location);
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.bookstore.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL statements executed by one thread between {@link #start()} and {@link #stop()}.
+ *
+ * The accounting data source records every statement it executes into the statistics of
+ * the calling thread, if that thread started any. A JDBC batch is one statement, since it
+ * is one round trip. Executions are also counted per SQL text, so a statement run once
+ * per row instead of once per request (N+1 loading) stands out.
+ */
+public final class SqlStatistics {
+
+	private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+	private final Map<String, Integer>	executions	= new HashMap<>();
+	private int							count;
+	private long						nanos;
+
+	private SqlStatistics() {
+	}
+
+	// Starts counting the statements of the current thread, replacing what was counted before
+	public static SqlStatistics start() {
+		SqlStatistics statistics = new SqlStatistics();
+		CURRENT.set(statistics);
+		return statistics;
+	}
+
+	public static void stop() {
+		CURRENT.remove();
+	}
+
+	static void record(String sql, long nanos) {
+		SqlStatistics statistics = CURRENT.get();
+		if (statistics != null) {
+			statistics.count++;
+			statistics.nanos += nanos;
+			statistics.executions.merge(sql, 1, Integer::sum);
+		}
+	}
+
+	public int count() {
+		return count;
+	}
+
+	public Duration time() {
+		return Duration.ofNanos(nanos);
+	}
+
+	// SQL texts executed at least the given number of times, most executed first
+	public Map<String, Integer> repeated(int threshold) {
+		Map<String, Integer> repeated = new LinkedHashMap<>();
+		executions.entrySet().stream()
+		.filter(execution -> execution.getValue() >= threshold)
+		.sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+		.forEach(execution -> repeated.put(execution.getKey(), execution.getValue()));
+		return repeated;
+	}
+}
@@ -1,7 +1,12 @@
 package com.bookstore.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,11 +14,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.bookstore.dto.BookDTO;
+import com.bookstore.dto.BookImportResultDTO;
+import com.bookstore.dto.PageDTO;
+import com.bookstore.dto.SuggestionDTO;
+import com.bookstore.service.BookImporter;
 import com.bookstore.service.BookService;
+import com.bookstore.service.CatalogVersion;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -24,22 +37,69 @@ import lombok.RequiredArgsConstructor;
 public class BookController {
 
 	private final BookService bookService;
+	private final NdjsonWriter ndjsonWriter;
+	private final HttpCaching httpCaching;
+	private final CatalogVersion catalogVersion;
+	private final BookImporter bookImporter;
 
-	// Get all books
+	// Get all books, 304 while the catalog has not changed
 	@GetMapping
-	public ResponseEntity<List<BookDTO>> getAllBooks() {
-		return ResponseEntity.ok(bookService.getAllBooks());
+	public ResponseEntity<List<BookDTO>> getAllBooks(@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return httpCaching.catalog(ifNoneMatch, catalogVersion.current(), bookService::getAllBooks);
 	}
 
-	// Get a book by ID
+	// Get only the given fields of all books, e.g. ?fields=id,title,price
+	@GetMapping(params = { "fields", "!limit" })
+	public ResponseEntity<List<Map<String, Object>>> getAllBooks(@RequestParam String fields,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return httpCaching.catalog(ifNoneMatch, catalogVersion.current(), () -> bookService.getAllBooks(fields));
+	}
+
+	// Stream all books as newline-delimited JSON
+	@GetMapping(produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+		return ndjsonWriter.stream(bookService::streamAllBooks);
+	}
+
+	// Get a page of books after the given cursor
+	@GetMapping(params = "limit")
+	public ResponseEntity<PageDTO<BookDTO>> getBooksPage(@RequestParam(required = false) String after,
+			@RequestParam int limit, @RequestParam(defaultValue = "id") String sort,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return httpCaching.catalog(ifNoneMatch, catalogVersion.current(), () -> bookService.getBooksPage(after, limit, sort));
+	}
+
+	// Search books by words of their title and author, best matches first
+	@GetMapping("/search")
+	public ResponseEntity<List<BookDTO>> searchBooks(@RequestParam(defaultValue = "") String q, @RequestParam(defaultValue = "20") int limit) {
+		return ResponseEntity.ok(bookService.searchBooks(q, limit));
+	}
+
+	// Suggest titles and authors starting with the typed prefix, most purchased first
+	@GetMapping("/suggest")
+	public ResponseEntity<List<SuggestionDTO>> suggestBooks(@RequestParam(defaultValue = "") String prefix,
+			@RequestParam(defaultValue = "10") int limit) {
+		return ResponseEntity.ok(bookService.suggestBooks(prefix, limit));
+	}
+
+	// Get a book by ID, 304 while the book has not changed
 	@GetMapping("/{id}")
-	public ResponseEntity<BookDTO> getBookById(@PathVariable String id) {
+	public ResponseEntity<BookDTO> getBookById(@PathVariable String id,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 		try {
 			Long bookId = Long.parseLong(id);
 			if (bookId < 0) {
 				throw new IllegalArgumentException("Book ID must be greater than or equal to 0");
 			}
-			return ResponseEntity.ok(bookService.getBookById(bookId));
+			// Revalidation compares the indexed version, so a 304 neither loads the book nor queries the database;
+			// a 200 is tagged with the version of the book it sends, which a write in between may have moved on
+			OptionalLong version = bookService.getBookVersion(bookId);
+			if (version.isPresent()) {
+				return httpCaching.catalog(ifNoneMatch, String.valueOf(version.getAsLong()), () -> bookService.getBookById(bookId),
+						book -> String.valueOf(book.getVersion()));
+			}
+			BookDTO book = bookService.getBookById(bookId);
+			return httpCaching.catalog(ifNoneMatch, String.valueOf(book.getVersion()), () -> book);
 		} catch (NumberFormatException e) {
 			throw new IllegalArgumentException("Invalid book ID format: " + id);
 		}
@@ -51,6 +111,18 @@ public class BookController {
 		return ResponseEntity.status(201).body(bookService.createBook(bookDTO));
 	}
 
+	// Import books from a CSV upload, chunk by chunk; the same upload under the same import ID resumes after the committed lines
+	@PostMapping(path = "/import", consumes = "text/csv")
+	public ResponseEntity<BookImportResultDTO> importBooksCsv(@RequestParam String importId, InputStream body) throws IOException {
+		return ResponseEntity.ok(bookImporter.importCsv(importId, body));
+	}
+
+	// Import books from newline-delimited JSON, one book per line, like the CSV import
+	@PostMapping(path = "/import", consumes = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<BookImportResultDTO> importBooksNdjson(@RequestParam String importId, InputStream body) throws IOException {
+		return ResponseEntity.ok(bookImporter.importNdjson(importId, body));
+	}
+
 	// Update an existing book
 	@PutMapping("/{id}")
 	public ResponseEntity<BookDTO> updateBook(@PathVariable String id, @Valid @RequestBody BookDTO bookDTO) {
@@ -0,0 +1,40 @@
+package com.bookstore.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bookstore.cache.BookCache;
+import com.bookstore.cache.CustomerCache;
+import com.bookstore.cache.EntityCache;
+import com.bookstore.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+	private final BookCache bookCache;
+	private final CustomerCache customerCache;
+
+	// Get hit, miss and eviction counters of the entity caches
+	@GetMapping("/stats")
+	public ResponseEntity<Map<String, CacheStatsDTO>> getCacheStats() {
+		Map<String, CacheStatsDTO> stats = new LinkedHashMap<>();
+		stats.put("books", toDTO(bookCache));
+		stats.put("customers", toDTO(customerCache));
+		return ResponseEntity.ok(stats);
+	}
+
+	private static CacheStatsDTO toDTO(EntityCache<?> cache) {
+		CacheStats stats = cache.stats();
+		return new CacheStatsDTO(stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate(), cache.size());
+	}
+}
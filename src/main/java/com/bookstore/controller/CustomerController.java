@@ -1,7 +1,9 @@
 package com.bookstore.controller;
 
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,10 +11,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.bookstore.dto.CustomerDTO;
+import com.bookstore.dto.LoyaltyEntryDTO;
+import com.bookstore.dto.PageDTO;
 import com.bookstore.service.CustomerService;
 
 import jakarta.validation.Valid;
@@ -24,6 +31,8 @@ import lombok.RequiredArgsConstructor;
 public class CustomerController {
 
 	private final CustomerService customerService;
+	private final NdjsonWriter ndjsonWriter;
+	private final HttpCaching httpCaching;
 
 	// Get all customers
 	@GetMapping
@@ -31,15 +40,52 @@ public class CustomerController {
 		return ResponseEntity.ok(customerService.getAllCustomers());
 	}
 
-	// Get a customer by ID
+	// Get only the given fields of all customers, e.g. ?fields=id,name
+	@GetMapping(params = { "fields", "!limit" })
+	public ResponseEntity<List<Map<String, Object>>> getAllCustomers(@RequestParam String fields) {
+		return ResponseEntity.ok(customerService.getAllCustomers(fields));
+	}
+
+	// Stream all customers as newline-delimited JSON
+	@GetMapping(produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAllCustomers() {
+		return ndjsonWriter.stream(customerService::streamAllCustomers);
+	}
+
+	// Get a page of customers after the given cursor
+	@GetMapping(params = "limit")
+	public ResponseEntity<PageDTO<CustomerDTO>> getCustomersPage(@RequestParam(required = false) String after,
+			@RequestParam int limit, @RequestParam(defaultValue = "id") String sort) {
+		return ResponseEntity.ok(customerService.getCustomersPage(after, limit, sort));
+	}
+
+	// Get a customer by ID, 304 while neither the customer nor their loyalty balance has changed
 	@GetMapping("/{id}")
-	public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable String id) {
+	public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable String id,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		try {
+			Long customerId = Long.parseLong(id);
+			if (customerId < 0) {
+				throw new IllegalArgumentException("Customer ID must be greater than or equal to 0");
+			}
+			// Loyalty points are appended to the ledger without touching the customer row and its version.
+			// There is no in-memory version to compare with, so a 304 after a customer cache miss still queries the database
+			CustomerDTO customer = customerService.getCustomerById(customerId);
+			return httpCaching.personal(ifNoneMatch, customer.getVersion() + "." + customer.getLoyaltyPoints(), () -> customer);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid customer ID format: " + id);
+		}
+	}
+
+	// Get the most recent loyalty ledger entries of a customer, newest first
+	@GetMapping("/{id}/loyalty-entries")
+	public ResponseEntity<List<LoyaltyEntryDTO>> getLoyaltyHistory(@PathVariable String id) {
 		try {
 			Long customerId = Long.parseLong(id);
 			if (customerId < 0) {
 				throw new IllegalArgumentException("Customer ID must be greater than or equal to 0");
 			}
-			return ResponseEntity.ok(customerService.getCustomerById(customerId));
+			return ResponseEntity.ok(customerService.getLoyaltyHistory(customerId));
 		} catch (NumberFormatException e) {
 			throw new IllegalArgumentException("Invalid customer ID format: " + id);
 		}
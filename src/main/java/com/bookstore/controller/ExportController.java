@@ -0,0 +1,28 @@
+package com.bookstore.controller;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bookstore.dto.ExportDTO;
+import com.bookstore.export.ColumnarExport;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+public class ExportController {
+
+	private final ColumnarExport columnarExport;
+
+	// Export books, customers, purchases and purchase_books to columnar files
+	@PostMapping
+	public ResponseEntity<ExportDTO> export() throws IOException {
+		return ResponseEntity.status(HttpStatus.CREATED).body(columnarExport.export());
+	}
+}
@@ -0,0 +1,96 @@
+package com.bookstore.controller;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Conditional GET with weak ETags built from resource versions, plus the Cache-Control
+ * policy of each kind of resource.
+ *
+ * The version is checked against If-None-Match before the body is produced, so a client
+ * that already holds the current version gets 304 Not Modified without the body being
+ * loaded or serialized. The catalog may be cached by anyone for a short while and is
+ * revalidated after that; customers may only be cached by the client itself, which must
+ * revalidate every time. The body may be JSON, CBOR or Smile depending on the Accept
+ * header, so responses vary by it and a shared cache keeps one copy per format.
+ *
+ * Versions live in the database or in memory and both start over with the in-memory
+ * database, where a recreated row gets the same id and version as a different one
+ * before. Every ETag is therefore prefixed with the start time: a tag handed out before
+ * a restart never matches one handed out after it.
+ */
+@Component
+public class HttpCaching {
+
+	private final long			epoch		= System.currentTimeMillis();
+	private final CacheControl	catalog;
+	private final CacheControl	personal	= CacheControl.noCache().cachePrivate();
+
+	public HttpCaching(@Value("${bookstore.http.catalog.max-age:30s}") Duration catalogMaxAge) {
+		this.catalog = CacheControl.maxAge(catalogMaxAge).cachePublic().mustRevalidate();
+	}
+
+	public <T> ResponseEntity<T> catalog(String ifNoneMatch, String version, Supplier<T> body) {
+		return conditional(ifNoneMatch, version, catalog, body);
+	}
+
+	// Revalidates against a version looked up without loading the body, but tags a 200 with the version of the body sent
+	public <T> ResponseEntity<T> catalog(String ifNoneMatch, String version, Supplier<T> body, Function<T, String> versionOfBody) {
+		if (matches(ifNoneMatch, etag(version))) {
+			return notModified(etag(version), catalog);
+		}
+		T loaded = body.get();
+		return ok(etag(versionOfBody.apply(loaded)), catalog, loaded);
+	}
+
+	public <T> ResponseEntity<T> personal(String ifNoneMatch, String version, Supplier<T> body) {
+		return conditional(ifNoneMatch, version, personal, body);
+	}
+
+	private <T> ResponseEntity<T> conditional(String ifNoneMatch, String version, CacheControl cacheControl, Supplier<T> body) {
+		String etag = etag(version);
+		if (matches(ifNoneMatch, etag)) {
+			return notModified(etag, cacheControl);
+		}
+		return ok(etag, cacheControl, body.get());
+	}
+
+	public String etag(String version) {
+		return "W/\"" + epoch + "." + version + "\"";
+	}
+
+	private static <T> ResponseEntity<T> notModified(String etag, CacheControl cacheControl) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).build();
+	}
+
+	private static <T> ResponseEntity<T> ok(String etag, CacheControl cacheControl, T body) {
+		return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).body(body);
+	}
+
+	// If-None-Match uses the weak comparison: only the quoted value counts, not the W/ prefix
+	static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		String value = withoutWeakPrefix(etag);
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			if (tag.equals("*") || withoutWeakPrefix(tag).equals(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String withoutWeakPrefix(String etag) {
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+}
@@ -0,0 +1,50 @@
+package com.bookstore.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes newline-delimited JSON straight to the response, one value per line,
+ * as the service produces them. Nothing is buffered beyond the servlet output buffer.
+ */
+@Component
+@RequiredArgsConstructor
+public class NdjsonWriter {
+
+	public static final String		APPLICATION_NDJSON_VALUE	= "application/x-ndjson";
+	public static final MediaType	APPLICATION_NDJSON			= MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+	private final ObjectMapper objectMapper;
+
+	public <T> ResponseEntity<StreamingResponseBody> stream(Consumer<Consumer<T>> source) {
+		ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+		StreamingResponseBody body = out -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+				generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+				source.accept(value -> {
+					try {
+						writer.writeValue(generator, value);
+						generator.writeRaw('\n');
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+	}
+}
@@ -1,6 +1,8 @@
 package com.bookstore.controller;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,9 +13,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.bookstore.dto.PageDTO;
+import com.bookstore.dto.PurchaseBatchResultDTO;
 import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.dto.PurchaseQuoteDTO;
+import com.bookstore.dto.PurchaseTicketDTO;
+import com.bookstore.service.PurchaseIntake;
 import com.bookstore.service.PurchaseService;
 
 import jakarta.validation.Valid;
@@ -25,6 +34,8 @@ import lombok.RequiredArgsConstructor;
 public class PurchaseController {
 
 	private final PurchaseService purchaseService;
+	private final NdjsonWriter ndjsonWriter;
+	private final PurchaseIntake purchaseIntake;
 
 	// Get all purchases
 	@GetMapping
@@ -32,6 +43,25 @@ public class PurchaseController {
 		return ResponseEntity.ok(purchaseService.getAllPurchases());
 	}
 
+	// Get only the given fields of all purchases, e.g. ?fields=id,totalPrice; the books are only read for bookIds
+	@GetMapping(params = { "fields", "!limit" })
+	public ResponseEntity<List<Map<String, Object>>> getAllPurchases(@RequestParam String fields) {
+		return ResponseEntity.ok(purchaseService.getAllPurchases(fields));
+	}
+
+	// Stream all purchases as newline-delimited JSON
+	@GetMapping(produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAllPurchases() {
+		return ndjsonWriter.stream(purchaseService::streamAllPurchases);
+	}
+
+	// Get a page of purchases after the given cursor
+	@GetMapping(params = "limit")
+	public ResponseEntity<PageDTO<PurchaseDTO>> getPurchasesPage(@RequestParam(required = false) String after,
+			@RequestParam int limit, @RequestParam(defaultValue = "id") String sort) {
+		return ResponseEntity.ok(purchaseService.getPurchasesPage(after, limit, sort));
+	}
+
 	// Get a purchase by ID
 	@GetMapping("/{id}")
 	public ResponseEntity<PurchaseDTO> getPurchaseById(@PathVariable String id) {
@@ -52,6 +82,36 @@ public class PurchaseController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(purchaseService.createPurchase(purchaseDTO));
 	}
 
+	// Queue a new purchase and return a ticket to follow it, the purchase is created in the background
+	@PostMapping("/async")
+	public ResponseEntity<PurchaseTicketDTO> submitPurchase(@Valid @RequestBody PurchaseDTO purchaseDTO) {
+		PurchaseTicketDTO ticket = purchaseIntake.submit(purchaseDTO);
+		return ResponseEntity.accepted().location(URI.create("/api/purchases/tickets/" + ticket.getId())).body(ticket);
+	}
+
+	// Get the status of a queued purchase
+	@GetMapping("/tickets/{id}")
+	public ResponseEntity<PurchaseTicketDTO> getTicket(@PathVariable String id) {
+		return ResponseEntity.ok(purchaseIntake.getTicket(id));
+	}
+
+	// Create many purchases at once, all-or-nothing when atomic
+	@PostMapping("/batch")
+	public ResponseEntity<PurchaseBatchResultDTO> createPurchases(@RequestBody List<PurchaseDTO> purchaseDTOs,
+			@RequestParam(defaultValue = "false") boolean atomic) {
+		PurchaseBatchResultDTO result = purchaseService.createPurchases(purchaseDTOs, atomic);
+		if (result.getFailed() == 0) {
+			return ResponseEntity.status(HttpStatus.CREATED).body(result);
+		}
+		return ResponseEntity.status(result.getCreated() == 0 ? HttpStatus.UNPROCESSABLE_ENTITY : HttpStatus.MULTI_STATUS).body(result);
+	}
+
+	// Price a purchase without creating it
+	@PostMapping("/quote")
+	public ResponseEntity<PurchaseQuoteDTO> quotePurchase(@Valid @RequestBody PurchaseDTO purchaseDTO) {
+		return ResponseEntity.ok(purchaseService.quotePurchase(purchaseDTO));
+	}
+
 	// Update an existing purchase
 	@PutMapping("/{id}")
 	public ResponseEntity<PurchaseDTO> updatePurchase(@PathVariable String id, @Valid @RequestBody PurchaseDTO purchaseDTO) {
@@ -4,6 +4,7 @@ import com.bookstore.model.BookType;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,9 +18,11 @@ public class BookDTO {
 	private Long id;
 
 	@NotNull(message = "Title cannot be null")
+	@Size(max = 255, message = "Title must be at most 255 characters")
 	private String title;
 
 	@NotNull(message = "Author cannot be null")
+	@Size(max = 255, message = "Author must be at most 255 characters")
 	private String author;
 
 	@NotNull(message = "Price cannot be null")
@@ -28,4 +31,11 @@ public class BookDTO {
 
 	@NotNull(message = "Book type cannot be null")
 	private BookType type;
+
+	// Read-only, set from the book; ignored when creating or updating
+	private long version;
+
+	public BookDTO(Long id, String title, String author, double price, BookType type) {
+		this(id, title, author, price, type, 0);
+	}
 }
\ No newline at end of file
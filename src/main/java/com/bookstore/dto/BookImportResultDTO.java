@@ -0,0 +1,27 @@
+package com.bookstore.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportResultDTO {
+	private String importId;
+
+	// Rows of this upload that were imported or rejected
+	private long accepted;
+
+	private long rejected;
+
+	// Rows already committed by an earlier upload of the same import
+	private long skipped;
+
+	// The first rejected rows, with their line numbers
+	private List<BookImportErrorDTO> errors;
+}
@@ -0,0 +1,24 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+	private long hits;
+
+	private long misses;
+
+	// Entries removed because of size or age, explicit invalidations are not counted
+	private long evictions;
+
+	private double hitRate;
+
+	// Approximate number of cached entries
+	private long size;
+}
@@ -20,4 +20,10 @@ public class CustomerDTO {
 	@Min(value = 0, message = "Minimum loyalty points must be 0")
 	private int loyaltyPoints;
 
+	// Read-only, set from the customer; ignored when creating or updating
+	private long version;
+
+	public CustomerDTO(Long id, String name, int loyaltyPoints) {
+		this(id, name, loyaltyPoints, 0);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.bookstore.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportDTO {
+	// Directory holding one columnar file per table
+	private String directory;
+
+	private List<ExportedTableDTO> tables;
+
+	private long durationMillis;
+}
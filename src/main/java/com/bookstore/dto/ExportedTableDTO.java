@@ -0,0 +1,20 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportedTableDTO {
+	private String table;
+
+	private String file;
+
+	private long rows;
+
+	private long bytes;
+}
@@ -0,0 +1,28 @@
+package com.bookstore.dto;
+
+import java.time.Instant;
+
+import com.bookstore.model.LoyaltyEntryType;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoyaltyEntryDTO {
+	private Long id;
+
+	// Null for manual adjustments
+	private Long purchaseId;
+
+	private LoyaltyEntryType type;
+
+	// Signed change of the balance
+	private int points;
+
+	private Instant createdAt;
+}
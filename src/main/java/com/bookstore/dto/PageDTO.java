@@ -0,0 +1,19 @@
+package com.bookstore.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDTO<T> {
+	private List<T> items;
+
+	// Opaque token to pass as "after" for the next page, null on the last page
+	private String nextCursor;
+}
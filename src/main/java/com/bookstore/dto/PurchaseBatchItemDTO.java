@@ -0,0 +1,30 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseBatchItemDTO {
+
+	public enum Status {
+		CREATED		,
+		FAILED		,
+		NOT_CREATED
+	}
+
+	// Position of the purchase in the submitted batch
+	private int index;
+
+	private Status status;
+
+	// Set when the purchase was created
+	private PurchaseDTO purchase;
+
+	// Set when the purchase failed or was not created
+	private String message;
+}
@@ -0,0 +1,20 @@
+package com.bookstore.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseBatchResultDTO {
+	private int created;
+
+	private int failed;
+
+	private List<PurchaseBatchItemDTO> items;
+}
@@ -0,0 +1,31 @@
+package com.bookstore.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseQuoteDTO {
+	private Long customerId;
+
+	private List<Long> bookIds;
+
+	// Sum of the undiscounted book prices
+	private double listPrice;
+
+	// Amount taken off by book type and bulk discounts
+	private double bookDiscount;
+
+	// Amount taken off by loyalty points, 0 when they do not apply
+	private double loyaltyDiscount;
+
+	private boolean loyaltyPointsApplied;
+
+	private double totalPrice;
+}
@@ -0,0 +1,29 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseTicketDTO {
+
+	public enum Status {
+		QUEUED		,
+		CREATED		,
+		FAILED
+	}
+
+	private String id;
+
+	private Status status;
+
+	// Set when the purchase was created
+	private PurchaseDTO purchase;
+
+	// Set when the purchase failed
+	private String message;
+}
@@ -0,0 +1,10 @@
+package com.bookstore.exception;
+
+// Thrown when a chunk of a book import could not be written; uploading the same file again resumes after the last committed chunk
+public class BookImportFailedException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	public BookImportFailedException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -4,8 +4,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -28,6 +31,39 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(Collections.singletonMap("message", ex.getMessage()), HttpStatus.NOT_FOUND);
 	}
 
+	@ExceptionHandler(PurchaseTicketNotFoundException.class)
+	public ResponseEntity<Map<String, String>> handlePurchaseTicketNotFoundException(PurchaseTicketNotFoundException ex) {
+		return new ResponseEntity<>(Collections.singletonMap("message", ex.getMessage()), HttpStatus.NOT_FOUND);
+	}
+
+	// Backpressure: the client is told to come back instead of piling more work onto a full queue
+	@ExceptionHandler(IntakeQueueFullException.class)
+	public ResponseEntity<Map<String, String>> handleIntakeQueueFullException(IntakeQueueFullException ex) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, "1")
+				.body(Collections.singletonMap("message", ex.getMessage()));
+	}
+
+	// The chunks committed before the failure stay, the message tells where a re-upload resumes
+	@ExceptionHandler(BookImportFailedException.class)
+	public ResponseEntity<Map<String, String>> handleBookImportFailedException(BookImportFailedException ex) {
+		return new ResponseEntity<>(Collections.singletonMap("message", ex.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
+	}
+
+	// The database bulkhead or the connection pool had no connection to give within its timeout
+	@ExceptionHandler(CannotCreateTransactionException.class)
+	public ResponseEntity<Map<String, String>> handleCannotCreateTransactionException(CannotCreateTransactionException ex) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, "1")
+				.body(Collections.singletonMap("message", "Database busy, please retry later"));
+	}
+
+	// Someone else changed the book or customer between reading and writing it
+	@ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+	public ResponseEntity<Map<String, String>> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex) {
+		return new ResponseEntity<>(Collections.singletonMap("message", "The resource was changed concurrently, please retry"), HttpStatus.CONFLICT);
+	}
+
 	@ExceptionHandler(InvalidBookTypeException.class)
 	public ResponseEntity<Map<String, String>> handleInvalidBookTypeException(InvalidBookTypeException ex) {
 		return new ResponseEntity<>(Collections.singletonMap("message", ex.getMessage()), HttpStatus.BAD_REQUEST);
@@ -0,0 +1,10 @@
+package com.bookstore.exception;
+
+// Thrown when the asynchronous purchase intake cannot take more work, the client should retry later
+public class IntakeQueueFullException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	public IntakeQueueFullException(String message) {
+		super(message);
+	}
+}
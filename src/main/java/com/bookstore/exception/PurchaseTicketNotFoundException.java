@@ -0,0 +1,9 @@
+package com.bookstore.exception;
+
+public class PurchaseTicketNotFoundException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	public PurchaseTicketNotFoundException(String message) {
+		super(message);
+	}
+}
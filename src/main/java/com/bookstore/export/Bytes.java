@@ -0,0 +1,123 @@
+package com.bookstore.export;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte array with the primitive encodings of the columnar format, reused from
+ * one column chunk to the next so encoding a row group does not allocate.
+ */
+final class Bytes {
+
+	private byte[]	data;
+	private int		size;
+
+	Bytes(int capacity) {
+		data = new byte[capacity];
+	}
+
+	byte[] array() {
+		return data;
+	}
+
+	int size() {
+		return size;
+	}
+
+	void clear() {
+		size = 0;
+	}
+
+	void writeByte(int value) {
+		ensure(1);
+		data[size++] = (byte) value;
+	}
+
+	void writeBytes(byte[] bytes, int offset, int length) {
+		ensure(length);
+		System.arraycopy(bytes, offset, data, size, length);
+		size += length;
+	}
+
+	// Seven bits per byte, least significant first, the high bit set on every byte but the last
+	void writeVarLong(long value) {
+		ensure(10);
+		while ((value & ~0x7FL) != 0) {
+			data[size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data[size++] = (byte) value;
+	}
+
+	// Zigzag maps small negative numbers to small positive ones: 0, -1, 1, -2 become 0, 1, 2, 3
+	void writeSignedVarLong(long value) {
+		writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	void writeLong(long value) {
+		ensure(8);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			data[size++] = (byte) (value >>> shift);
+		}
+	}
+
+	void writeString(String value) {
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(utf8.length);
+		writeBytes(utf8, 0, utf8.length);
+	}
+
+	private void ensure(int extra) {
+		if (size + extra > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+		}
+	}
+
+	// Reads what a Bytes wrote, from the start of an array
+	static final class Reader {
+
+		private final byte[]	data;
+		private int				position;
+
+		Reader(byte[] data) {
+			this.data = data;
+		}
+
+		int readByte() {
+			return data[position++] & 0xFF;
+		}
+
+		long readVarLong() {
+			long	value	= 0;
+			int		shift	= 0;
+			while (true) {
+				int b = data[position++];
+				value |= (long) (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+				shift += 7;
+			}
+		}
+
+		long readSignedVarLong() {
+			long value = readVarLong();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		long readLong() {
+			long value = 0;
+			for (int i = 0; i < 8; i++) {
+				value = (value << 8) | (data[position++] & 0xFF);
+			}
+			return value;
+		}
+
+		String readString() {
+			int		length	= (int) readVarLong();
+			String	value	= new String(data, position, length, StandardCharsets.UTF_8);
+			position += length;
+			return value;
+		}
+	}
+}
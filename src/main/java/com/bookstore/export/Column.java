@@ -0,0 +1,5 @@
+package com.bookstore.export;
+
+// A column of a columnar file: its name and encoding
+public record Column(String name, ColumnType type) {
+}
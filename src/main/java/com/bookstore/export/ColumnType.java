@@ -0,0 +1,50 @@
+package com.bookstore.export;
+
+/**
+ * How the values of a column are encoded in a row group, before the chunk is compressed.
+ */
+public enum ColumnType {
+
+	// Longs stored as the zigzag varint of the difference to the previous value: ids sorted or
+	// clustered in the export order take one or two bytes each
+	DELTA		(1),
+
+	// Longs stored as zigzag varints, small numbers of either sign take few bytes
+	VARINT		(2),
+
+	// Doubles as their 8-byte IEEE 754 bits
+	DOUBLE		(3),
+
+	// Booleans packed eight to a byte
+	BOOLEAN		(4),
+
+	// Strings as varint length and UTF-8 bytes
+	STRING		(5),
+
+	// Strings as an index into the distinct values of the row group, written once before the indexes;
+	// for columns with few distinct values, such as book types and authors
+	DICTIONARY	(6);
+
+	final int code;
+
+	ColumnType(int code) {
+		this.code = code;
+	}
+
+	static ColumnType of(int code) {
+		for (ColumnType type : values()) {
+			if (type.code == code) {
+				return type;
+			}
+		}
+		throw new IllegalArgumentException("Unknown column type: " + code);
+	}
+
+	boolean isLong() {
+		return this == DELTA || this == VARINT;
+	}
+
+	boolean isString() {
+		return this == STRING || this == DICTIONARY;
+	}
+}
@@ -0,0 +1,155 @@
+package com.bookstore.export;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bookstore.dto.ExportDTO;
+import com.bookstore.dto.ExportedTableDTO;
+import com.bookstore.model.Customer;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exports books, customers, purchases and purchase_books to columnar files for analysis.
+ *
+ * Each table is read with one forward-only query and its rows are handed straight to a
+ * {@link ColumnarWriter}, without entities or DTOs, so memory holds one row group per
+ * table being written whatever the size of the tables. Ids are delta encoded, book types
+ * and authors dictionary encoded. All tables are read in one repeatable-read transaction,
+ * so the files agree with each other. The files are written to a temporary directory
+ * that is renamed once every file is complete; a failed export leaves nothing behind that
+ * looks finished.
+ */
+@Slf4j
+@Service
+@Timed("bookstore.service")
+public class ColumnarExport {
+
+	static final String FILE_EXTENSION = ".bkc";
+
+	private static final DateTimeFormatter RUN_NAME = DateTimeFormatter.ofPattern("'export-'yyyyMMdd-HHmmss-SSS");
+
+	// Copies the current row of a result set into the writer's current row
+	private interface RowCopier {
+		void copy(ResultSet rs, ColumnarWriter writer) throws SQLException;
+	}
+
+	private record Table(String name, String sql, List<Column> columns, RowCopier copier) {
+	}
+
+	private static final List<Table> TABLES = List.of(
+			new Table("books",
+					"SELECT id, title, author, price, type, version FROM books ORDER BY id",
+					List.of(new Column("id", ColumnType.DELTA), new Column("title", ColumnType.STRING),
+							new Column("author", ColumnType.DICTIONARY), new Column("price", ColumnType.DOUBLE),
+							new Column("type", ColumnType.DICTIONARY), new Column("version", ColumnType.VARINT)),
+					(rs, writer) -> writer.set(0, rs.getLong(1)).set(1, rs.getString(2)).set(2, rs.getString(3))
+							.set(3, rs.getDouble(4)).set(4, rs.getString(5)).set(5, rs.getLong(6))),
+			new Table("customers",
+					"SELECT c.id, c.name, " + Customer.LOYALTY_POINTS_SQL + ", c.version FROM customers c ORDER BY c.id",
+					List.of(new Column("id", ColumnType.DELTA), new Column("name", ColumnType.STRING),
+							new Column("loyalty_points", ColumnType.VARINT), new Column("version", ColumnType.VARINT)),
+					(rs, writer) -> writer.set(0, rs.getLong(1)).set(1, rs.getString(2)).set(2, rs.getLong(3)).set(3, rs.getLong(4))),
+			new Table("purchases",
+					"SELECT id, customer_id, total_price, loyalty_points_used FROM purchases ORDER BY id",
+					List.of(new Column("id", ColumnType.DELTA), new Column("customer_id", ColumnType.DELTA),
+							new Column("total_price", ColumnType.DOUBLE), new Column("loyalty_points_used", ColumnType.BOOLEAN)),
+					(rs, writer) -> writer.set(0, rs.getLong(1)).set(1, rs.getLong(2)).set(2, rs.getDouble(3)).set(3, rs.getBoolean(4))),
+			new Table("purchase_books",
+					"SELECT purchase_id, book_id FROM purchase_books ORDER BY purchase_id, book_id",
+					List.of(new Column("purchase_id", ColumnType.DELTA), new Column("book_id", ColumnType.DELTA)),
+					(rs, writer) -> writer.set(0, rs.getLong(1)).set(1, rs.getLong(2))));
+
+	private final JdbcTemplate	jdbcTemplate;
+	private final Path			directory;
+	private final int			rowGroupSize;
+
+	public ColumnarExport(DataSource dataSource,
+			@Value("${bookstore.export.directory:${java.io.tmpdir}/bookstore-export}") Path directory,
+			@Value("${bookstore.export.row-group-size:65536}") int rowGroupSize) {
+		this.jdbcTemplate	= new JdbcTemplate(dataSource);
+		this.directory		= directory;
+		this.rowGroupSize	= rowGroupSize;
+		this.jdbcTemplate.setFetchSize(10_000);
+	}
+
+	@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+	public ExportDTO export() throws IOException {
+		long	start		= System.nanoTime();
+		Path	run			= runDirectory();
+		Path	incomplete	= directory.resolve(run.getFileName() + ".tmp");
+		Files.createDirectories(incomplete);
+
+		List<ExportedTableDTO> tables = new ArrayList<>(TABLES.size());
+		try {
+			for (Table table : TABLES) {
+				tables.add(export(table, incomplete.resolve(table.name() + FILE_EXTENSION)));
+			}
+			Files.move(incomplete, run, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			deleteQuietly(incomplete);
+			throw e;
+		}
+
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		log.info("Exported {} in {} ms to {}", tables.stream().map(table -> table.getRows() + " " + table.getTable()).toList(), millis, run);
+		return new ExportDTO(run.toString(), tables, millis);
+	}
+
+	private ExportedTableDTO export(Table table, Path file) throws IOException {
+		try (ColumnarWriter writer = ColumnarWriter.create(file, table.columns(), rowGroupSize)) {
+			jdbcTemplate.query(table.sql(), rs -> {
+				table.copier().copy(rs, writer);
+				try {
+					writer.endRow();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			long rows = writer.rowCount();
+			writer.close();
+			return new ExportedTableDTO(table.name(), file.getFileName().toString(), rows, Files.size(file));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	// Named after the time of the export, with a counter when two start within the same millisecond
+	private synchronized Path runDirectory() {
+		String	name	= LocalDateTime.now().format(RUN_NAME);
+		Path	run		= directory.resolve(name);
+		for (int i = 2; Files.exists(run) || Files.exists(directory.resolve(run.getFileName() + ".tmp")); i++) {
+			run = directory.resolve(name + "-" + i);
+		}
+		return run;
+	}
+
+	private static void deleteQuietly(Path incomplete) {
+		try (var files = Files.list(incomplete)) {
+			for (Path file : files.toList()) {
+				Files.deleteIfExists(file);
+			}
+			Files.deleteIfExists(incomplete);
+		} catch (IOException e) {
+			log.warn("Could not remove incomplete export {}: {}", incomplete, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,277 @@
+package com.bookstore.export;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a file written by {@link ColumnarWriter}, one row group at a time.
+ *
+ * Opening a file reads only its footer; a row group is read and decoded when asked for,
+ * so memory holds one row group whatever the size of the file. Run as a program it
+ * prints a file as CSV:
+ *
+ * <pre>
+ * java -cp bookstore.jar -Dloader.main=com.bookstore.export.ColumnarReader \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher purchases.bkc
+ * </pre>
+ */
+public final class ColumnarReader implements Closeable {
+
+	private final FileChannel	channel;
+	private final List<Column>	columns;
+
+	// Per row group: the row count, then offset, compressed length and raw length of each column chunk
+	private final long[][]		rowGroups;
+	private final long			rowCount;
+
+	private ColumnarReader(FileChannel channel) throws IOException {
+		this.channel = channel;
+
+		long size = channel.size();
+		if (size < 2L * ColumnarWriter.MAGIC.length + 4) {
+			throw new IOException("Not a columnar file, too short");
+		}
+		ByteBuffer trailer = read(size - 8, 8);
+		int length = trailer.getInt();
+		checkMagic(trailer);
+		checkMagic(read(0, ColumnarWriter.MAGIC.length));
+
+		Bytes.Reader	footer	= new Bytes.Reader(read(size - 8 - length, length).array());
+		List<Column>	names	= new ArrayList<>();
+		for (long i = footer.readVarLong(); i > 0; i--) {
+			names.add(new Column(footer.readString(), ColumnType.of(footer.readByte())));
+		}
+		this.columns	= Collections.unmodifiableList(names);
+		this.rowGroups	= new long[(int) footer.readVarLong()][];
+		long rows = 0;
+		for (int group = 0; group < rowGroups.length; group++) {
+			rowGroups[group] = new long[1 + 3 * columns.size()];
+			for (int i = 0; i < rowGroups[group].length; i++) {
+				rowGroups[group][i] = footer.readVarLong();
+			}
+			rows += rowGroups[group][0];
+		}
+		this.rowCount = rows;
+	}
+
+	public static ColumnarReader open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			return new ColumnarReader(channel);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw new IOException("Cannot read columnar file " + file + ": " + e.getMessage(), e);
+		}
+	}
+
+	public List<Column> columns() {
+		return columns;
+	}
+
+	public long rowCount() {
+		return rowCount;
+	}
+
+	public int rowGroupCount() {
+		return rowGroups.length;
+	}
+
+	// Reads and decodes every column of a row group
+	public RowGroup rowGroup(int index) throws IOException {
+		long[]		group		= rowGroups[index];
+		int			rows		= (int) group[0];
+		RowGroup	result		= new RowGroup(rows, columns.size());
+		Inflater	inflater	= new Inflater();
+		try {
+			for (int column = 0; column < columns.size(); column++) {
+				ByteBuffer	chunk		= read(group[1 + 3 * column], (int) group[2 + 3 * column]);
+				byte[]		decoded		= new byte[(int) group[3 + 3 * column]];
+				inflater.reset();
+				inflater.setInput(chunk.array(), 0, chunk.limit());
+				if (inflater.inflate(decoded) != decoded.length) {
+					throw new IOException("Corrupt column chunk " + columns.get(column).name() + " in row group " + index);
+				}
+				result.values[column] = decode(columns.get(column).type(), new Bytes.Reader(decoded), rows);
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupt row group " + index + ": " + e.getMessage(), e);
+		} finally {
+			inflater.end();
+		}
+		return result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private static Object decode(ColumnType type, Bytes.Reader in, int rows) {
+		switch (type) {
+		case	DELTA		: {
+			long[]	values		= new long[rows];
+			long	previous	= 0;
+			for (int row = 0; row < rows; row++) {
+				previous		+= in.readSignedVarLong();
+				values[row]		= previous;
+			}
+			return values;
+		}
+		case	VARINT		: {
+			long[] values = new long[rows];
+			for (int row = 0; row < rows; row++) {
+				values[row] = in.readSignedVarLong();
+			}
+			return values;
+		}
+		case	DOUBLE		: {
+			double[] values = new double[rows];
+			for (int row = 0; row < rows; row++) {
+				values[row] = Double.longBitsToDouble(in.readLong());
+			}
+			return values;
+		}
+		case	BOOLEAN		: {
+			boolean[] values = new boolean[rows];
+			for (int row = 0; row < rows; row += 8) {
+				int bits = in.readByte();
+				for (int bit = 0; bit < 8 && row + bit < rows; bit++) {
+					values[row + bit] = (bits & (1 << bit)) != 0;
+				}
+			}
+			return values;
+		}
+		case	STRING		: {
+			String[] values = new String[rows];
+			for (int row = 0; row < rows; row++) {
+				values[row] = in.readString();
+			}
+			return values;
+		}
+		case	DICTIONARY	: {
+			String[] dictionary = new String[(int) in.readVarLong()];
+			for (int i = 0; i < dictionary.length; i++) {
+				dictionary[i] = in.readString();
+			}
+			String[] values = new String[rows];
+			for (int row = 0; row < rows; row++) {
+				values[row] = dictionary[(int) in.readVarLong()];
+			}
+			return values;
+		}
+		default				: {
+			throw new IllegalStateException("Unknown column type: " + type);
+		}
+		}
+	}
+
+	private ByteBuffer read(long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of file");
+			}
+		}
+		return buffer.flip();
+	}
+
+	private static void checkMagic(ByteBuffer buffer) throws IOException {
+		byte[] magic = new byte[ColumnarWriter.MAGIC.length];
+		buffer.get(magic);
+		if (!Arrays.equals(magic, ColumnarWriter.MAGIC)) {
+			throw new IOException("Not a columnar file, bad magic");
+		}
+	}
+
+	/**
+	 * The decoded columns of one row group. Values are read by column and row, as the
+	 * primitive of the column's type; {@link #get(int, int)} boxes any of them.
+	 */
+	public static final class RowGroup {
+
+		private final int		rows;
+		private final Object[]	values;
+
+		private RowGroup(int rows, int columns) {
+			this.rows	= rows;
+			this.values	= new Object[columns];
+		}
+
+		public int rows() {
+			return rows;
+		}
+
+		public long getLong(int column, int row) {
+			return ((long[]) values[column])[row];
+		}
+
+		public double getDouble(int column, int row) {
+			return ((double[]) values[column])[row];
+		}
+
+		public boolean getBoolean(int column, int row) {
+			return ((boolean[]) values[column])[row];
+		}
+
+		public String getString(int column, int row) {
+			return ((String[]) values[column])[row];
+		}
+
+		public Object get(int column, int row) {
+			Object array = values[column];
+			if (array instanceof long[] longs) {
+				return longs[row];
+			} else if (array instanceof double[] doubles) {
+				return doubles[row];
+			} else if (array instanceof boolean[] booleans) {
+				return booleans[row];
+			}
+			return ((String[]) array)[row];
+		}
+	}
+
+	// Prints each file given as an argument as CSV on standard output
+	public static void main(String[] args) throws IOException {
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+		for (String file : args) {
+			try (ColumnarReader reader = open(Path.of(file))) {
+				out.write(String.join(",", reader.columns().stream().map(Column::name).toList()));
+				out.write('\n');
+				for (int group = 0; group < reader.rowGroupCount(); group++) {
+					RowGroup rowGroup = reader.rowGroup(group);
+					for (int row = 0; row < rowGroup.rows(); row++) {
+						for (int column = 0; column < reader.columns().size(); column++) {
+							if (column > 0) {
+								out.write(',');
+							}
+							out.write(csv(String.valueOf(rowGroup.get(column, row))));
+						}
+						out.write('\n');
+					}
+				}
+			}
+		}
+		out.flush();
+	}
+
+	private static String csv(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,278 @@
+package com.bookstore.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a table to a columnar file, one row at a time, holding only the current row group.
+ *
+ * The values of each column are buffered in primitive arrays until the row group is full.
+ * Each column is then encoded on its own (see {@link ColumnType}), compressed with Deflate
+ * and written through the file channel. The footer lists the columns and, for every row
+ * group, its row count and where each compressed column chunk starts and how long it is,
+ * so a reader can seek to any row group or column. Layout:
+ *
+ * <pre>
+ * MAGIC
+ * row group 1: column chunk 1 ... column chunk n
+ * ...
+ * footer: columns (name, type), row groups (rows, then offset, compressed and raw length of each chunk)
+ * footer length (4 bytes), MAGIC
+ * </pre>
+ *
+ * Integers in the footer and in the encodings are varints. Not thread-safe.
+ */
+public final class ColumnarWriter implements Closeable {
+
+	static final byte[]	MAGIC					= { 'B', 'K', 'C', '1' };
+	static final int	DEFAULT_ROW_GROUP_SIZE	= 65_536;
+
+	private final FileChannel	channel;
+	private final Column[]		columns;
+	private final int			rowGroupSize;
+
+	// Values of the current row group, by column; only the array matching the column's type is allocated
+	private final long[][]				longs;
+	private final double[][]			doubles;
+	private final String[][]			strings;
+	private final int[]					dictionaryIndexes;
+	private final Map<String, Integer>	dictionary	= new HashMap<>();
+
+	private final Bytes		raw			= new Bytes(1 << 16);
+	private final byte[]	compressed	= new byte[1 << 16];
+	private final Deflater	deflater	= new Deflater(Deflater.BEST_SPEED);
+
+	// Per row group: the row count, then offset, compressed length and raw length of each column chunk
+	private final List<long[]>	rowGroups	= new ArrayList<>();
+	private long				position;
+	private int					rows;
+	private long				rowCount;
+	private boolean				closed;
+
+	public ColumnarWriter(FileChannel channel, List<Column> columns, int rowGroupSize) throws IOException {
+		if (columns.isEmpty() || rowGroupSize < 1) {
+			throw new IllegalArgumentException("A columnar file needs at least one column and a positive row group size");
+		}
+		this.channel		= channel;
+		this.columns		= columns.toArray(Column[]::new);
+		this.rowGroupSize	= rowGroupSize;
+		this.longs			= new long[this.columns.length][];
+		this.doubles		= new double[this.columns.length][];
+		this.strings		= new String[this.columns.length][];
+
+		boolean anyDictionary = false;
+		for (int i = 0; i < this.columns.length; i++) {
+			ColumnType type = this.columns[i].type();
+			if (type.isLong() || type == ColumnType.BOOLEAN) {
+				longs[i] = new long[rowGroupSize];
+			} else if (type == ColumnType.DOUBLE) {
+				doubles[i] = new double[rowGroupSize];
+			} else {
+				strings[i] = new String[rowGroupSize];
+			}
+			anyDictionary |= type == ColumnType.DICTIONARY;
+		}
+		this.dictionaryIndexes = anyDictionary ? new int[rowGroupSize] : null;
+
+		write(MAGIC, MAGIC.length);
+	}
+
+	// Creates or replaces the file
+	public static ColumnarWriter create(Path file, List<Column> columns, int rowGroupSize) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		try {
+			return new ColumnarWriter(channel, columns, rowGroupSize);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public ColumnarWriter set(int column, long value) {
+		check(column, columns[column].type().isLong());
+		longs[column][rows] = value;
+		return this;
+	}
+
+	public ColumnarWriter set(int column, double value) {
+		check(column, columns[column].type() == ColumnType.DOUBLE);
+		doubles[column][rows] = value;
+		return this;
+	}
+
+	public ColumnarWriter set(int column, boolean value) {
+		check(column, columns[column].type() == ColumnType.BOOLEAN);
+		longs[column][rows] = value ? 1 : 0;
+		return this;
+	}
+
+	public ColumnarWriter set(int column, String value) {
+		check(column, columns[column].type().isString());
+		if (value == null) {
+			throw new IllegalArgumentException("Column " + columns[column].name() + " cannot hold null");
+		}
+		strings[column][rows] = value;
+		return this;
+	}
+
+	// Ends the current row, every column must have been set; writes the row group once it is full
+	public void endRow() throws IOException {
+		rows++;
+		rowCount++;
+		if (rows == rowGroupSize) {
+			writeRowGroup();
+		}
+	}
+
+	public long rowCount() {
+		return rowCount;
+	}
+
+	// Writes the last row group and the footer, then closes the channel; does nothing once closed
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (rows > 0) {
+				writeRowGroup();
+			}
+			writeFooter();
+		} finally {
+			deflater.end();
+			channel.close();
+		}
+	}
+
+	private void check(int column, boolean typeMatches) {
+		if (!typeMatches) {
+			throw new IllegalArgumentException("Column " + columns[column].name() + " is of type " + columns[column].type());
+		}
+	}
+
+	private void writeRowGroup() throws IOException {
+		long[] group = new long[1 + 3 * columns.length];
+		group[0] = rows;
+		for (int column = 0; column < columns.length; column++) {
+			raw.clear();
+			encode(column);
+
+			long start = position;
+			deflater.reset();
+			deflater.setInput(raw.array(), 0, raw.size());
+			deflater.finish();
+			while (!deflater.finished()) {
+				write(compressed, deflater.deflate(compressed));
+			}
+			group[1 + 3 * column]	= start;
+			group[2 + 3 * column]	= position - start;
+			group[3 + 3 * column]	= raw.size();
+
+			if (strings[column] != null) {
+				// Let the strings of this row group be collected
+				Arrays.fill(strings[column], 0, rows, null);
+			}
+		}
+		rowGroups.add(group);
+		rows = 0;
+	}
+
+	private void encode(int column) {
+		switch (columns[column].type()) {
+		case	DELTA		: {
+			long previous = 0;
+			for (int row = 0; row < rows; row++) {
+				raw.writeSignedVarLong(longs[column][row] - previous);
+				previous = longs[column][row];
+			}
+			break;
+		}
+		case	VARINT		: {
+			for (int row = 0; row < rows; row++) {
+				raw.writeSignedVarLong(longs[column][row]);
+			}
+			break;
+		}
+		case	DOUBLE		: {
+			for (int row = 0; row < rows; row++) {
+				raw.writeLong(Double.doubleToRawLongBits(doubles[column][row]));
+			}
+			break;
+		}
+		case	BOOLEAN		: {
+			for (int row = 0; row < rows; row += 8) {
+				int bits = 0;
+				for (int bit = 0; bit < 8 && row + bit < rows; bit++) {
+					bits |= (int) longs[column][row + bit] << bit;
+				}
+				raw.writeByte(bits);
+			}
+			break;
+		}
+		case	STRING		: {
+			for (int row = 0; row < rows; row++) {
+				raw.writeString(strings[column][row]);
+			}
+			break;
+		}
+		case	DICTIONARY	: {
+			// Distinct values in order of first appearance, then one index per row
+			dictionary.clear();
+			for (int row = 0; row < rows; row++) {
+				dictionaryIndexes[row] = dictionary.computeIfAbsent(strings[column][row], value -> dictionary.size());
+			}
+			String[] values = new String[dictionary.size()];
+			dictionary.forEach((value, index) -> values[index] = value);
+			raw.writeVarLong(values.length);
+			for (String value : values) {
+				raw.writeString(value);
+			}
+			for (int row = 0; row < rows; row++) {
+				raw.writeVarLong(dictionaryIndexes[row]);
+			}
+			break;
+		}
+		}
+	}
+
+	private void writeFooter() throws IOException {
+		raw.clear();
+		raw.writeVarLong(columns.length);
+		for (Column column : columns) {
+			raw.writeString(column.name());
+			raw.writeByte(column.type().code);
+		}
+		raw.writeVarLong(rowGroups.size());
+		for (long[] group : rowGroups) {
+			for (long value : group) {
+				raw.writeVarLong(value);
+			}
+		}
+		int length = raw.size();
+		write(raw.array(), length);
+
+		byte[] trailer = { (byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length,
+				MAGIC[0], MAGIC[1], MAGIC[2], MAGIC[3] };
+		write(trailer, trailer.length);
+	}
+
+	private void write(byte[] bytes, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		position += length;
+	}
+}
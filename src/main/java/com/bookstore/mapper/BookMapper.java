@@ -3,6 +3,7 @@ package com.bookstore.mapper;
 import java.util.List;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import com.bookstore.dto.BookDTO;
 import com.bookstore.model.Book;
@@ -13,6 +14,7 @@ public interface BookMapper {
 	BookDTO			convertToBookDTO		(Book book);
 	List<BookDTO>	convertToBookDTOList	(List<Book> books);
 
+	@Mapping(target = "version", ignore = true)
 	Book			convertToBook			(BookDTO bookDTO);
 
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.bookstore.mapper;
 import java.util.List;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import com.bookstore.dto.CustomerDTO;
 import com.bookstore.model.Customer;
@@ -12,5 +13,6 @@ public interface CustomerMapper {
 	CustomerDTO			convertToCustomerDTO	(Customer customer);
 	List<CustomerDTO>	convertToCustomerList	(List<Customer> customer);
 
+	@Mapping(target = "version", ignore = true)
 	Customer	convertToCustomer	(CustomerDTO customerDTO);
 }
\ No newline at end of file
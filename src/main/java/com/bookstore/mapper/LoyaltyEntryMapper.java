@@ -0,0 +1,14 @@
+package com.bookstore.mapper;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+
+import com.bookstore.dto.LoyaltyEntryDTO;
+import com.bookstore.model.LoyaltyEntry;
+
+@Mapper(componentModel = "spring")
+public interface LoyaltyEntryMapper {
+	LoyaltyEntryDTO			convertToLoyaltyEntryDTO	(LoyaltyEntry entry);
+	List<LoyaltyEntryDTO>	convertToLoyaltyEntryDTOList	(List<LoyaltyEntry> entries);
+}
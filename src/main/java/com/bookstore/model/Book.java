@@ -1,5 +1,10 @@
 package com.bookstore.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -7,7 +12,10 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -17,7 +25,13 @@ import lombok.Setter;
 
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+		@Index(name = "idx_books_title_id", columnList = "title, id"),
+		@Index(name = "idx_books_price_id", columnList = "price, id")
+})
+// Read-mostly, so kept in the second-level cache; writes through Hibernate keep it up to date
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "books")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,7 +39,8 @@ import lombok.Setter;
 public class Book {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+	@SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
 	private Long id;
 
 	@NotNull(message = "Book title cannot be null")
@@ -44,4 +59,15 @@ public class Book {
 	@Enumerated(EnumType.STRING)
 	@Column(nullable = false)
 	private BookType type;
+
+	// Incremented by Hibernate on every update, so it identifies what the book looked like; rows written
+	// before the column existed start at 0
+	@Version
+	@ColumnDefault("0")
+	@Column(nullable = false)
+	private long version;
+
+	public Book(Long id, String title, String author, double price, BookType type) {
+		this(id, title, author, price, type, 0);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.bookstore.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Progress of a bulk book import, updated in the same transaction as each chunk of books it commits
+@Entity
+@Table(name = "book_imports")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImport {
+
+	// Chosen by the client and sent with every upload of the same file
+	@Id
+	@Column(length = 100)
+	private String id;
+
+	// Every line up to this one has been imported or rejected; an upload resumes after it
+	@Column(nullable = false)
+	private long committedLines;
+
+	@Column(nullable = false)
+	private long accepted;
+
+	@Column(nullable = false)
+	private long rejected;
+
+	@Column(nullable = false)
+	private Instant updatedAt;
+}
@@ -1,12 +1,17 @@
 package com.bookstore.model;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Formula;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
-import jakarta.validation.constraints.Min;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -14,23 +19,49 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+		@Index(name = "idx_customers_name_id", columnList = "name, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Customer {
 
+	// The loyalty balance in SQL, split around the customer id column it is computed for
+	private static final String SNAPSHOT_BALANCE_OF		= "(SELECT COALESCE(MAX(s.balance), 0) FROM loyalty_snapshots s WHERE s.customer_id = ";
+	private static final String UNCOMPACTED_POINTS_OF	= ") + (SELECT COALESCE(SUM(e.points), 0) FROM loyalty_entries e WHERE e.customer_id = ";
+	private static final String UNCOMPACTED				= " AND e.compacted = FALSE)";
+
+	/**
+	 * The same balance as {@link #loyaltyPoints} for plain SQL over customers aliased c,
+	 * where the formula's bare id would resolve to the ledger entry's own id instead.
+	 */
+	public static final String LOYALTY_POINTS_SQL = SNAPSHOT_BALANCE_OF + "c.id" + UNCOMPACTED_POINTS_OF + "c.id" + UNCOMPACTED;
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+	@SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
 	private Long id;
 
 	@NotNull(message = "Customer name cannot be null")
 	@Column(nullable = false, length = 255)
 	private String name;
 
-	@NotNull(message = "Customer loyalty points cannot be null")
-	@Min(value = 0, message = "Minimum loyalty points must be 0")
-	@Column(nullable = false)
+	// Read-only: the balance is the customer's loyalty snapshot plus the ledger entries not
+	// compacted into it yet, computed by the database in the same statement that loads the
+	// customer; Hibernate qualifies the bare id with the customer's alias. Changes are
+	// appended to the ledger by LoyaltyLedger
+	@Formula(SNAPSHOT_BALANCE_OF + "id" + UNCOMPACTED_POINTS_OF + "id" + UNCOMPACTED)
 	private int loyaltyPoints = 0;
+
+	// Incremented by Hibernate on every update of the customer row; loyalty points never touch the row
+	@Version
+	@ColumnDefault("0")
+	@Column(nullable = false)
+	private long version;
+
+	public Customer(Long id, String name, int loyaltyPoints) {
+		this(id, name, loyaltyPoints, 0);
+	}
 }
\ No newline at end of file
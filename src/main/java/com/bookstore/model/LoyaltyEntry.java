@@ -0,0 +1,67 @@
+package com.bookstore.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * One change to the loyalty points of a customer. Entries are only ever inserted, their
+ * content never changes; compaction just flags them once their points are part of the
+ * customer's {@link LoyaltySnapshot}. Customers and purchases are referenced by id only,
+ * so the history outlives them.
+ */
+@Entity
+@Table(name = "loyalty_entries", indexes = {
+		@Index(name = "idx_loyalty_entries_customer_compacted", columnList = "customerId, compacted"),
+		@Index(name = "idx_loyalty_entries_compacted_id", columnList = "compacted, id"),
+		@Index(name = "idx_loyalty_entries_purchase", columnList = "purchaseId")
+})
+@Getter
+@NoArgsConstructor
+public class LoyaltyEntry {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loyalty_entries_seq")
+	@SequenceGenerator(name = "loyalty_entries_seq", sequenceName = "loyalty_entries_seq", allocationSize = 50)
+	private Long id;
+
+	@Column(nullable = false, updatable = false)
+	private Long customerId;
+
+	// The purchase that caused the entry, null for manual adjustments
+	@Column(updatable = false)
+	private Long purchaseId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, updatable = false, length = 16)
+	private LoyaltyEntryType type;
+
+	// Signed change of the balance
+	@Column(nullable = false, updatable = false)
+	private int points;
+
+	@Column(nullable = false, updatable = false)
+	private Instant createdAt;
+
+	@Column(nullable = false)
+	private boolean compacted = false;
+
+	public LoyaltyEntry(Long customerId, Long purchaseId, LoyaltyEntryType type, int points) {
+		this.customerId	= customerId;
+		this.purchaseId	= purchaseId;
+		this.type		= type;
+		this.points		= points;
+		this.createdAt	= Instant.now();
+	}
+}
@@ -0,0 +1,8 @@
+package com.bookstore.model;
+
+public enum LoyaltyEntryType {
+	ACCRUAL			,
+	REDEMPTION		,
+	REVERSAL		,
+	ADJUSTMENT
+}
@@ -0,0 +1,35 @@
+package com.bookstore.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Loyalty balance of a customer over all compacted ledger entries
+@Entity
+@Table(name = "loyalty_snapshots")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoyaltySnapshot {
+
+	@Id
+	private Long customerId;
+
+	@Column(nullable = false)
+	private int balance;
+
+	// Number of entries rolled into the balance
+	@Column(nullable = false)
+	private long entries;
+
+	@Column(nullable = false)
+	private Instant updatedAt;
+}
@@ -2,15 +2,22 @@ package com.bookstore.model;
 
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -18,7 +25,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "purchases")
+@Table(name = "purchases", indexes = {
+		@Index(name = "idx_purchases_total_price_id", columnList = "totalPrice, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,14 +35,20 @@ import lombok.Setter;
 public class Purchase {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchases_seq")
+	@SequenceGenerator(name = "purchases_seq", sequenceName = "purchases_seq", allocationSize = 50)
 	private Long id;
 
-	@ManyToOne
+	// Only the id is needed when mapping to a DTO, which the proxy serves without a query
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "customer_id", nullable = false)
 	private Customer customer;
 
+	// Loads the books of up to a full page of purchases in one query. The book ids are
+	// also kept in the second-level cache, so once cached no query is needed at all
 	@ManyToMany
+	@BatchSize(size = 1000)
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "purchase-books")
 	@JoinTable(
 			name = "purchase_books",
 			joinColumns = @JoinColumn(name = "purchase_id"),
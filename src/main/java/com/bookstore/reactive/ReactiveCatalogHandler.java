@@ -0,0 +1,136 @@
+package com.bookstore.reactive;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.dto.CustomerDTO;
+import com.bookstore.dto.PageDTO;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.exception.BookNotFoundException;
+import com.bookstore.exception.CustomerNotFoundException;
+import com.bookstore.exception.PurchaseNotFoundException;
+import com.bookstore.service.Keyset;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes of the reactive read API. Same paths, parameters, DTOs and error bodies as the
+ * servlet controllers, for the reads only: by ID, all (a JSON array, or NDJSON when asked
+ * for) and pages by "limit" and "after". Pages are sorted by id only and use the servlet
+ * API's id cursors ({@link Keyset}), so a cursor from either API pages on in the other;
+ * the other sort keys and their encoded cursors are rejected.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "bookstore.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveCatalogHandler {
+
+	private final ReactiveCatalogRepository repository;
+
+	public RouterFunction<ServerResponse> routes() {
+		return RouterFunctions.route()
+				.GET("/api/books/{id}", request -> one(request, "Book", repository::findBook,
+						id -> new BookNotFoundException("Book with ID " + id + " not found")))
+				.GET("/api/books", request -> list(request, repository::findBooks, BookDTO::getId,
+						new ParameterizedTypeReference<PageDTO<BookDTO>>() {}, BookDTO.class))
+				.GET("/api/customers/{id}", request -> one(request, "Customer", repository::findCustomer,
+						id -> new CustomerNotFoundException("Customer with ID " + id + " not found")))
+				.GET("/api/customers", request -> list(request, repository::findCustomers, CustomerDTO::getId,
+						new ParameterizedTypeReference<PageDTO<CustomerDTO>>() {}, CustomerDTO.class))
+				.GET("/api/purchases/{id}", request -> one(request, "Purchase", repository::findPurchase,
+						id -> new PurchaseNotFoundException("Purchase not found with ID: " + id)))
+				.GET("/api/purchases", request -> list(request, repository::findPurchases, PurchaseDTO::getId,
+						new ParameterizedTypeReference<PageDTO<PurchaseDTO>>() {}, PurchaseDTO.class))
+				.onError(error -> error instanceof BookNotFoundException || error instanceof CustomerNotFoundException
+						|| error instanceof PurchaseNotFoundException, (error, request) -> message(HttpStatus.NOT_FOUND, error))
+				.onError(IllegalArgumentException.class, (error, request) -> message(HttpStatus.BAD_REQUEST, error))
+				.build();
+	}
+
+	// Get an entity by ID
+	private <T> Mono<ServerResponse> one(ServerRequest request, String entity, Function<Long, Mono<T>> finder,
+			Function<Long, RuntimeException> notFound) {
+		return Mono.defer(() -> {
+			long id = parseId(request.pathVariable("id"), entity);
+			return finder.apply(id)
+					.switchIfEmpty(Mono.error(() -> notFound.apply(id)))
+					.flatMap(dto -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(dto));
+		});
+	}
+
+	// Get all entities, or a page of them after the given cursor when a limit is given
+	private <T> Mono<ServerResponse> list(ServerRequest request, BiFunction<Long, Integer, Flux<T>> finder, Function<T, Long> idOf,
+			ParameterizedTypeReference<PageDTO<T>> pageType, Class<T> type) {
+		// Invalid parameters become an error signal, which the routes turn into 400
+		return Mono.defer(() -> {
+			if (request.queryParam("limit").isEmpty()) {
+				Flux<T> all = finder.apply(Long.MIN_VALUE, Integer.MAX_VALUE);
+				if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+					// Streamed row by row, holding a connection until the client has read it all
+					return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(all, type);
+				}
+				// Read in full first, so a slow client does not keep the connection while it reads
+				return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(all.collectList(), new ParameterizedTypeReference<List<T>>() {});
+			}
+
+			int		limit	= parseLimit(request.queryParam("limit").get());
+			String	sort	= request.queryParam("sort").orElse("id");
+			if (!sort.equals("id")) {
+				throw new IllegalArgumentException("Invalid sort key: " + sort);
+			}
+			long after = request.queryParam("after").map(Keyset::afterId).orElse(Long.MIN_VALUE);
+
+			// One extra row tells whether a next page exists, as in the servlet API
+			Mono<PageDTO<T>> page = finder.apply(after, limit + 1).collectList().map(rows -> {
+				boolean	hasMore	= rows.size() > limit;
+				List<T>	items	= hasMore ? rows.subList(0, limit) : rows;
+				return new PageDTO<>(items, hasMore ? Keyset.idCursor(idOf.apply(items.get(limit - 1))) : null);
+			});
+			return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(page, pageType);
+		});
+	}
+
+	private static long parseId(String id, String entity) {
+		try {
+			long value = Long.parseLong(id);
+			if (value < 0) {
+				throw new IllegalArgumentException(entity + " ID must be greater than or equal to 0");
+			}
+			return value;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + entity.toLowerCase() + " ID format: " + id);
+		}
+	}
+
+	private static int parseLimit(String limit) {
+		int value;
+		try {
+			value = Integer.parseInt(limit);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid limit: " + limit);
+		}
+		Keyset.checkLimit(value);
+		return value;
+	}
+
+	private static Mono<ServerResponse> message(HttpStatus status, Throwable error) {
+		Map<String, String> body = Collections.singletonMap("message", error.getMessage());
+		return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+	}
+}
@@ -0,0 +1,113 @@
+package com.bookstore.reactive;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.dto.CustomerDTO;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only SQL for the reactive API, mapping rows straight to the shared DTOs.
+ *
+ * Lists are keyset ranges on id: rows after the given id, in id order, at most "limit" of
+ * them. Purchases come with their book IDs from a single join, grouped while streaming.
+ */
+@Repository
+@ConditionalOnProperty(name = "bookstore.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveCatalogRepository {
+
+	private static final String CUSTOMER_COLUMNS = "c.id, c.name, c.version, " + Customer.LOYALTY_POINTS_SQL + " AS loyalty_points";
+
+	private static final String PURCHASES_WITH_BOOKS = "SELECT p.id, p.customer_id, p.total_price, pb.book_id"
+			+ " FROM (%s) p LEFT JOIN purchase_books pb ON pb.purchase_id = p.id ORDER BY p.id";
+
+	private record PurchaseRow(Long id, Long customerId, double totalPrice, Long bookId) {
+	}
+
+	private final DatabaseClient client;
+
+	public ReactiveCatalogRepository(ReactiveDatabase database) {
+		this.client = database.getClient();
+	}
+
+	public Mono<BookDTO> findBook(long id) {
+		return client.sql("SELECT id, title, author, price, type, version FROM books WHERE id = :id")
+				.bind("id", id)
+				.map(ReactiveCatalogRepository::toBook)
+				.one();
+	}
+
+	public Flux<BookDTO> findBooks(long afterId, int limit) {
+		return client.sql("SELECT id, title, author, price, type, version FROM books WHERE id > :after ORDER BY id LIMIT :limit")
+				.bind("after", afterId)
+				.bind("limit", limit)
+				.map(ReactiveCatalogRepository::toBook)
+				.all();
+	}
+
+	public Mono<CustomerDTO> findCustomer(long id) {
+		return client.sql("SELECT " + CUSTOMER_COLUMNS + " FROM customers c WHERE c.id = :id")
+				.bind("id", id)
+				.map(ReactiveCatalogRepository::toCustomer)
+				.one();
+	}
+
+	public Flux<CustomerDTO> findCustomers(long afterId, int limit) {
+		return client.sql("SELECT " + CUSTOMER_COLUMNS + " FROM customers c WHERE c.id > :after ORDER BY c.id LIMIT :limit")
+				.bind("after", afterId)
+				.bind("limit", limit)
+				.map(ReactiveCatalogRepository::toCustomer)
+				.all();
+	}
+
+	public Mono<PurchaseDTO> findPurchase(long id) {
+		return purchases(client.sql(PURCHASES_WITH_BOOKS.formatted(
+				"SELECT id, customer_id, total_price FROM purchases WHERE id = :id"))
+				.bind("id", id))
+				.next();
+	}
+
+	public Flux<PurchaseDTO> findPurchases(long afterId, int limit) {
+		return purchases(client.sql(PURCHASES_WITH_BOOKS.formatted(
+				"SELECT id, customer_id, total_price FROM purchases WHERE id > :after ORDER BY id LIMIT :limit"))
+				.bind("after", afterId)
+				.bind("limit", limit));
+	}
+
+	// One row per book of each purchase, consecutive in id order, folded into one DTO per purchase
+	private static Flux<PurchaseDTO> purchases(DatabaseClient.GenericExecuteSpec spec) {
+		return spec.map(row -> new PurchaseRow(row.get("id", Long.class), row.get("customer_id", Long.class),
+				row.get("total_price", Double.class), row.get("book_id", Long.class)))
+				.all()
+				.bufferUntilChanged(PurchaseRow::id)
+				.map(ReactiveCatalogRepository::toPurchase);
+	}
+
+	private static BookDTO toBook(Readable row) {
+		return new BookDTO(row.get("id", Long.class), row.get("title", String.class), row.get("author", String.class),
+				row.get("price", Double.class), BookType.valueOf(row.get("type", String.class)), row.get("version", Long.class));
+	}
+
+	// The balance is a SUM, which the driver reports as BIGINT
+	private static CustomerDTO toCustomer(Readable row) {
+		return new CustomerDTO(row.get("id", Long.class), row.get("name", String.class), row.get("loyalty_points", Number.class).intValue(),
+				row.get("version", Long.class));
+	}
+
+	private static PurchaseDTO toPurchase(List<PurchaseRow> rows) {
+		PurchaseRow first = rows.get(0);
+		return new PurchaseDTO(first.id(), first.customerId(),
+				rows.stream().map(PurchaseRow::bookId).filter(Objects::nonNull).toList(), first.totalPrice());
+	}
+}
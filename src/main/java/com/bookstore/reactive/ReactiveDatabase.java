@@ -0,0 +1,55 @@
+package com.bookstore.reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+
+/**
+ * R2DBC connection pool of the reactive read API, on the same database as the JPA stack.
+ *
+ * The pool is deliberately not a ConnectionFactory bean: Spring Boot backs off its JDBC
+ * DataSource when one exists, and the servlet API still needs it.
+ */
+@Component
+@ConditionalOnProperty(name = "bookstore.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveDatabase {
+
+	private final ConnectionPool	pool;
+
+	@Getter
+	private final DatabaseClient	client;
+
+	public ReactiveDatabase(@Value("${bookstore.reactive.r2dbc.url}") String url,
+			@Value("${spring.datasource.username:sa}") String username,
+			@Value("${spring.datasource.password:}") String password,
+			@Value("${bookstore.reactive.r2dbc.pool-size:10}") int poolSize) {
+		ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+				.option(ConnectionFactoryOptions.USER, username)
+				.option(ConnectionFactoryOptions.PASSWORD, password)
+				.build();
+		this.pool	= new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+				.initialSize(0)
+				.maxSize(poolSize)
+				.build());
+		this.client	= DatabaseClient.create(pool);
+	}
+
+	// Connections currently handed out to queries
+	public int acquired() {
+		return pool.getMetrics().map(PoolMetrics::acquiredSize).orElse(0);
+	}
+
+	@PreDestroy
+	public void close() {
+		pool.dispose();
+	}
+}
@@ -0,0 +1,70 @@
+package com.bookstore.reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Reactor Netty server for the reactive read API, next to the servlet container.
+ *
+ * It starts once the servlet server is up, so tests on a mock servlet environment do not
+ * open it, and it takes a random port as well when the servlet server does (server.port=0).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "bookstore.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveServer {
+
+	private final ReactiveCatalogHandler	handler;
+	private final ObjectMapper				objectMapper;
+	private final int						port;
+
+	private volatile DisposableServer server;
+
+	public ReactiveServer(ReactiveCatalogHandler handler, ObjectMapper objectMapper,
+			@Value("${bookstore.reactive.port:8081}") int port,
+			@Value("${server.port:8080}") int servletPort) {
+		this.handler		= handler;
+		this.objectMapper	= objectMapper;
+		this.port			= servletPort == 0 ? 0 : port;
+	}
+
+	@EventListener
+	public void start(ServletWebServerInitializedEvent event) {
+		HandlerStrategies strategies = HandlerStrategies.builder().codecs(codecs -> {
+			codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+			codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+		}).build();
+		ReactorHttpHandlerAdapter adapter = new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(handler.routes(), strategies));
+
+		server = HttpServer.create().port(port).handle(adapter).bindNow();
+		log.info("Reactive read API listening on port {}", server.port());
+	}
+
+	// Port the server is bound to, -1 before it has started
+	public int port() {
+		DisposableServer current = server;
+		return current == null ? -1 : current.port();
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (server != null) {
+			server.disposeNow();
+		}
+	}
+}
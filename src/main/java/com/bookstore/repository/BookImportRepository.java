@@ -0,0 +1,19 @@
+package com.bookstore.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import com.bookstore.model.BookImport;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface BookImportRepository extends JpaRepository<BookImport, String> {
+
+	// Locks the progress while a chunk is written, so two uploads of the same file cannot both import a line
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	Optional<BookImport> findForUpdateById(String id);
+}
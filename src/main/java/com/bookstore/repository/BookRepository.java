@@ -1,11 +1,58 @@
 package com.bookstore.repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.bookstore.model.Book;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
 
+	// Catalog listings go through the query cache, any write to books invalidates them
+	@Override
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Book> findAll();
+
+	// Keyset pagination, ordered by id
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Book> findAllByOrderByIdAsc(Limit limit);
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	// Keyset pagination, ordered by title then id
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Book> findAllByOrderByTitleAscIdAsc(Limit limit);
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	@Query("SELECT b FROM Book b WHERE b.title > :title OR (b.title = :title AND b.id > :id) ORDER BY b.title, b.id")
+	List<Book> findPageAfterTitle(@Param("title") String title, @Param("id") Long id, Limit limit);
+
+	// Keyset pagination, ordered by price then id
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Book> findAllByOrderByPriceAscIdAsc(Limit limit);
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	@Query("SELECT b FROM Book b WHERE b.price > :price OR (b.price = :price AND b.id > :id) ORDER BY b.price, b.id")
+	List<Book> findPageAfterPrice(@Param("price") double price, @Param("id") Long id, Limit limit);
+
+	// Forward-only cursor over the whole table, must be consumed inside a transaction and closed.
+	// Reads the second-level cache but does not fill it, so a full export does not evict the hot books
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+		@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "GET")
+	})
+	@Query("SELECT b FROM Book b ORDER BY b.id")
+	Stream<Book> streamAllByOrderByIdAsc();
 }
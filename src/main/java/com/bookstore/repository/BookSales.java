@@ -0,0 +1,9 @@
+package com.bookstore.repository;
+
+// Number of purchases that include a book
+public interface BookSales {
+
+	Long getBookId();
+
+	long getSales();
+}
@@ -1,11 +1,58 @@
 package com.bookstore.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.bookstore.model.Customer;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
-}
\ No newline at end of file
+	// Keyset pagination, ordered by id
+	List<Customer> findAllByOrderByIdAsc(Limit limit);
+
+	List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	// Keyset pagination, ordered by name then id
+	List<Customer> findAllByOrderByNameAscIdAsc(Limit limit);
+
+	@Query("SELECT c FROM Customer c WHERE c.name > :name OR (c.name = :name AND c.id > :id) ORDER BY c.name, c.id")
+	List<Customer> findPageAfterName(@Param("name") String name, @Param("id") Long id, Limit limit);
+
+	// Forward-only cursor over the whole table, must be consumed inside a transaction and closed
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("SELECT c FROM Customer c ORDER BY c.id")
+	Stream<Customer> streamAllByOrderByIdAsc();
+
+	// Locks the customers of a batch, in id order so that concurrent batches cannot deadlock
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	List<Customer> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+	// Locks the customer before a redemption, so two purchases cannot redeem the same points
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	Optional<Customer> findForUpdateById(Long id);
+
+	// Scalar reads of the computed balance, never served from an already loaded entity
+	@Query("SELECT c.loyaltyPoints FROM Customer c WHERE c.id = :id")
+	Integer findLoyaltyPointsById(@Param("id") Long id);
+
+	@Query("SELECT c.id AS customerId, c.loyaltyPoints AS balance FROM Customer c WHERE c.id IN :ids")
+	List<LoyaltyBalance> findLoyaltyBalances(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,9 @@
+package com.bookstore.repository;
+
+// Current loyalty points of a customer
+public interface LoyaltyBalance {
+
+	Long getCustomerId();
+
+	int getBalance();
+}
@@ -0,0 +1,32 @@
+package com.bookstore.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.bookstore.model.LoyaltyEntry;
+
+@Repository
+public interface LoyaltyEntryRepository extends JpaRepository<LoyaltyEntry, Long> {
+
+	// History of a customer, newest first
+	List<LoyaltyEntry> findByCustomerIdOrderByIdDesc(Long customerId, Limit limit);
+
+	// Oldest entries not yet rolled into a snapshot
+	List<LoyaltyEntry> findByCompactedFalseOrderByIdAsc(Limit limit);
+
+	// Net points a purchase has added to or taken from its customer so far
+	@Query("SELECT COALESCE(SUM(e.points), 0) FROM LoyaltyEntry e WHERE e.purchaseId = :purchaseId")
+	int sumPointsByPurchaseId(@Param("purchaseId") Long purchaseId);
+
+	// Only flags entries that are still in the tail, so two compactions of the same entries cannot both succeed
+	@Modifying
+	@Query("UPDATE LoyaltyEntry e SET e.compacted = TRUE WHERE e.id IN :ids AND e.compacted = FALSE")
+	int markCompacted(@Param("ids") Collection<Long> ids);
+}
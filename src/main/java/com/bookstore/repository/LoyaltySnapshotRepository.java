@@ -0,0 +1,10 @@
+package com.bookstore.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.bookstore.model.LoyaltySnapshot;
+
+@Repository
+public interface LoyaltySnapshotRepository extends JpaRepository<LoyaltySnapshot, Long> {
+}
@@ -0,0 +1,9 @@
+package com.bookstore.repository;
+
+// One row of the purchase_books join table
+public interface PurchaseBookId {
+
+	Long getPurchaseId();
+
+	Long getBookId();
+}
@@ -1,11 +1,56 @@
 package com.bookstore.repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.bookstore.model.Purchase;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
 
-}
\ No newline at end of file
+	@Override
+	@EntityGraph(attributePaths = "books")
+	List<Purchase> findAll();
+
+	@Override
+	@EntityGraph(attributePaths = "books")
+	Optional<Purchase> findById(Long id);
+
+	// Keyset pagination, ordered by id
+	List<Purchase> findAllByOrderByIdAsc(Limit limit);
+
+	List<Purchase> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	// Keyset pagination, ordered by total price then id
+	List<Purchase> findAllByOrderByTotalPriceAscIdAsc(Limit limit);
+
+	@Query("SELECT p FROM Purchase p WHERE p.totalPrice > :totalPrice OR (p.totalPrice = :totalPrice AND p.id > :id) ORDER BY p.totalPrice, p.id")
+	List<Purchase> findPageAfterTotalPrice(@Param("totalPrice") double totalPrice, @Param("id") Long id, Limit limit);
+
+	// Forward-only cursor over the whole table, must be consumed inside a transaction and closed
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("SELECT p FROM Purchase p ORDER BY p.id")
+	Stream<Purchase> streamAllByOrderByIdAsc();
+
+	// Book ids of every purchase, straight from the join table: neither purchases nor books are read
+	@Query(value = "SELECT purchase_id AS purchaseId, book_id AS bookId FROM purchase_books", nativeQuery = true)
+	List<PurchaseBookId> findAllBookIds();
+
+	@Query("SELECT b.id AS bookId, COUNT(p) AS sales FROM Purchase p JOIN p.books b GROUP BY b.id")
+	List<BookSales> countSalesByBook();
+}
@@ -0,0 +1,173 @@
+package com.bookstore.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.support.Transactions;
+
+/**
+ * In-memory inverted index over book titles and authors, ranked by TF-IDF.
+ *
+ * Each term maps to the books containing it, so a query only visits the postings of
+ * its own terms and its cost does not depend on the size of the catalog. Books match
+ * when they contain any query term; books containing more of the terms, rarer terms,
+ * or fewer other words rank first. Changes made inside a transaction are applied when
+ * it commits, so the index never shows a book that was rolled back.
+ */
+@Component
+public class BookSearchIndex {
+
+	static final int MAX_LIMIT = 100;
+
+	private record Document(BookDTO book, Map<String, Integer> termCounts, double lengthNorm) {
+	}
+
+	private record Hit(BookDTO book, double score) {
+	}
+
+	// Ties on score keep the lowest id first
+	private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+			.thenComparing(hit -> hit.book().getId());
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// Term -> book id -> occurrences of the term in the title and author of the book
+	private Map<String, Map<Long, Integer>>	postings	= new HashMap<>();
+	private Map<Long, Document>				documents	= new HashMap<>();
+
+	public List<BookDTO> search(String query, int limit) {
+		if (limit < 1 || limit > MAX_LIMIT) {
+			throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+		}
+		List<String> terms = Tokenizer.tokenize(query).stream().distinct().toList();
+		if (terms.isEmpty()) {
+			throw new IllegalArgumentException("Search query must contain at least one word");
+		}
+
+		lock.readLock().lock();
+		try {
+			Map<Long, Double> scores = new HashMap<>();
+			for (String term : terms) {
+				Map<Long, Integer> books = postings.get(term);
+				if (books == null) {
+					continue;
+				}
+				double idf = Math.log(1.0 + (double) documents.size() / books.size());
+				books.forEach((id, count) -> scores.merge(id, (1.0 + Math.log(count)) * idf, Double::sum));
+			}
+
+			// Keeps only the best "limit" hits instead of sorting every match
+			PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+			scores.forEach((id, score) -> {
+				Document document = documents.get(id);
+				best.add(new Hit(document.book(), score / document.lengthNorm()));
+				if (best.size() > limit) {
+					best.poll();
+				}
+			});
+
+			List<Hit> hits = new ArrayList<>(best);
+			hits.sort(RANKING);
+			return hits.stream().map(Hit::book).toList();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Adds the book, or replaces it if it is already indexed
+	public void put(BookDTO book) {
+		Transactions.afterCommit(() -> {
+			lock.writeLock().lock();
+			try {
+				remove(postings, documents, book.getId());
+				add(postings, documents, book);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+
+	public void remove(Long id) {
+		Transactions.afterCommit(() -> {
+			lock.writeLock().lock();
+			try {
+				remove(postings, documents, id);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+
+	/**
+	 * Replaces the whole index with the books written by the source. The new index is
+	 * built aside and swapped in at the end, so searches keep working meanwhile.
+	 */
+	public void rebuild(Consumer<Consumer<BookDTO>> source) {
+		Map<String, Map<Long, Integer>>	newPostings		= new HashMap<>();
+		Map<Long, Document>				newDocuments	= new HashMap<>();
+		source.accept(book -> add(newPostings, newDocuments, book));
+
+		lock.writeLock().lock();
+		try {
+			postings	= newPostings;
+			documents	= newDocuments;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// The version of an indexed book, so it can be compared without loading the book
+	public OptionalLong version(Long id) {
+		lock.readLock().lock();
+		try {
+			Document document = documents.get(id);
+			return document == null ? OptionalLong.empty() : OptionalLong.of(document.book().getVersion());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private static void add(Map<String, Map<Long, Integer>> postings, Map<Long, Document> documents, BookDTO book) {
+		List<String>			terms		= Tokenizer.tokenize(book.getTitle());
+		terms.addAll(Tokenizer.tokenize(book.getAuthor()));
+		Map<String, Integer>	termCounts	= new HashMap<>();
+		terms.forEach(term -> termCounts.merge(term, 1, Integer::sum));
+
+		termCounts.forEach((term, count) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(book.getId(), count));
+		documents.put(book.getId(), new Document(book, termCounts, Math.sqrt(Math.max(terms.size(), 1))));
+	}
+
+	private static void remove(Map<String, Map<Long, Integer>> postings, Map<Long, Document> documents, Long id) {
+		Document document = documents.remove(id);
+		if (document == null) {
+			return;
+		}
+		document.termCounts().keySet().forEach(term -> {
+			Map<Long, Integer> books = postings.get(term);
+			books.remove(id);
+			if (books.isEmpty()) {
+				postings.remove(term);
+			}
+		});
+	}
+}
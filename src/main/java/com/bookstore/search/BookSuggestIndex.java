@@ -0,0 +1,404 @@
+package com.bookstore.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.dto.SuggestionDTO;
+import com.bookstore.support.Transactions;
+
+/**
+ * Type-ahead suggestions of book titles and authors, most popular first.
+ *
+ * Suggestions live in a radix tree (a trie whose single-child chains are merged into
+ * one edge) keyed by the normalized text. Every inner node keeps the best
+ * {@link #TOP_K} suggestions of its subtree, so answering a prefix is a walk down at
+ * most prefix-length edges and a copy of one precomputed list, whatever the size of
+ * the catalog. A suggestion's popularity is the number of purchases of the books
+ * carrying that title or author.
+ *
+ * A change to a book or its sales recomputes the lists on the paths of its title and
+ * author only, merging the lists of the children. As with {@link BookSearchIndex},
+ * changes made inside a transaction are applied when it commits.
+ */
+@Component
+public class BookSuggestIndex {
+
+	static final int TOP_K = 10;
+
+	private static final Pattern	SEPARATORS		= Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final Node[]		NO_CHILDREN		= new Node[0];
+
+	// Most popular first, ties in alphabetical order
+	private static final Comparator<Suggestion> RANKING = Comparator.comparingLong((Suggestion suggestion) -> suggestion.weight)
+			.reversed().thenComparing(suggestion -> suggestion.key);
+
+	private static final class Suggestion {
+		private final String	key;
+		private String			text;
+		private long			weight;
+		private int				books;
+
+		private Suggestion(String key, String text) {
+			this.key	= key;
+			this.text	= text;
+		}
+	}
+
+	private static final class Node {
+		// Characters on the edge from the parent
+		private String			label;
+		private Node[]			children	= NO_CHILDREN;
+		private Suggestion		terminal;
+		// Best suggestions of the subtree, null on leaves where it is just the terminal
+		private Suggestion[]	top;
+
+		private Node(String label) {
+			this.label = label;
+		}
+	}
+
+	private record Indexed(String title, String author, long sales) {
+	}
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private Node				root	= new Node("");
+	private Map<Long, Indexed>	books	= new HashMap<>();
+
+	public List<SuggestionDTO> suggest(String prefix, int limit) {
+		if (limit < 1 || limit > TOP_K) {
+			throw new IllegalArgumentException("Limit must be between 1 and " + TOP_K);
+		}
+		String key = normalize(prefix);
+
+		lock.readLock().lock();
+		try {
+			Node node = find(root, key);
+			if (node == null) {
+				return List.of();
+			}
+			return Arrays.stream(top(node)).limit(limit).map(suggestion -> new SuggestionDTO(suggestion.text, suggestion.weight)).toList();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Adds the book, or replaces its title and author if it is already indexed
+	public void put(BookDTO book) {
+		Transactions.afterCommit(() -> write(() -> {
+			Indexed old		= books.get(book.getId());
+			long	sales	= old == null ? 0 : old.sales();
+			if (old != null) {
+				removeBook(root, old);
+			}
+			Indexed indexed = new Indexed(book.getTitle(), book.getAuthor(), sales);
+			books.put(book.getId(), indexed);
+			addBook(root, indexed);
+		}));
+	}
+
+	public void remove(Long id) {
+		Transactions.afterCommit(() -> write(() -> {
+			Indexed old = books.remove(id);
+			if (old != null) {
+				removeBook(root, old);
+			}
+		}));
+	}
+
+	// Counts purchases of the given books, a negative delta takes them back
+	public void recordSales(Collection<Long> bookIds, int delta) {
+		Transactions.afterCommit(() -> write(() -> {
+			for (Long id : bookIds) {
+				Indexed old = books.get(id);
+				if (old == null) {
+					continue;
+				}
+				Indexed indexed = new Indexed(old.title(), old.author(), Math.max(old.sales() + delta, 0));
+				books.put(id, indexed);
+				long change = indexed.sales() - old.sales();
+				update(root, normalize(old.title()), 0, old.title(), change, 0);
+				update(root, normalize(old.author()), 0, old.author(), change, 0);
+			}
+		}));
+	}
+
+	/**
+	 * Replaces the whole index with the books written by the source, using the given
+	 * number of purchases per book. Built aside and swapped in at the end.
+	 */
+	public void rebuild(Consumer<Consumer<BookDTO>> source, ToLongFunction<Long> salesOf) {
+		Node				newRoot		= new Node("");
+		Map<Long, Indexed>	newBooks	= new HashMap<>();
+		source.accept(book -> {
+			Indexed indexed = new Indexed(book.getTitle(), book.getAuthor(), salesOf.applyAsLong(book.getId()));
+			newBooks.put(book.getId(), indexed);
+			update(newRoot, normalize(indexed.title()), 0, indexed.title(), indexed.sales(), 1, false);
+			update(newRoot, normalize(indexed.author()), 0, indexed.author(), indexed.sales(), 1, false);
+		});
+		computeTops(newRoot);
+
+		write(() -> {
+			root	= newRoot;
+			books	= newBooks;
+		});
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return books.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Number of tree nodes, for footprint reports
+	int nodeCount() {
+		lock.readLock().lock();
+		try {
+			return countNodes(root);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Same folding as search terms, with words joined by single spaces
+	static String normalize(String text) {
+		return SEPARATORS.matcher(Tokenizer.normalize(text)).replaceAll(" ").strip();
+	}
+
+	private static void addBook(Node root, Indexed book) {
+		update(root, normalize(book.title()), 0, book.title(), book.sales(), 1);
+		update(root, normalize(book.author()), 0, book.author(), book.sales(), 1);
+	}
+
+	private static void removeBook(Node root, Indexed book) {
+		update(root, normalize(book.title()), 0, book.title(), -book.sales(), -1);
+		update(root, normalize(book.author()), 0, book.author(), -book.sales(), -1);
+	}
+
+	/**
+	 * Adds weight and book count to the suggestion for key, creating it or dropping it
+	 * when no book carries it anymore, then recomputes the top lists on the way back up.
+	 * {@code depth} is the number of key characters matched down to and including node.
+	 * Bulk loads pass {@code ranked = false} and compute every list once at the end.
+	 */
+	private static void update(Node node, String key, int depth, String text, long weightDelta, int booksDelta) {
+		update(node, key, depth, text, weightDelta, booksDelta, true);
+	}
+
+	private static void update(Node node, String key, int depth, String text, long weightDelta, int booksDelta, boolean ranked) {
+		if (depth == key.length()) {
+			if (node.terminal == null) {
+				if (booksDelta <= 0) {
+					return;
+				}
+				node.terminal = new Suggestion(key, text);
+			}
+			node.terminal.weight	+= weightDelta;
+			node.terminal.books		+= booksDelta;
+			if (booksDelta > 0) {
+				node.terminal.text = text;
+			}
+			if (node.terminal.books == 0) {
+				node.terminal = null;
+			}
+			if (ranked) {
+				node.top = computeTop(node);
+			}
+			return;
+		}
+
+		int		index	= childIndex(node, key.charAt(depth));
+		Node	child;
+		if (index < 0) {
+			if (booksDelta <= 0) {
+				return;
+			}
+			child = new Node(key.substring(depth));
+			insertChild(node, -index - 1, child);
+		} else {
+			child = node.children[index];
+			int common = commonPrefix(child.label, key, depth);
+			if (common < child.label.length()) {
+				if (booksDelta <= 0) {
+					return;
+				}
+				child = split(node, index, common);
+			}
+		}
+
+		update(child, key, depth + child.label.length(), text, weightDelta, booksDelta, ranked);
+		compact(node, child);
+		if (ranked) {
+			node.top = computeTop(node);
+		}
+	}
+
+	// Cuts the edge to the child at index after "at" characters, returning the new middle node
+	private static Node split(Node parent, int index, int at) {
+		Node child	= parent.children[index];
+		Node middle	= new Node(child.label.substring(0, at));
+		child.label				= child.label.substring(at);
+		middle.children			= new Node[] { child };
+		parent.children[index]	= middle;
+		return middle;
+	}
+
+	// Drops a child left without suggestions, merges a child left with a single path
+	private static void compact(Node parent, Node child) {
+		if (child.terminal != null) {
+			return;
+		}
+		int index = childIndex(parent, child.label.charAt(0));
+		if (child.children.length == 0) {
+			Node[] children = new Node[parent.children.length - 1];
+			System.arraycopy(parent.children, 0, children, 0, index);
+			System.arraycopy(parent.children, index + 1, children, index, children.length - index);
+			parent.children = children;
+		} else if (child.children.length == 1) {
+			Node grandchild = child.children[0];
+			grandchild.label		= child.label + grandchild.label;
+			parent.children[index]	= grandchild;
+		}
+	}
+
+	// Merges the terminal and the already sorted lists of the children, keeping the best TOP_K
+	private static Suggestion[] computeTop(Node node) {
+		if (node.children.length == 0) {
+			return null;
+		}
+		Suggestion[]	best		= new Suggestion[TOP_K];
+		int[]			next		= new int[node.children.length];
+		boolean			terminal	= node.terminal != null;
+		int				count		= 0;
+		while (count < TOP_K) {
+			Suggestion	candidate	= terminal ? node.terminal : null;
+			int			from		= -1;
+			for (int i = 0; i < node.children.length; i++) {
+				Suggestion head = entry(node.children[i], next[i]);
+				if (head != null && (candidate == null || RANKING.compare(head, candidate) < 0)) {
+					candidate	= head;
+					from		= i;
+				}
+			}
+			if (candidate == null) {
+				break;
+			}
+			best[count++] = candidate;
+			if (from < 0) {
+				terminal = false;
+			} else {
+				next[from]++;
+			}
+		}
+		return Arrays.copyOf(best, count);
+	}
+
+	// The suggestion at the given rank in the subtree of node, null past the end
+	private static Suggestion entry(Node node, int rank) {
+		if (node.top != null) {
+			return rank < node.top.length ? node.top[rank] : null;
+		}
+		return rank == 0 ? node.terminal : null;
+	}
+
+	// Fills in every top list below node, children first
+	private static void computeTops(Node node) {
+		for (Node child : node.children) {
+			computeTops(child);
+		}
+		node.top = computeTop(node);
+	}
+
+	private static Suggestion[] top(Node node) {
+		if (node.top != null) {
+			return node.top;
+		}
+		return node.terminal == null ? new Suggestion[0] : new Suggestion[] { node.terminal };
+	}
+
+	// The node whose subtree holds every key starting with prefix, null if there is none
+	private static Node find(Node root, String prefix) {
+		Node	node	= root;
+		int		depth	= 0;
+		while (depth < prefix.length()) {
+			int index = childIndex(node, prefix.charAt(depth));
+			if (index < 0) {
+				return null;
+			}
+			node = node.children[index];
+			int common = commonPrefix(node.label, prefix, depth);
+			if (common < node.label.length() && depth + common < prefix.length()) {
+				return null;
+			}
+			depth += common;
+		}
+		return node;
+	}
+
+	// Children are sorted by their first character, returns -(insertion point) - 1 when absent
+	private static int childIndex(Node node, char first) {
+		int low		= 0;
+		int high	= node.children.length - 1;
+		while (low <= high) {
+			int		middle	= (low + high) >>> 1;
+			char	c		= node.children[middle].label.charAt(0);
+			if (c < first) {
+				low = middle + 1;
+			} else if (c > first) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+
+	private static void insertChild(Node node, int at, Node child) {
+		Node[] children = new Node[node.children.length + 1];
+		System.arraycopy(node.children, 0, children, 0, at);
+		children[at] = child;
+		System.arraycopy(node.children, at, children, at + 1, node.children.length - at);
+		node.children = children;
+	}
+
+	private static int commonPrefix(String label, String key, int from) {
+		int length = Math.min(label.length(), key.length() - from);
+		int i = 0;
+		while (i < length && label.charAt(i) == key.charAt(from + i)) {
+			i++;
+		}
+		return i;
+	}
+
+	private static int countNodes(Node node) {
+		int count = 1;
+		for (Node child : node.children) {
+			count += countNodes(child);
+		}
+		return count;
+	}
+
+	private void write(Runnable change) {
+		lock.writeLock().lock();
+		try {
+			change.run();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.bookstore.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into search terms: accents are stripped, case is folded and anything
+ * that is not a letter or a digit separates words, so "Tolkien's" and "TOLKIEN S"
+ * produce the same terms.
+ */
+final class Tokenizer {
+
+	private static final Pattern MARKS		= Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARATORS	= Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	private Tokenizer() {
+	}
+
+	static String normalize(String text) {
+		if (text == null) {
+			return "";
+		}
+		String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+		return stripped.toLowerCase(Locale.ROOT);
+	}
+
+	static List<String> tokenize(String text) {
+		List<String> terms = new ArrayList<>();
+		for (String term : SEPARATORS.split(normalize(text))) {
+			if (!term.isEmpty()) {
+				terms.add(term);
+			}
+		}
+		return terms;
+	}
+}
@@ -0,0 +1,300 @@
+package com.bookstore.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.dto.BookImportErrorDTO;
+import com.bookstore.dto.BookImportResultDTO;
+import com.bookstore.exception.BookImportFailedException;
+import com.bookstore.mapper.BookMapper;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookImport;
+import com.bookstore.model.BookType;
+import com.bookstore.repository.BookImportRepository;
+import com.bookstore.search.BookSearchIndex;
+import com.bookstore.search.BookSuggestIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk import of books from a CSV or NDJSON upload.
+ *
+ * The upload is read one row at a time and only one chunk of rows is held in memory. Each
+ * row is validated like a BookDTO sent to POST /api/books and creates a new book, whatever
+ * id it carries; valid rows are inserted through JDBC batches and every chunk commits on
+ * its own, together with the import's progress: the last line it covered and its running
+ * counts. Uploading the same file again under the same import id skips every line up to
+ * the committed progress, so an upload that broke off, or whose chunk failed, resumes
+ * where it stopped without importing anything twice. The progress is locked while a chunk
+ * is written, which also keeps two concurrent uploads of the same import from both
+ * writing a line.
+ */
+@Service
+@Timed("bookstore.service")
+public class BookImporter {
+
+	static final int	MAX_REPORTED_ERRORS		= 1000;
+	static final int	MAX_IMPORT_ID_LENGTH	= 100;
+
+	private static final Set<String> CSV_COLUMNS = Set.of("title", "author", "price", "type");
+
+	// A row of the upload: a book to insert, or why it was rejected
+	private record Row(long line, Book book, String error) {
+	}
+
+	private final BookImportRepository	bookImportRepository;
+	private final BookMapper			bookMapper;
+	private final EntityManager			entityManager;
+	private final Validator				validator;
+	private final ObjectReader			bookReader;
+	private final TransactionTemplate	transactionTemplate;
+	private final BookSearchIndex		bookSearchIndex;
+	private final BookSuggestIndex		bookSuggestIndex;
+	private final CatalogVersion		catalogVersion;
+	private final int					chunkSize;
+
+	public BookImporter(BookImportRepository bookImportRepository, BookMapper bookMapper, EntityManager entityManager,
+			Validator validator, ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+			BookSearchIndex bookSearchIndex, BookSuggestIndex bookSuggestIndex, CatalogVersion catalogVersion,
+			@Value("${bookstore.books.import.chunk-size:1000}") int chunkSize) {
+		this.bookImportRepository	= bookImportRepository;
+		this.bookMapper				= bookMapper;
+		this.entityManager			= entityManager;
+		this.validator				= validator;
+		this.bookReader				= objectMapper.readerFor(BookDTO.class);
+		this.transactionTemplate	= new TransactionTemplate(transactionManager);
+		this.bookSearchIndex		= bookSearchIndex;
+		this.bookSuggestIndex		= bookSuggestIndex;
+		this.catalogVersion			= catalogVersion;
+		this.chunkSize				= chunkSize;
+	}
+
+	// A header line names the columns: title, author, price and type, in any order; other columns are ignored
+	public BookImportResultDTO importCsv(String importId, InputStream body) throws IOException {
+		Import			run		= new Import(importId);
+		CsvReader		csv		= new CsvReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+		CsvReader.Row	header	= csv.next();
+		if (header == null) {
+			return run.finish();
+		}
+		Map<String, Integer>	columns	= columns(header);
+		int						width	= header.fields().size();
+
+		// A parser throws IllegalArgumentException with the reason a row is rejected
+		CsvReader.Row row;
+		while ((row = csv.next()) != null) {
+			CsvReader.Row record = row;
+			if (!record.isBlank()) {
+				run.add(record.line(), () -> toBook(record, columns, width));
+			}
+		}
+		return run.finish();
+	}
+
+	// One BookDTO as a JSON object per line
+	public BookImportResultDTO importNdjson(String importId, InputStream body) throws IOException {
+		Import			run		= new Import(importId);
+		BufferedReader	reader	= new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+		long	line	= 0;
+		String	text;
+		while ((text = reader.readLine()) != null) {
+			String json = text;
+			line++;
+			if (!json.isBlank()) {
+				run.add(line, () -> toBook(json));
+			}
+		}
+		return run.finish();
+	}
+
+	private static Map<String, Integer> columns(CsvReader.Row header) {
+		Map<String, Integer> columns = new HashMap<>();
+		for (int i = 0; i < header.fields().size(); i++) {
+			columns.putIfAbsent(header.fields().get(i).trim().toLowerCase(Locale.ROOT), i);
+		}
+		if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+			throw new IllegalArgumentException("CSV header must name the columns title, author, price and type");
+		}
+		return columns;
+	}
+
+	private static BookDTO toBook(CsvReader.Row row, Map<String, Integer> columns, int width) {
+		if (row.error() != null) {
+			throw new IllegalArgumentException(row.error());
+		}
+		List<String> fields = row.fields();
+		if (fields.size() != width) {
+			throw new IllegalArgumentException("Expected " + width + " fields, found " + fields.size());
+		}
+
+		String	price	= fields.get(columns.get("price")).trim();
+		String	type	= fields.get(columns.get("type")).trim();
+		BookDTO	book	= new BookDTO();
+		book.setTitle(fields.get(columns.get("title")));
+		book.setAuthor(fields.get(columns.get("author")));
+		try {
+			book.setPrice(Double.parseDouble(price));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid price: " + price);
+		}
+		try {
+			book.setType(type.isEmpty() ? null : BookType.valueOf(type));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid book type: " + type);
+		}
+		return book;
+	}
+
+	private BookDTO toBook(String json) {
+		try {
+			return bookReader.readValue(json);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+		}
+	}
+
+	// The message of every constraint the book breaks, or null when it is valid
+	private String violations(BookDTO book) {
+		Set<ConstraintViolation<BookDTO>> violations = validator.validate(book);
+		return violations.isEmpty() ? null
+				: violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+	}
+
+	// One upload: the chunk being filled and what this upload has done so far
+	private final class Import {
+
+		private final String					id;
+		private final long						resumeAfter;
+		private final List<Row>					chunk	= new ArrayList<>();
+		private final List<BookImportErrorDTO>	errors	= new ArrayList<>();
+		private long							accepted;
+		private long							rejected;
+		private long							skipped;
+
+		Import(String id) {
+			if (id == null || id.isBlank() || id.length() > MAX_IMPORT_ID_LENGTH) {
+				throw new IllegalArgumentException("Import ID must be between 1 and " + MAX_IMPORT_ID_LENGTH + " characters");
+			}
+			this.id				= id;
+			this.resumeAfter	= start(id).getCommittedLines();
+		}
+
+		void add(long line, Supplier<BookDTO> parser) {
+			// Committed by an earlier upload, not even parsed again
+			if (line <= resumeAfter) {
+				skipped++;
+				return;
+			}
+			BookDTO book;
+			String	error;
+			try {
+				book	= parser.get();
+				error	= violations(book);
+				// Every row creates a book; an id or version, as in a feed exported from GET /api/books, is ignored
+				book.setId(null);
+				book.setVersion(0);
+			} catch (IllegalArgumentException e) {
+				book	= null;
+				error	= e.getMessage();
+			}
+			chunk.add(error == null ? new Row(line, bookMapper.convertToBook(book), null) : new Row(line, null, error));
+			if (chunk.size() >= chunkSize) {
+				commit();
+			}
+		}
+
+		BookImportResultDTO finish() {
+			if (!chunk.isEmpty()) {
+				commit();
+			}
+			return new BookImportResultDTO(id, accepted, rejected, skipped, errors);
+		}
+
+		private void commit() {
+			long last = chunk.get(chunk.size() - 1).line();
+			List<BookDTO> created;
+			try {
+				created = transactionTemplate.execute(status -> write(last));
+			} catch (RuntimeException e) {
+				throw new BookImportFailedException("Import " + id + " failed in the chunk ending at line " + last
+						+ ", upload the file again with the same import ID to resume: " + e.getMessage(), e);
+			}
+			created.forEach(book -> {
+				bookSearchIndex.put(book);
+				bookSuggestIndex.put(book);
+			});
+			chunk.clear();
+		}
+
+		// Writes the rows of the chunk that no other upload has committed meanwhile, with the progress
+		private List<BookDTO> write(long last) {
+			BookImport		progress	= bookImportRepository.findForUpdateById(id).orElseThrow();
+			List<Book>		books		= new ArrayList<>(chunk.size());
+			long			rejectedNow	= 0;
+			for (Row row : chunk) {
+				if (row.line() <= progress.getCommittedLines()) {
+					skipped++;
+				} else if (row.book() != null) {
+					entityManager.persist(row.book());
+					books.add(row.book());
+				} else {
+					rejectedNow++;
+					if (errors.size() < MAX_REPORTED_ERRORS) {
+						errors.add(new BookImportErrorDTO(row.line(), row.error()));
+					}
+				}
+			}
+			progress.setCommittedLines(Math.max(progress.getCommittedLines(), last));
+			progress.setAccepted(progress.getAccepted() + books.size());
+			progress.setRejected(progress.getRejected() + rejectedNow);
+			progress.setUpdatedAt(Instant.now());
+			entityManager.flush();
+
+			List<BookDTO> created = bookMapper.convertToBookDTOList(books);
+			entityManager.clear();
+			if (!books.isEmpty()) {
+				catalogVersion.changed();
+			}
+			accepted	+= books.size();
+			rejected	+= rejectedNow;
+			return created;
+		}
+	}
+
+	// The progress of the import, created by its first upload
+	private BookImport start(String id) {
+		try {
+			return transactionTemplate.execute(status -> bookImportRepository.findById(id)
+					.orElseGet(() -> bookImportRepository.save(new BookImport(id, 0, 0, 0, Instant.now()))));
+		} catch (DataIntegrityViolationException e) {
+			// Created by a concurrent upload of the same import
+			return bookImportRepository.findById(id).orElseThrow(() -> e);
+		}
+	}
+}
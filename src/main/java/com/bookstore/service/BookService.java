@@ -1,40 +1,143 @@
 package com.bookstore.service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.bookstore.cache.BookCache;
 import com.bookstore.dto.BookDTO;
+import com.bookstore.dto.PageDTO;
+import com.bookstore.dto.SuggestionDTO;
 import com.bookstore.exception.BookNotFoundException;
 import com.bookstore.mapper.BookMapper;
 import com.bookstore.model.Book;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookSales;
+import com.bookstore.repository.PurchaseRepository;
+import com.bookstore.search.BookSearchIndex;
+import com.bookstore.search.BookSuggestIndex;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
 @Service
+@Timed("bookstore.service")
 @RequiredArgsConstructor
 public class BookService {
 
+	// Fields of BookDTO that ?fields= may select
+	private static final Projection<Book> FIELDS = new Projection<>(Book.class, true)
+			.field("id").field("title").field("author").field("price").field("type").field("version");
+
 	private final BookRepository bookRepository;
 	private final BookMapper bookMapper;
+	private final EntityManager entityManager;
+	private final BookCache bookCache;
+	private final BookSearchIndex bookSearchIndex;
+	private final BookSuggestIndex bookSuggestIndex;
+	private final PurchaseRepository purchaseRepository;
+	private final CatalogVersion catalogVersion;
 
 	@Transactional(readOnly = true)
 	public List<BookDTO> getAllBooks() {
 		return bookMapper.convertToBookDTOList(bookRepository.findAll());
 	}
 
+	// Only the requested fields of every book, read as a projection of their columns
+	@Transactional(readOnly = true)
+	public List<Map<String, Object>> getAllBooks(String fields) {
+		return FIELDS.select(entityManager, FIELDS.parse(fields));
+	}
+
+	// Writes every book to the sink without holding the full table in memory
+	@Transactional(readOnly = true)
+	public void streamAllBooks(Consumer<BookDTO> sink) {
+		EntityStreams.forEach(bookRepository.streamAllByOrderByIdAsc(), entityManager, bookMapper::convertToBookDTO, sink);
+	}
+
+	@Transactional(readOnly = true)
+	public PageDTO<BookDTO> getBooksPage(String after, int limit, String sort) {
+		Keyset.checkLimit(limit);
+		List<Book> books;
+
+		switch (sort) {
+		case	"id"	: {
+			books = after == null
+					? bookRepository.findAllByOrderByIdAsc(Keyset.fetchLimit(limit))
+					: bookRepository.findByIdGreaterThanOrderByIdAsc(Keyset.afterId(after), Keyset.fetchLimit(limit));
+			return Keyset.page(books, limit, bookMapper::convertToBookDTOList, book -> Keyset.idCursor(book.getId()));
+		}
+		case	"title"	: {
+			if (after == null) {
+				books = bookRepository.findAllByOrderByTitleAscIdAsc(Keyset.fetchLimit(limit));
+			} else {
+				Keyset.Position position = Keyset.decode(after, sort);
+				books = bookRepository.findPageAfterTitle(position.value(), position.id(), Keyset.fetchLimit(limit));
+			}
+			return Keyset.page(books, limit, bookMapper::convertToBookDTOList, book -> Keyset.encode(sort, book.getTitle(), book.getId()));
+		}
+		case	"price"	: {
+			if (after == null) {
+				books = bookRepository.findAllByOrderByPriceAscIdAsc(Keyset.fetchLimit(limit));
+			} else {
+				Keyset.Position position = Keyset.decode(after, sort);
+				books = bookRepository.findPageAfterPrice(Keyset.decodeDouble(position, after), position.id(), Keyset.fetchLimit(limit));
+			}
+			return Keyset.page(books, limit, bookMapper::convertToBookDTOList, book -> Keyset.encode(sort, book.getPrice(), book.getId()));
+		}
+
+		default			: {
+			throw new IllegalArgumentException("Invalid sort key: " + sort);
+		}
+		}
+	}
+
+	// Ranked search over titles and authors, served from memory
+	public List<BookDTO> searchBooks(String query, int limit) {
+		return bookSearchIndex.search(query, limit);
+	}
+
+	// Title and author suggestions for a typed prefix, most purchased first
+	public List<SuggestionDTO> suggestBooks(String prefix, int limit) {
+		return bookSuggestIndex.suggest(prefix, limit);
+	}
+
+	// Replaces the search and suggestion indexes with the current contents of the database
+	@Transactional(readOnly = true)
+	public void rebuildSearchIndex() {
+		bookSearchIndex.rebuild(this::streamAllBooks);
+
+		Map<Long, Long> sales = purchaseRepository.countSalesByBook().stream()
+				.collect(Collectors.toMap(BookSales::getBookId, BookSales::getSales));
+		bookSuggestIndex.rebuild(this::streamAllBooks, id -> sales.getOrDefault(id, 0L));
+	}
+
+	// The version of a book from the search index, empty when it is not indexed; never queries the database
+	public OptionalLong getBookVersion(Long id) {
+		return bookSearchIndex.version(id);
+	}
+
 	@Transactional(readOnly = true)
 	public BookDTO getBookById(Long id) {
-		Book book = getBook(id);
+		Book book = bookCache.get(id, bookRepository::findById)
+				.orElseThrow(() -> new BookNotFoundException("Book with ID " + id + " not found"));
 		return bookMapper.convertToBookDTO(book);
 	}
 
 	@Transactional
 	public BookDTO createBook(BookDTO bookDTO) {
-		Book book = bookMapper.convertToBook(bookDTO);
-		return bookMapper.convertToBookDTO(bookRepository.save(book));
+		Book	book	= bookMapper.convertToBook(bookDTO);
+		BookDTO	created	= bookMapper.convertToBookDTO(bookRepository.save(book));
+		bookSearchIndex.put(created);
+		bookSuggestIndex.put(created);
+		catalogVersion.changed();
+		return created;
 	}
 
 	@Transactional
@@ -45,14 +148,23 @@ public class BookService {
 		book.setAuthor(bookDTO.getAuthor());
 		book.setPrice(bookDTO.getPrice());
 		book.setType(bookDTO.getType());
+		bookCache.invalidate(id);
 
-		return bookMapper.convertToBookDTO(bookRepository.save(book));
+		BookDTO updated = bookMapper.convertToBookDTO(bookRepository.saveAndFlush(book));
+		bookSearchIndex.put(updated);
+		bookSuggestIndex.put(updated);
+		catalogVersion.changed();
+		return updated;
 	}
 
 	@Transactional
 	public boolean deleteBook(Long id) {
 		Book book = getBook(id);
 		bookRepository.delete(book);
+		bookCache.invalidate(id);
+		bookSearchIndex.remove(id);
+		bookSuggestIndex.remove(id);
+		catalogVersion.changed();
 		return true;
 	}
 	
@@ -0,0 +1,30 @@
+package com.bookstore.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.bookstore.support.Transactions;
+
+/**
+ * Version of the book catalog as a whole, changed by every book write.
+ *
+ * The counter lives in memory and starts over with the application; HttpCaching prefixes
+ * every ETag with the start time, so a version handed out before a restart never matches
+ * one handed out after it. A write bumps the version once it has committed; a reader that saw the
+ * new rows under the old version just fetches them again on its next request, while
+ * bumping before the commit could let the old rows be cached under the new version.
+ */
+@Component
+public class CatalogVersion {
+
+	private final AtomicLong version = new AtomicLong();
+
+	public String current() {
+		return String.valueOf(version.get());
+	}
+
+	void changed() {
+		Transactions.afterCommit(version::incrementAndGet);
+	}
+}
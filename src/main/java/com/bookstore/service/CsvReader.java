@@ -0,0 +1,90 @@
+package com.bookstore.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV (RFC 4180) one record at a time, so memory use does not depend on the size of
+ * the input. Quoted fields may hold commas, doubled quotes and line breaks; each record
+ * remembers the line it starts on. A field longer than the limit is cut short and its
+ * record marked as invalid rather than buffered whole.
+ */
+final class CsvReader {
+
+	static final int MAX_FIELD_LENGTH = 10_000;
+
+	// A record and the problem found while reading it, if any
+	record Row(long line, List<String> fields, String error) {
+
+		boolean isBlank() {
+			return fields.size() == 1 && fields.get(0).isBlank();
+		}
+	}
+
+	private final Reader	in;
+	private long			line	= 1;
+
+	// The reader should be buffered
+	CsvReader(Reader in) {
+		this.in = in;
+	}
+
+	// The next record, or null at the end of the input
+	Row next() throws IOException {
+		int c = in.read();
+		if (c == -1) {
+			return null;
+		}
+
+		long			start	= line;
+		List<String>	fields	= new ArrayList<>();
+		StringBuilder	field	= new StringBuilder();
+		boolean			quoted	= false;
+		String			error	= null;
+		while (true) {
+			if (quoted) {
+				if (c == -1) {
+					fields.add(field.toString());
+					return new Row(start, fields, "Unterminated quoted field");
+				}
+				if (c == '"') {
+					c = in.read();
+					if (c != '"') {
+						// Closing quote, the character after it is read as unquoted
+						quoted = false;
+						continue;
+					}
+				} else if (c == '\n') {
+					line++;
+				}
+			} else if (c == '"' && field.isEmpty()) {
+				quoted	= true;
+				c		= in.read();
+				continue;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+				c = in.read();
+				continue;
+			} else if (c == '\n' || c == -1) {
+				if (c == '\n') {
+					line++;
+				}
+				fields.add(field.toString());
+				return new Row(start, fields, error);
+			} else if (c == '\r') {
+				c = in.read();
+				continue;
+			}
+
+			if (field.length() < MAX_FIELD_LENGTH) {
+				field.append((char) c);
+			} else {
+				error = "Field longer than " + MAX_FIELD_LENGTH + " characters";
+			}
+			c = in.read();
+		}
+	}
+}
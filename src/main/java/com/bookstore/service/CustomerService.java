@@ -1,56 +1,126 @@
 package com.bookstore.service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.bookstore.cache.CustomerCache;
 import com.bookstore.dto.CustomerDTO;
+import com.bookstore.dto.LoyaltyEntryDTO;
+import com.bookstore.dto.PageDTO;
 import com.bookstore.exception.CustomerNotFoundException;
 import com.bookstore.mapper.CustomerMapper;
 import com.bookstore.model.Customer;
 import com.bookstore.repository.CustomerRepository;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
 @Service
+@Timed("bookstore.service")
 @RequiredArgsConstructor
 public class CustomerService {
 
+	// Fields of CustomerDTO that ?fields= may select. The loyalty balance is computed by two
+	// subqueries, which only run when loyaltyPoints is selected; it changes without the
+	// customer row, so the results are not query cached
+	private static final Projection<Customer> FIELDS = new Projection<>(Customer.class, false)
+			.field("id").field("name").field("loyaltyPoints").field("version");
+
 	private final CustomerRepository customerRepository;
 	private final CustomerMapper customerMapper;
+	private final EntityManager entityManager;
+	private final CustomerCache customerCache;
+	private final LoyaltyLedger loyaltyLedger;
 
 	@Transactional(readOnly = true)
 	public List<CustomerDTO> getAllCustomers() {
 		return customerMapper.convertToCustomerList(customerRepository.findAll());
 	}
 
+	// Only the requested fields of every customer, read as a projection of their columns
+	@Transactional(readOnly = true)
+	public List<Map<String, Object>> getAllCustomers(String fields) {
+		return FIELDS.select(entityManager, FIELDS.parse(fields));
+	}
+
+	// Writes every customer to the sink without holding the full table in memory
+	@Transactional(readOnly = true)
+	public void streamAllCustomers(Consumer<CustomerDTO> sink) {
+		EntityStreams.forEach(customerRepository.streamAllByOrderByIdAsc(), entityManager, customerMapper::convertToCustomerDTO, sink);
+	}
+
+	@Transactional(readOnly = true)
+	public PageDTO<CustomerDTO> getCustomersPage(String after, int limit, String sort) {
+		Keyset.checkLimit(limit);
+		List<Customer> customers;
+
+		switch (sort) {
+		case	"id"	: {
+			customers = after == null
+					? customerRepository.findAllByOrderByIdAsc(Keyset.fetchLimit(limit))
+					: customerRepository.findByIdGreaterThanOrderByIdAsc(Keyset.afterId(after), Keyset.fetchLimit(limit));
+			return Keyset.page(customers, limit, customerMapper::convertToCustomerList, customer -> Keyset.idCursor(customer.getId()));
+		}
+		case	"name"	: {
+			if (after == null) {
+				customers = customerRepository.findAllByOrderByNameAscIdAsc(Keyset.fetchLimit(limit));
+			} else {
+				Keyset.Position position = Keyset.decode(after, sort);
+				customers = customerRepository.findPageAfterName(position.value(), position.id(), Keyset.fetchLimit(limit));
+			}
+			return Keyset.page(customers, limit, customerMapper::convertToCustomerList, customer -> Keyset.encode(sort, customer.getName(), customer.getId()));
+		}
+
+		default			: {
+			throw new IllegalArgumentException("Invalid sort key: " + sort);
+		}
+		}
+	}
+
 	@Transactional(readOnly = true)
 	public CustomerDTO getCustomerById(Long id) {
-		Customer customer = getCustomer(id);
+		Customer customer = customerCache.get(id, customerRepository::findById)
+				.orElseThrow(() -> new CustomerNotFoundException("Customer with ID " + id + " not found"));
 		return customerMapper.convertToCustomerDTO(customer);
 	}
 
+	// Loyalty points are never written to the customer, they are opened as a ledger adjustment
 	@Transactional
 	public CustomerDTO createCustomer(CustomerDTO customerDTO) {
-		Customer customer = customerMapper.convertToCustomer(customerDTO);
-		return customerMapper.convertToCustomerDTO(customerRepository.save(customer));
+		Customer customer = customerRepository.save(customerMapper.convertToCustomer(customerDTO));
+		loyaltyLedger.adjust(customer.getId(), customerDTO.getLoyaltyPoints());
+		return customerMapper.convertToCustomerDTO(customer);
 	}
 
 	@Transactional
 	public CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO) {
-		Customer customer = getCustomer(id);
+		// Locked so that the adjustment is computed from a balance no purchase is changing
+		Customer customer = customerRepository.findForUpdateById(id)
+				.orElseThrow(() -> new CustomerNotFoundException("Customer with ID " + id + " not found"));
 
 		customer.setName(customerDTO.getName());
+		loyaltyLedger.adjust(id, customerDTO.getLoyaltyPoints() - loyaltyLedger.balance(id));
 		customer.setLoyaltyPoints(customerDTO.getLoyaltyPoints());
+		customerCache.invalidate(id);
 
-		return customerMapper.convertToCustomerDTO(customerRepository.save(customer));
+		return customerMapper.convertToCustomerDTO(customerRepository.saveAndFlush(customer));
+	}
+
+	@Transactional(readOnly = true)
+	public List<LoyaltyEntryDTO> getLoyaltyHistory(Long id) {
+		return loyaltyLedger.history(id);
 	}
 
 	@Transactional
 	public boolean deleteCustomer(Long id) {
 		Customer customer = getCustomer(id);
 		customerRepository.delete(customer);
+		customerCache.invalidate(id);
 		return true;
 	}
 
@@ -0,0 +1,41 @@
+package com.bookstore.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Drains a forward-only entity stream into a sink one DTO at a time.
+ *
+ * Rows are read in chunks of {@link #EVICT_EVERY} before being mapped, so lazy associations
+ * with batch fetching are loaded once per chunk rather than once per row. The persistence
+ * context is cleared after each chunk so that nothing accumulates in memory.
+ */
+final class EntityStreams {
+
+	// Matches the fetch size hint on the repository stream queries
+	static final int EVICT_EVERY = 500;
+
+	private EntityStreams() {
+	}
+
+	static <E, D> void forEach(Stream<E> rows, EntityManager entityManager, Function<E, D> mapper, Consumer<D> sink) {
+		List<E> chunk = new ArrayList<>(EVICT_EVERY);
+		try (rows) {
+			Iterator<E> iterator = rows.iterator();
+			while (iterator.hasNext()) {
+				chunk.add(iterator.next());
+				if (chunk.size() == EVICT_EVERY || !iterator.hasNext()) {
+					chunk.forEach(row -> sink.accept(mapper.apply(row)));
+					chunk.clear();
+					entityManager.clear();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.bookstore.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Limit;
+
+import com.bookstore.dto.PageDTO;
+
+/**
+ * Helpers for keyset (cursor) pagination.
+ *
+ * Pages sorted by id use the last id as the cursor. Pages sorted by another key
+ * use an opaque token holding the sort key, the last sort value and the last id,
+ * so ties on the sort value are broken by id. The limit and id cursor helpers are
+ * public for the reactive read API, which pages by id the same way.
+ */
+public final class Keyset {
+
+	static final int MAX_LIMIT = 1000;
+
+	private Keyset() {
+	}
+
+	record Position(String value, Long id) {
+	}
+
+	public static void checkLimit(int limit) {
+		if (limit < 1 || limit > MAX_LIMIT) {
+			throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+		}
+	}
+
+	// One extra row tells us whether a next page exists without a count query
+	static Limit fetchLimit(int limit) {
+		return Limit.of(limit + 1);
+	}
+
+	static <E, D> PageDTO<D> page(List<E> rows, int limit, Function<List<E>, List<D>> mapper, Function<E, String> cursorOf) {
+		boolean	hasMore	= rows.size() > limit;
+		List<E>	items	= hasMore ? rows.subList(0, limit) : rows;
+		String	next	= hasMore ? cursorOf.apply(items.get(limit - 1)) : null;
+		return new PageDTO<>(mapper.apply(items), next);
+	}
+
+	public static String idCursor(Long id) {
+		return String.valueOf(id);
+	}
+
+	public static Long afterId(String cursor) {
+		try {
+			return Long.parseLong(cursor);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor);
+		}
+	}
+
+	static String encode(String sort, Object value, Long id) {
+		String raw = sort + ":" + value + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static Position decode(String cursor, String sort) {
+		try {
+			String	raw		= new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int		first	= raw.indexOf(':');
+			int		last	= raw.lastIndexOf(':');
+			if (first < 0 || first == last || !raw.substring(0, first).equals(sort)) {
+				throw new IllegalArgumentException("Invalid cursor: " + cursor);
+			}
+			return new Position(raw.substring(first + 1, last), Long.parseLong(raw.substring(last + 1)));
+		} catch (IllegalArgumentException e) {
+			// Also covers malformed Base64 and NumberFormatException
+			throw new IllegalArgumentException("Invalid cursor: " + cursor);
+		}
+	}
+
+	static double decodeDouble(Position position, String cursor) {
+		try {
+			return Double.parseDouble(position.value());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor);
+		}
+	}
+}
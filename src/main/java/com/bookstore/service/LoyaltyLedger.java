@@ -0,0 +1,175 @@
+package com.bookstore.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bookstore.dto.LoyaltyEntryDTO;
+import com.bookstore.exception.CustomerNotFoundException;
+import com.bookstore.mapper.LoyaltyEntryMapper;
+import com.bookstore.model.LoyaltyEntry;
+import com.bookstore.model.LoyaltyEntryType;
+import com.bookstore.model.LoyaltySnapshot;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.LoyaltyBalance;
+import com.bookstore.repository.LoyaltyEntryRepository;
+import com.bookstore.repository.LoyaltySnapshotRepository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Append-only ledger of loyalty points.
+ *
+ * Every change is a new immutable entry, so accruing points is a plain insert that does
+ * not touch, or wait for, any other row. The balance of a customer is their snapshot
+ * plus the entries not yet compacted into it; {@link #compact(int)} periodically rolls
+ * the oldest entries into the snapshots to keep that tail short.
+ *
+ * A redemption spends the whole balance and is the only change that depends on it, so it
+ * is the only one that locks the customer, and only when the balance is high enough.
+ */
+@Service
+@Timed("bookstore.service")
+@RequiredArgsConstructor
+public class LoyaltyLedger {
+
+	static final int HISTORY_LIMIT = 100;
+
+	private final LoyaltyEntryRepository loyaltyEntryRepository;
+	private final LoyaltySnapshotRepository loyaltySnapshotRepository;
+	private final CustomerRepository customerRepository;
+	private final LoyaltyEntryMapper loyaltyEntryMapper;
+
+	@Transactional(readOnly = true)
+	public int balance(Long customerId) {
+		Integer balance = customerRepository.findLoyaltyPointsById(customerId);
+		if (balance == null) {
+			throw new CustomerNotFoundException("Customer not found with ID: " + customerId);
+		}
+		return balance;
+	}
+
+	@Transactional(readOnly = true)
+	public Map<Long, Integer> balances(Collection<Long> customerIds) {
+		return customerRepository.findLoyaltyBalances(customerIds).stream()
+				.collect(Collectors.toMap(LoyaltyBalance::getCustomerId, LoyaltyBalance::getBalance));
+	}
+
+	// Most recent entries of a customer, newest first
+	@Transactional(readOnly = true)
+	public List<LoyaltyEntryDTO> history(Long customerId) {
+		balance(customerId);
+		return loyaltyEntryMapper.convertToLoyaltyEntryDTOList(
+				loyaltyEntryRepository.findByCustomerIdOrderByIdDesc(customerId, Limit.of(HISTORY_LIMIT)));
+	}
+
+	/**
+	 * Returns the points a purchase may redeem now, or 0 if the balance is below the
+	 * threshold. A positive result holds the customer's row lock until the transaction
+	 * ends, so the caller must record the redemption in the same transaction.
+	 */
+	@Transactional
+	public int claimRedemption(Long customerId, int threshold) {
+		if (balance(customerId) < threshold) {
+			return 0;
+		}
+		// Read again once locked: a concurrent redemption may have committed meanwhile
+		customerRepository.findForUpdateById(customerId);
+		int balance = balance(customerId);
+		return balance >= threshold ? balance : 0;
+	}
+
+	@Transactional
+	public void accrue(Long customerId, Long purchaseId, int points) {
+		append(customerId, purchaseId, LoyaltyEntryType.ACCRUAL, points);
+	}
+
+	@Transactional
+	public void redeem(Long customerId, Long purchaseId, int points) {
+		append(customerId, purchaseId, LoyaltyEntryType.REDEMPTION, -points);
+	}
+
+	/**
+	 * Sets the points a purchase has accrued, e.g. after its books changed. Points taken
+	 * back are limited to the balance, like in {@link #reverse(Long, Long)}.
+	 */
+	@Transactional
+	public void reaccrue(Long customerId, Long purchaseId, int points) {
+		int change = points - loyaltyEntryRepository.sumPointsByPurchaseId(purchaseId);
+		if (change < 0) {
+			change = Math.max(change, -lockedBalance(customerId));
+		}
+		append(customerId, purchaseId, LoyaltyEntryType.ACCRUAL, change);
+	}
+
+	// Manual change of the balance, e.g. when a customer is created or edited
+	@Transactional
+	public void adjust(Long customerId, int points) {
+		append(customerId, null, LoyaltyEntryType.ADJUSTMENT, points);
+	}
+
+	/**
+	 * Undoes what a purchase did to the balance. Points accrued by the purchase are
+	 * only taken back as far as the balance allows, since they may have been redeemed.
+	 */
+	@Transactional
+	public void reverse(Long customerId, Long purchaseId) {
+		int points = loyaltyEntryRepository.sumPointsByPurchaseId(purchaseId);
+		if (points > 0) {
+			points = Math.min(points, lockedBalance(customerId));
+		}
+		append(customerId, purchaseId, LoyaltyEntryType.REVERSAL, -points);
+	}
+
+	/**
+	 * Rolls up to maxEntries of the oldest uncompacted entries into their customers'
+	 * snapshots and returns how many were rolled. The balances read by other
+	 * transactions do not change: they see either the old snapshots and the entries,
+	 * or the new snapshots without them.
+	 */
+	@Transactional
+	public int compact(int maxEntries) {
+		List<LoyaltyEntry> entries = loyaltyEntryRepository.findByCompactedFalseOrderByIdAsc(Limit.of(maxEntries));
+		if (entries.isEmpty()) {
+			return 0;
+		}
+
+		Map<Long, List<LoyaltyEntry>>	byCustomer	= entries.stream().collect(Collectors.groupingBy(LoyaltyEntry::getCustomerId));
+		Map<Long, LoyaltySnapshot>		snapshots	= loyaltySnapshotRepository.findAllById(byCustomer.keySet()).stream()
+				.collect(Collectors.toMap(LoyaltySnapshot::getCustomerId, Function.identity()));
+		Instant							now			= Instant.now();
+		byCustomer.forEach((customerId, customerEntries) -> {
+			LoyaltySnapshot snapshot = snapshots.computeIfAbsent(customerId, id -> new LoyaltySnapshot(id, 0, 0, now));
+			snapshot.setBalance(snapshot.getBalance() + customerEntries.stream().mapToInt(LoyaltyEntry::getPoints).sum());
+			snapshot.setEntries(snapshot.getEntries() + customerEntries.size());
+			snapshot.setUpdatedAt(now);
+		});
+		loyaltySnapshotRepository.saveAll(snapshots.values());
+
+		if (loyaltyEntryRepository.markCompacted(entries.stream().map(LoyaltyEntry::getId).toList()) != entries.size()) {
+			throw new IllegalStateException("Loyalty entries were compacted concurrently");
+		}
+		return entries.size();
+	}
+
+	// Takes the same row lock as a redemption before reading the balance, so points taken
+	// back are clamped against a balance no concurrent redemption can still spend
+	private int lockedBalance(Long customerId) {
+		customerRepository.findForUpdateById(customerId);
+		return balance(customerId);
+	}
+
+	private void append(Long customerId, Long purchaseId, LoyaltyEntryType type, int points) {
+		if (points != 0) {
+			loyaltyEntryRepository.save(new LoyaltyEntry(customerId, purchaseId, type, points));
+		}
+	}
+}
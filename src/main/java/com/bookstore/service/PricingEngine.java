@@ -0,0 +1,144 @@
+package com.bookstore.service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.bookstore.exception.InvalidBookTypeException;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+
+/**
+ * Prices a cart of books in a single pass.
+ *
+ * Discounts are driven by a per-{@link BookType} rule table that is flattened into
+ * arrays indexed by ordinal, so pricing a book is two array reads and at most two
+ * multiplications. The loop works on primitives only and allocates nothing per book.
+ */
+@Component
+public class PricingEngine {
+
+	// Carts of at least this many books get the bulk discount
+	static final int BULK_THRESHOLD = 3;
+
+	/**
+	 * @param baseFactor		multiplier always applied to the list price
+	 * @param bulkFactor		multiplier applied on top when the cart reaches {@link #BULK_THRESHOLD} books
+	 * @param loyaltyEligible	whether the book can be the one made free by loyalty points
+	 */
+	record Rule(double baseFactor, double bulkFactor, boolean loyaltyEligible) {
+	}
+
+	static final Map<BookType, Rule> RULES = new EnumMap<>(Map.of(
+			// 20% discount, additional 5% discount in bulk
+			BookType.OLD_EDITION,	new Rule(0.8, 0.95, true),
+			// 10% discount in bulk
+			BookType.REGULAR,		new Rule(1.0, 0.9, true),
+			// No discount applied, never free with loyalty points
+			BookType.NEW_RELEASE,	new Rule(1.0, 1.0, false)));
+
+	private static final double[]	BASE_FACTOR			= new double[BookType.values().length];
+	private static final double[]	BULK_FACTOR			= new double[BookType.values().length];
+	private static final boolean[]	LOYALTY_ELIGIBLE	= new boolean[BookType.values().length];
+
+	static {
+		for (BookType type : BookType.values()) {
+			Rule rule = RULES.get(type);
+			if (rule == null) {
+				throw new IllegalStateException("No pricing rule for book type: " + type);
+			}
+			BASE_FACTOR[type.ordinal()]			= rule.baseFactor();
+			BULK_FACTOR[type.ordinal()]			= rule.bulkFactor();
+			LOYALTY_ELIGIBLE[type.ordinal()]	= rule.loyaltyEligible();
+		}
+	}
+
+	/**
+	 * Result of pricing a cart.
+	 *
+	 * @param listPrice			sum of the undiscounted book prices
+	 * @param discountedPrice	sum of the book prices after type and bulk discounts
+	 * @param loyaltyDiscount	price of the cheapest loyalty eligible book, 0 if there is none
+	 */
+	public record PriceBreakdown(double listPrice, double discountedPrice, double loyaltyDiscount) {
+
+		public double totalPrice(boolean loyaltyApplied) {
+			return loyaltyApplied ? discountedPrice - loyaltyDiscount : discountedPrice;
+		}
+	}
+
+	public PriceBreakdown price(List<Book> books) {
+		int		bookCount		= books.size();
+		boolean	bulk			= bookCount >= BULK_THRESHOLD;
+
+		// Compensated (Kahan) sums, as precise as DoubleStream.sum()
+		double	listPrice		= 0.0;
+		double	listError		= 0.0;
+		double	discounted		= 0.0;
+		double	discountedError	= 0.0;
+		double	cheapest		= Double.POSITIVE_INFINITY;
+
+		for (int i = 0; i < bookCount; i++) {
+			Book		book	= books.get(i);
+			BookType	type	= book.getType();
+			if (type == null) {
+				throw new InvalidBookTypeException("Unknown book type: " + type);
+			}
+			int			index	= type.ordinal();
+
+			double		price	= book.getPrice();
+			double		y		= price - listError;
+			double		t		= listPrice + y;
+			listError			= (t - listPrice) - y;
+			listPrice			= t;
+
+			price *= BASE_FACTOR[index];
+			if (bulk) {
+				price *= BULK_FACTOR[index];
+			}
+			y					= price - discountedError;
+			t					= discounted + y;
+			discountedError		= (t - discounted) - y;
+			discounted			= t;
+
+			if (LOYALTY_ELIGIBLE[index] && price < cheapest) {
+				cheapest = price;
+			}
+		}
+
+		return new PriceBreakdown(listPrice, discounted, cheapest == Double.POSITIVE_INFINITY ? 0.0 : cheapest);
+	}
+
+	/**
+	 * Splits what a cart earns by book type, for reporting.
+	 *
+	 * @param loyaltyApplied	whether the cheapest loyalty eligible book is free, its type then earns that much less
+	 * @return					discounted revenue indexed by {@link BookType#ordinal()}
+	 */
+	public double[] revenueByType(List<Book> books, boolean loyaltyApplied) {
+		double[]	revenue		= new double[BookType.values().length];
+		boolean		bulk		= books.size() >= BULK_THRESHOLD;
+		double		cheapest	= Double.POSITIVE_INFINITY;
+		int			freeType	= -1;
+
+		for (Book book : books) {
+			int		index	= book.getType().ordinal();
+			double	price	= book.getPrice() * BASE_FACTOR[index];
+			if (bulk) {
+				price *= BULK_FACTOR[index];
+			}
+			revenue[index] += price;
+			if (LOYALTY_ELIGIBLE[index] && price < cheapest) {
+				cheapest	= price;
+				freeType	= index;
+			}
+		}
+
+		if (loyaltyApplied && freeType >= 0) {
+			revenue[freeType] -= cheapest;
+		}
+		return revenue;
+	}
+}
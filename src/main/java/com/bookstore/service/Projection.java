@@ -0,0 +1,116 @@
+package com.bookstore.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Sparse fieldsets (?fields=id,title,price) read as projection queries.
+ *
+ * Only the columns behind the requested fields are selected, so the rest of the row is
+ * never read and no entity is hydrated or put in the persistence context. Each resource
+ * lists the DTO fields it exposes and the entity attribute behind each of them; a field
+ * of an associated entity's id, such as a purchase's customerId, reads the foreign key
+ * without a join. Rows come back as maps holding exactly the requested fields, in the
+ * order they were requested, and are sorted by id.
+ */
+final class Projection<E> {
+
+	private final Class<E>				entity;
+	private final boolean				cacheable;
+	private final Map<String, String>	attributes	= new LinkedHashMap<>();
+
+	// Cacheable results go through the query cache, like the entity listings do
+	Projection(Class<E> entity, boolean cacheable) {
+		this.entity		= entity;
+		this.cacheable	= cacheable;
+	}
+
+	// A DTO field read from the entity attribute of the same name
+	Projection<E> field(String field) {
+		return field(field, field);
+	}
+
+	// A DTO field read from an attribute path, e.g. "customerId" from "customer.id"
+	Projection<E> field(String field, String attribute) {
+		attributes.put(field, attribute);
+		return this;
+	}
+
+	/**
+	 * Parses a comma-separated field list, keeping the first occurrence of each field.
+	 * Fields the caller resolves itself, outside the projection query, are allowed too.
+	 */
+	List<String> parse(String fields, String... resolvedElsewhere) {
+		Set<String> allowed = new LinkedHashSet<>(attributes.keySet());
+		allowed.addAll(List.of(resolvedElsewhere));
+
+		Set<String> selected = new LinkedHashSet<>();
+		for (String field : fields.split(",")) {
+			String name = field.trim();
+			if (name.isEmpty()) {
+				continue;
+			}
+			if (!allowed.contains(name)) {
+				throw new IllegalArgumentException("Unknown field: " + name + ", expected some of " + String.join(",", allowed));
+			}
+			selected.add(name);
+		}
+		if (selected.isEmpty()) {
+			throw new IllegalArgumentException("Fields must name at least one of " + String.join(",", allowed));
+		}
+		return new ArrayList<>(selected);
+	}
+
+	// Selects the given fields, all of which must be attributes of this projection, of every row
+	List<Map<String, Object>> select(EntityManager entityManager, List<String> fields) {
+		CriteriaBuilder			builder	= entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple>	query	= builder.createTupleQuery();
+		Root<E>					root	= query.from(entity);
+
+		List<Selection<?>> selections = new ArrayList<>(fields.size());
+		for (String field : fields) {
+			selections.add(path(root, attributes.get(field)).alias(field));
+		}
+		query.multiselect(selections);
+		query.orderBy(builder.asc(root.get("id")));
+
+		TypedQuery<Tuple> typed = entityManager.createQuery(query);
+		if (cacheable) {
+			typed.setHint(HibernateHints.HINT_CACHEABLE, true);
+		}
+
+		List<Tuple>					tuples	= typed.getResultList();
+		List<Map<String, Object>>	rows	= new ArrayList<>(tuples.size());
+		for (Tuple tuple : tuples) {
+			Map<String, Object> row = new LinkedHashMap<>();
+			for (String field : fields) {
+				row.put(field, tuple.get(field));
+			}
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	private static Path<Object> path(Root<?> root, String attribute) {
+		Path<Object> path = null;
+		for (String part : attribute.split("\\.")) {
+			path = path == null ? root.get(part) : path.get(part);
+		}
+		return path;
+	}
+}
@@ -0,0 +1,190 @@
+package com.bookstore.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.bookstore.dto.PurchaseBatchItemDTO;
+import com.bookstore.dto.PurchaseBatchResultDTO;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.dto.PurchaseTicketDTO;
+import com.bookstore.dto.PurchaseTicketDTO.Status;
+import com.bookstore.exception.IntakeQueueFullException;
+import com.bookstore.exception.PurchaseTicketNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous purchase intake.
+ *
+ * A submitted purchase is validated against the cached customers and books, put on a
+ * bounded queue and answered with a ticket; nothing is written on the request thread.
+ * Workers drain the queue in micro-batches and create each micro-batch through
+ * {@link PurchaseService#createPurchases(List, boolean)}, so a whole micro-batch costs one
+ * transaction and a handful of JDBC batches. When the queue is full submissions are
+ * rejected at once instead of waiting, which the API reports as 503 with Retry-After.
+ *
+ * Tickets are kept in memory and are lost on restart, like the purchases still waiting
+ * in the queue. A ticket is kept for the configured retention once it is CREATED or
+ * FAILED; while QUEUED it never expires, which the queue capacity keeps bounded.
+ */
+@Slf4j
+@Service
+@Timed("bookstore.service")
+public class PurchaseIntake {
+
+	private record Submission(String ticketId, PurchaseDTO purchase) {
+	}
+
+	private final PurchaseService					purchaseService;
+	private final BlockingQueue<Submission>			queue;
+	private final Cache<String, PurchaseTicketDTO>	tickets;
+	private final int								workers;
+	private final int								batchSize;
+	private final ExecutorService					executor;
+
+	private volatile boolean running = true;
+
+	public PurchaseIntake(PurchaseService purchaseService,
+			@Value("${bookstore.purchases.intake.queue-capacity:10000}") int queueCapacity,
+			@Value("${bookstore.purchases.intake.workers:2}") int workers,
+			@Value("${bookstore.purchases.intake.batch-size:100}") int batchSize,
+			@Value("${bookstore.purchases.intake.ticket-retention:1h}") Duration ticketRetention) {
+		// Each micro-batch is one call to createPurchases, which refuses larger batches
+		if (batchSize < 1 || batchSize > PurchaseService.MAX_BATCH_SIZE) {
+			throw new IllegalArgumentException("bookstore.purchases.intake.batch-size must be between 1 and " + PurchaseService.MAX_BATCH_SIZE
+					+ ", was " + batchSize);
+		}
+		this.purchaseService	= purchaseService;
+		this.queue				= new ArrayBlockingQueue<>(queueCapacity);
+		this.tickets			= Caffeine.newBuilder().expireAfter(retainedOnceFinal(ticketRetention)).build();
+		this.workers			= workers;
+		this.batchSize			= batchSize;
+
+		AtomicInteger threads = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(workers, task -> {
+			Thread thread = new Thread(task, "purchase-intake-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	// The retention starts when a ticket is replaced by its final state, reading it does not extend it
+	private static Expiry<String, PurchaseTicketDTO> retainedOnceFinal(Duration ticketRetention) {
+		long retention = ticketRetention.toNanos();
+		return new Expiry<>() {
+			@Override
+			public long expireAfterCreate(String id, PurchaseTicketDTO ticket, long currentTime) {
+				return ticket.getStatus() == Status.QUEUED ? Long.MAX_VALUE : retention;
+			}
+
+			@Override
+			public long expireAfterUpdate(String id, PurchaseTicketDTO ticket, long currentTime, long currentDuration) {
+				return expireAfterCreate(id, ticket, currentTime);
+			}
+
+			@Override
+			public long expireAfterRead(String id, PurchaseTicketDTO ticket, long currentTime, long currentDuration) {
+				return currentDuration;
+			}
+		};
+	}
+
+	@PostConstruct
+	public void start() {
+		for (int i = 0; i < workers; i++) {
+			executor.execute(this::drain);
+		}
+	}
+
+	// Stops taking work, the purchases already queued are still created
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		running = false;
+		executor.shutdown();
+		if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+			log.warn("Purchase intake stopped with {} purchases still queued", queue.size());
+		}
+	}
+
+	public PurchaseTicketDTO submit(PurchaseDTO purchaseDTO) {
+		if (!running) {
+			throw new IntakeQueueFullException("Purchase intake is shutting down");
+		}
+		purchaseService.validatePurchase(purchaseDTO);
+
+		PurchaseTicketDTO ticket = new PurchaseTicketDTO(UUID.randomUUID().toString(), Status.QUEUED, null, null);
+		tickets.put(ticket.getId(), ticket);
+		if (!queue.offer(new Submission(ticket.getId(), purchaseDTO))) {
+			tickets.invalidate(ticket.getId());
+			throw new IntakeQueueFullException("Too many purchases waiting, please retry later");
+		}
+		return ticket;
+	}
+
+	public PurchaseTicketDTO getTicket(String id) {
+		PurchaseTicketDTO ticket = tickets.getIfPresent(id);
+		if (ticket == null) {
+			throw new PurchaseTicketNotFoundException("Purchase ticket not found with ID: " + id);
+		}
+		return ticket;
+	}
+
+	// Number of purchases waiting for a worker
+	public int queued() {
+		return queue.size();
+	}
+
+	private void drain() {
+		List<Submission> batch = new ArrayList<>(batchSize);
+		while (running || !queue.isEmpty()) {
+			try {
+				Submission first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				// Whatever queued up while the previous micro-batch was written goes into the next one
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				process(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void process(List<Submission> batch) {
+		try {
+			PurchaseBatchResultDTO result = purchaseService.createPurchases(batch.stream().map(Submission::purchase).toList(), false);
+			for (PurchaseBatchItemDTO item : result.getItems()) {
+				String ticketId = batch.get(item.getIndex()).ticketId();
+				tickets.put(ticketId, item.getStatus() == PurchaseBatchItemDTO.Status.CREATED
+						? new PurchaseTicketDTO(ticketId, Status.CREATED, item.getPurchase(), null)
+						: new PurchaseTicketDTO(ticketId, Status.FAILED, null, item.getMessage()));
+			}
+		} catch (RuntimeException e) {
+			log.warn("Failed to create a micro-batch of {} purchases", batch.size(), e);
+			batch.forEach(submission -> tickets.put(submission.ticketId(),
+					new PurchaseTicketDTO(submission.ticketId(), Status.FAILED, null, e.getMessage())));
+		}
+	}
+}
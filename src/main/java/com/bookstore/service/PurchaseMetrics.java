@@ -0,0 +1,66 @@
+package com.bookstore.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.bookstore.model.BookType;
+import com.bookstore.model.Purchase;
+import com.bookstore.support.Transactions;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Business counters: purchases created, loyalty redemptions and revenue per book type.
+ *
+ * Counters only go up, so they are incremented once the transaction that created the
+ * purchases has committed; a rolled back purchase is never counted.
+ */
+@Component
+public class PurchaseMetrics {
+
+	private final PricingEngine	pricingEngine;
+	private final Counter		created;
+	private final Counter		redemptions;
+	private final Counter[]		revenue;
+
+	public PurchaseMetrics(MeterRegistry registry, PricingEngine pricingEngine) {
+		this.pricingEngine	= pricingEngine;
+		this.created		= Counter.builder("bookstore.purchases")
+				.description("Purchases created")
+				.register(registry);
+		this.redemptions	= Counter.builder("bookstore.loyalty.redemptions")
+				.description("Purchases paid partly with loyalty points")
+				.register(registry);
+		this.revenue		= new Counter[BookType.values().length];
+		for (BookType type : BookType.values()) {
+			revenue[type.ordinal()] = Counter.builder("bookstore.revenue")
+					.description("Revenue of created purchases, after discounts")
+					.tag("type", type.name())
+					.register(registry);
+		}
+	}
+
+	public void recordCreated(List<Purchase> purchases) {
+		long		redeemed	= purchases.stream().filter(Purchase::isLoyaltyPointsUsed).count();
+		double[]	byType		= new double[revenue.length];
+		for (Purchase purchase : purchases) {
+			double[] purchaseRevenue = pricingEngine.revenueByType(purchase.getBooks(), purchase.isLoyaltyPointsUsed());
+			for (int i = 0; i < byType.length; i++) {
+				byType[i] += purchaseRevenue[i];
+			}
+		}
+
+		int count = purchases.size();
+		Transactions.afterCommit(() -> increment(count, redeemed, byType));
+	}
+
+	private void increment(int count, long redeemed, double[] byType) {
+		created.increment(count);
+		redemptions.increment(redeemed);
+		for (int i = 0; i < byType.length; i++) {
+			revenue[i].increment(byType[i]);
+		}
+	}
+}
@@ -1,41 +1,145 @@
 package com.bookstore.service;
 
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.bookstore.cache.BookCache;
+import com.bookstore.cache.CustomerCache;
+import com.bookstore.dto.PageDTO;
+import com.bookstore.dto.PurchaseBatchItemDTO;
+import com.bookstore.dto.PurchaseBatchItemDTO.Status;
+import com.bookstore.dto.PurchaseBatchResultDTO;
 import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.dto.PurchaseQuoteDTO;
 import com.bookstore.exception.BookNotFoundException;
 import com.bookstore.exception.CustomerNotFoundException;
-import com.bookstore.exception.InvalidBookTypeException;
 import com.bookstore.exception.PurchaseNotFoundException;
 import com.bookstore.mapper.PurchaseMapper;
 import com.bookstore.model.Book;
-import com.bookstore.model.BookType;
 import com.bookstore.model.Customer;
 import com.bookstore.model.Purchase;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.PurchaseBookId;
 import com.bookstore.repository.PurchaseRepository;
+import com.bookstore.search.BookSuggestIndex;
+import com.bookstore.service.PricingEngine.PriceBreakdown;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 
 @Service
+@Timed("bookstore.service")
 @RequiredArgsConstructor
 public class PurchaseService {
 
+	// Customers with at least this many points get their cheapest eligible book for free
+	static final int	LOYALTY_THRESHOLD	= 10;
+
+	static final int	MAX_BATCH_SIZE		= 10_000;
+	static final int	BATCH_CHUNK_SIZE	= 500;
+
+	// Fields of PurchaseDTO that ?fields= may select besides bookIds, which lives in the join table
+	private static final Projection<Purchase> FIELDS = new Projection<>(Purchase.class, false)
+			.field("id").field("customerId", "customer.id").field("totalPrice");
+	private static final String BOOK_IDS = "bookIds";
+
 	private final PurchaseRepository purchaseRepository;
 	private final CustomerRepository customerRepository;
 	private final BookRepository bookRepository;
 	private final PurchaseMapper purchaseMapper;
+	private final EntityManager entityManager;
+	private final Validator validator;
+	private final PricingEngine pricingEngine;
+	private final BookCache bookCache;
+	private final CustomerCache customerCache;
+	private final BookSuggestIndex bookSuggestIndex;
+	private final LoyaltyLedger loyaltyLedger;
+	private final PurchaseMetrics purchaseMetrics;
 
 	@Transactional(readOnly = true)
 	public List<PurchaseDTO> getAllPurchases() {
 		return purchaseMapper.convertToPurchaseDTOList(purchaseRepository.findAll());
 	}
 
+	// Only the requested fields of every purchase, read as a projection of their columns. The
+	// book ids are read from the join table in one more query, and only when asked for
+	@Transactional(readOnly = true)
+	public List<Map<String, Object>> getAllPurchases(String fields) {
+		List<String> selected = FIELDS.parse(fields, BOOK_IDS);
+		if (!selected.contains(BOOK_IDS)) {
+			return FIELDS.select(entityManager, selected);
+		}
+
+		List<String> columns = new ArrayList<>(selected);
+		columns.remove(BOOK_IDS);
+		if (!columns.contains("id")) {
+			columns.add("id");
+		}
+		Map<Long, List<Long>> bookIds = purchaseRepository.findAllBookIds().stream()
+				.collect(Collectors.groupingBy(PurchaseBookId::getPurchaseId,
+						Collectors.mapping(PurchaseBookId::getBookId, Collectors.toList())));
+
+		List<Map<String, Object>> rows = FIELDS.select(entityManager, columns);
+		for (int i = 0; i < rows.size(); i++) {
+			Map<String, Object> row = rows.get(i);
+			Map<String, Object> withBookIds = new LinkedHashMap<>();
+			for (String field : selected) {
+				withBookIds.put(field, field.equals(BOOK_IDS) ? bookIds.getOrDefault((Long) row.get("id"), List.of()) : row.get(field));
+			}
+			rows.set(i, withBookIds);
+		}
+		return rows;
+	}
+
+	// Writes every purchase to the sink without holding the full table in memory
+	@Transactional(readOnly = true)
+	public void streamAllPurchases(Consumer<PurchaseDTO> sink) {
+		EntityStreams.forEach(purchaseRepository.streamAllByOrderByIdAsc(), entityManager, purchaseMapper::convertToPurchaseDTO, sink);
+	}
+
+	@Transactional(readOnly = true)
+	public PageDTO<PurchaseDTO> getPurchasesPage(String after, int limit, String sort) {
+		Keyset.checkLimit(limit);
+		List<Purchase> purchases;
+
+		switch (sort) {
+		case	"id"			: {
+			purchases = after == null
+					? purchaseRepository.findAllByOrderByIdAsc(Keyset.fetchLimit(limit))
+					: purchaseRepository.findByIdGreaterThanOrderByIdAsc(Keyset.afterId(after), Keyset.fetchLimit(limit));
+			return Keyset.page(purchases, limit, purchaseMapper::convertToPurchaseDTOList, purchase -> Keyset.idCursor(purchase.getId()));
+		}
+		case	"totalPrice"	: {
+			if (after == null) {
+				purchases = purchaseRepository.findAllByOrderByTotalPriceAscIdAsc(Keyset.fetchLimit(limit));
+			} else {
+				Keyset.Position position = Keyset.decode(after, sort);
+				purchases = purchaseRepository.findPageAfterTotalPrice(Keyset.decodeDouble(position, after), position.id(), Keyset.fetchLimit(limit));
+			}
+			return Keyset.page(purchases, limit, purchaseMapper::convertToPurchaseDTOList, purchase -> Keyset.encode(sort, purchase.getTotalPrice(), purchase.getId()));
+		}
+
+		default					: {
+			throw new IllegalArgumentException("Invalid sort key: " + sort);
+		}
+		}
+	}
+
 	@Transactional(readOnly = true)
 	public PurchaseDTO getPurchaseById(Long id) {
 		Purchase purchase = purchaseRepository.findById(id)
@@ -43,67 +147,164 @@ public class PurchaseService {
 		return purchaseMapper.convertToPurchaseDTO(purchase);
 	}
 
-	private double calculateBookPrice(Book book, int bookCount) {
-		double bookPrice = book.getPrice();
+	@Transactional
+	public PurchaseDTO createPurchase(PurchaseDTO purchaseDTO) {
+		Customer customer = getCustomer(purchaseDTO.getCustomerId());
+		List<Book> books = validateBooksExist(purchaseDTO.getBookIds());
 
-		switch (book.getType()) {
-		case	OLD_EDITION	: {
-			// 20% discount
-			bookPrice *= 0.8;
+		// Accruing points is an insert into the ledger, only a purchase that can redeem locks the customer
+		PriceBreakdown	price		= pricingEngine.price(books);
+		int				redeemed	= books.isEmpty() ? 0 : loyaltyLedger.claimRedemption(customer.getId(), LOYALTY_THRESHOLD);
+		Purchase		purchase	= purchaseRepository.save(new Purchase(customer, books, price.totalPrice(redeemed > 0), redeemed > 0));
+		recordLoyaltyPoints(customer.getId(), purchase.getId(), redeemed > 0 ? -redeemed : books.size());
+		customerCache.invalidate(customer.getId());
+		bookSuggestIndex.recordSales(purchaseDTO.getBookIds(), 1);
+		purchaseMetrics.recordCreated(List.of(purchase));
 
-			// Additional 5% discount
-			if (bookCount >= 3) {
-				bookPrice *= 0.95;
-			}
-			break;
+		return purchaseMapper.convertToPurchaseDTO(purchase);
+	}
+
+	// Checks that a purchase could be created now, against the cached customers and books
+	@Transactional(readOnly = true)
+	public void validatePurchase(PurchaseDTO purchaseDTO) {
+		customerCache.get(purchaseDTO.getCustomerId(), customerRepository::findById)
+				.orElseThrow(() -> new CustomerNotFoundException("Customer not found with ID: " + purchaseDTO.getCustomerId()));
+		validateBooksExist(purchaseDTO.getBookIds());
+	}
+
+	@Transactional
+	public PurchaseBatchResultDTO createPurchases(List<PurchaseDTO> purchaseDTOs, boolean atomic) {
+		if (purchaseDTOs.isEmpty() || purchaseDTOs.size() > MAX_BATCH_SIZE) {
+			throw new IllegalArgumentException("Batch must contain between 1 and " + MAX_BATCH_SIZE + " purchases");
 		}
-		case	REGULAR		: {
-			// 10% discount
-			if (bookCount >= 3) {
-				bookPrice *= 0.9;
+
+		// Resolve every referenced customer and book with one query each. The customers are locked
+		// because the batch decides their redemptions in memory, in submission order
+		Map<Long, Customer>	customers	= customerRepository.findByIdInOrderByIdAsc(purchaseDTOs.stream()
+				.filter(Objects::nonNull).map(PurchaseDTO::getCustomerId).filter(Objects::nonNull).collect(Collectors.toSet()))
+				.stream().collect(Collectors.toMap(Customer::getId, Function.identity()));
+		Map<Long, Book>		books		= bookCache.getAll(purchaseDTOs.stream()
+				.filter(Objects::nonNull).map(PurchaseDTO::getBookIds).filter(Objects::nonNull).flatMap(List::stream).filter(Objects::nonNull)
+				.collect(Collectors.toSet()), bookRepository::findAllById);
+
+		// Validate every item before touching any customer
+		List<PurchaseBatchItemDTO>	items	= new ArrayList<>(purchaseDTOs.size());
+		int							failed	= 0;
+		for (int i = 0; i < purchaseDTOs.size(); i++) {
+			String error = validateBatchItem(purchaseDTOs.get(i), customers, books);
+			items.add(new PurchaseBatchItemDTO(i, error == null ? Status.CREATED : Status.FAILED, null, error));
+			if (error != null) {
+				failed++;
 			}
-			break;
 		}
-		case	NEW_RELEASE	: {
-			// No discount applied
-			break;
+
+		if (atomic && failed > 0) {
+			items.stream()
+			.filter(item -> item.getStatus() == Status.CREATED)
+			.forEach(item -> {
+				item.setStatus(Status.NOT_CREATED);
+				item.setMessage("Batch rejected because other purchases failed");
+			});
+			return new PurchaseBatchResultDTO(0, failed, items);
 		}
 
-		default				: {
-			throw new InvalidBookTypeException("Unknown book type: " + book.getType());
+		// Price in memory, in submission order, so loyalty points carry over between purchases of the same customer
+		Map<Long, Integer>	balances		= loyaltyLedger.balances(customers.keySet());
+		List<Purchase>		purchases		= new ArrayList<>(purchaseDTOs.size());
+		int[]				loyaltyPoints	= new int[purchaseDTOs.size()];
+		List<Long>			soldBookIds		= new ArrayList<>();
+		for (PurchaseBatchItemDTO item : items) {
+			if (item.getStatus() == Status.CREATED) {
+				PurchaseDTO purchaseDTO = purchaseDTOs.get(item.getIndex());
+				List<Book> purchaseBooks = purchaseDTO.getBookIds().stream().map(books::get).collect(Collectors.toList());
+				Long		customerId	= purchaseDTO.getCustomerId();
+				Purchase	purchase	= priceNewPurchase(customers.get(customerId), purchaseBooks, balances.get(customerId));
+				int			points		= purchase.isLoyaltyPointsUsed() ? -balances.get(customerId) : purchaseBooks.size();
+				balances.merge(customerId, points, Integer::sum);
+				loyaltyPoints[item.getIndex()] = points;
+				purchases.add(purchase);
+				soldBookIds.addAll(purchaseDTO.getBookIds());
+			} else {
+				purchases.add(null);
+			}
 		}
+		customers.keySet().forEach(customerCache::invalidate);
+		bookSuggestIndex.recordSales(soldBookIds, 1);
+		purchaseMetrics.recordCreated(purchases.stream().filter(Objects::nonNull).toList());
+
+		// Write in chunks, each purchase with its loyalty ledger entry
+		for (int from = 0; from < purchases.size(); from += BATCH_CHUNK_SIZE) {
+			int to = Math.min(from + BATCH_CHUNK_SIZE, purchases.size());
+			for (int i = from; i < to; i++) {
+				Purchase purchase = purchases.get(i);
+				if (purchase != null) {
+					entityManager.persist(purchase);
+					recordLoyaltyPoints(purchase.getCustomer().getId(), purchase.getId(), loyaltyPoints[i]);
+				}
+			}
+			entityManager.flush();
+			for (int i = from; i < to; i++) {
+				if (purchases.get(i) != null) {
+					items.get(i).setPurchase(purchaseMapper.convertToPurchaseDTO(purchases.get(i)));
+				}
+			}
+			entityManager.clear();
 		}
 
-		return bookPrice;
+		return new PurchaseBatchResultDTO(purchaseDTOs.size() - failed, failed, items);
 	}
 
-	@Transactional
-	public PurchaseDTO createPurchase(PurchaseDTO purchaseDTO) {
-		Customer customer = getCustomer(purchaseDTO.getCustomerId());
-		List<Book> books = validateBooksExist(purchaseDTO.getBookIds());
+	private String validateBatchItem(PurchaseDTO purchaseDTO, Map<Long, Customer> customers, Map<Long, Book> books) {
+		if (purchaseDTO == null) {
+			return "Purchase cannot be null";
+		}
+		Set<ConstraintViolation<PurchaseDTO>> violations = validator.validate(purchaseDTO);
+		if (!violations.isEmpty()) {
+			return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+		}
+		if (!customers.containsKey(purchaseDTO.getCustomerId())) {
+			return "Customer not found with ID: " + purchaseDTO.getCustomerId();
+		}
+		// Same rule as validateBooksExist: every ID must resolve to a distinct book
+		List<Long> bookIds = purchaseDTO.getBookIds();
+		if (bookIds.stream().anyMatch(id -> id == null || !books.containsKey(id)) || bookIds.stream().distinct().count() != bookIds.size()) {
+			return "Some books not found. Please check book IDs.";
+		}
+		return null;
+	}
 
-		// Calculate total price
-		int		bookCount			= books.size();
-		double	totalPrice			= books.stream().mapToDouble(book -> calculateBookPrice(book, bookCount)).sum();
-
-		// Apply loyalty points if applicable
-		boolean	loyaltyPointsUsed	= false;
-		if (customer.getLoyaltyPoints() >= 10) {
-			totalPrice -= books.stream()
-					.filter(book -> book.getType() != BookType.NEW_RELEASE)
-					.mapToDouble(book -> calculateBookPrice(book, bookCount))
-					.min()
-					.orElse(0.0);
-			customer.setLoyaltyPoints(0);
-			loyaltyPointsUsed = true;
+	// Negative points are a redemption of that many points
+	private void recordLoyaltyPoints(Long customerId, Long purchaseId, int points) {
+		if (points < 0) {
+			loyaltyLedger.redeem(customerId, purchaseId, -points);
 		} else {
-			customer.setLoyaltyPoints(customer.getLoyaltyPoints() + bookCount);
+			loyaltyLedger.accrue(customerId, purchaseId, points);
 		}
-		customerRepository.save(customer);
+	}
 
-		Purchase purchase = new Purchase(customer, books, totalPrice, loyaltyPointsUsed);
+	// Prices a new purchase of a batch against the running loyalty balance of its locked customer
+	private Purchase priceNewPurchase(Customer customer, List<Book> books, int balance) {
+		PriceBreakdown	price				= pricingEngine.price(books);
+		boolean			loyaltyPointsUsed	= !books.isEmpty() && balance >= LOYALTY_THRESHOLD;
+		return new Purchase(customer, books, price.totalPrice(loyaltyPointsUsed), loyaltyPointsUsed);
+	}
 
-		return purchaseMapper.convertToPurchaseDTO(purchaseRepository.save(purchase));
+	// Prices a purchase as createPurchase would, without changing or saving anything
+	@Transactional(readOnly = true)
+	public PurchaseQuoteDTO quotePurchase(PurchaseDTO purchaseDTO) {
+		Customer		customer		= customerCache.get(purchaseDTO.getCustomerId(), customerRepository::findById)
+				.orElseThrow(() -> new CustomerNotFoundException("Customer not found with ID: " + purchaseDTO.getCustomerId()));
+		List<Book>		books			= validateBooksExist(purchaseDTO.getBookIds());
+
+		PriceBreakdown	price			= pricingEngine.price(books);
+		boolean			loyaltyApplied	= !books.isEmpty() && customer.getLoyaltyPoints() >= LOYALTY_THRESHOLD;
+
+		return new PurchaseQuoteDTO(purchaseDTO.getCustomerId(), purchaseDTO.getBookIds(),
+				price.listPrice(),
+				price.listPrice() - price.discountedPrice(),
+				loyaltyApplied ? price.loyaltyDiscount() : 0.0,
+				loyaltyApplied,
+				price.totalPrice(loyaltyApplied));
 	}
 
 	@Transactional
@@ -113,41 +314,49 @@ public class PurchaseService {
 		List<Book> books = validateBooksExist(purchaseDTO.getBookIds());
 
 		// Calculate new total price
-		int		bookCount			= books.size();
-		double	totalPrice			= books.stream().mapToDouble(book -> calculateBookPrice(book, bookCount)).sum();
+		PriceBreakdown	price				= pricingEngine.price(books);
 
 		// Handle loyalty points
-		boolean	loyaltyPointsUsed	= purchase.isLoyaltyPointsUsed();
-		if (loyaltyPointsUsed) {
-			totalPrice -= books.stream()
-					.filter(book -> book.getType() != BookType.NEW_RELEASE)
-					.mapToDouble(book -> calculateBookPrice(book, bookCount))
-					.min()
-					.orElse(0.0);
-		} else {
-			customer.setLoyaltyPoints(customer.getLoyaltyPoints() + bookCount);
-			customerRepository.save(customer);
+		boolean			loyaltyPointsUsed	= purchase.isLoyaltyPointsUsed();
+		if (!loyaltyPointsUsed) {
+			loyaltyLedger.reaccrue(customer.getId(), purchase.getId(), books.size());
+			customerCache.invalidate(customer.getId());
 		}
 
-		purchase.setTotalPrice(totalPrice);
+		bookSuggestIndex.recordSales(bookIdsOf(purchase), -1);
+		bookSuggestIndex.recordSales(purchaseDTO.getBookIds(), 1);
+
+		purchase.setTotalPrice(price.totalPrice(loyaltyPointsUsed));
 		purchase.setBooks(books);
 
 		return purchaseMapper.convertToPurchaseDTO(purchaseRepository.save(purchase));
 	}
 
+	@Transactional
 	public boolean deletePurchase(Long id) {
 		Purchase purchase = getPurchase(id);
 		purchaseRepository.delete(purchase);
+		loyaltyLedger.reverse(purchase.getCustomer().getId(), id);
+		customerCache.invalidate(purchase.getCustomer().getId());
+		bookSuggestIndex.recordSales(bookIdsOf(purchase), -1);
 		return true;
 	}
 
+	private static List<Long> bookIdsOf(Purchase purchase) {
+		return purchase.getBooks().stream().map(Book::getId).collect(Collectors.toList());
+	}
+
 
 	private List<Book> validateBooksExist(List<Long> bookIds) {
-		List<Book> books = bookRepository.findAllById(bookIds);
+		if (bookIds.stream().anyMatch(Objects::isNull)) {
+			throw new BookNotFoundException("Some books not found. Please check book IDs.");
+		}
+		// Every ID must resolve to a distinct book
+		Map<Long, Book> books = bookCache.getAll(bookIds, bookRepository::findAllById);
 		if (books.size() != bookIds.size()) {
 			throw new BookNotFoundException("Some books not found. Please check book IDs.");
 		}
-		return books;
+		return bookIds.stream().map(books::get).collect(Collectors.toList());
 	}
 
 	private Customer getCustomer(Long customerId) {
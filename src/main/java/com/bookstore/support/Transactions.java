@@ -0,0 +1,45 @@
+package com.bookstore.support;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects of a write to the end of the current transaction.
+ *
+ * Caches, indexes, counters and versions that mirror the database must not show a
+ * change that is then rolled back. Outside a transaction there is nothing to wait
+ * for, so the change runs at once.
+ */
+public final class Transactions {
+
+	private Transactions() {
+	}
+
+	// Runs the change once the current transaction has committed, and never if it rolls back
+	public static void afterCommit(Runnable change) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					change.run();
+				}
+			});
+		} else {
+			change.run();
+		}
+	}
+
+	// Runs the change once the current transaction has completed, whether it committed or rolled back
+	public static void afterCompletion(Runnable change) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					change.run();
+				}
+			});
+		} else {
+			change.run();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.bookstore.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+
+class EntityCacheTest {
+
+	private final BookCache bookCache = new BookCache(100, Duration.ofMinutes(10));
+
+	private final Book before	= new Book(1L, "The Hobbit", "J.R.R. Tolkien", 20.0, BookType.REGULAR, 0L);
+	private final Book after	= new Book(1L, "The Hobbit", "J.R.R. Tolkien", 25.0, BookType.REGULAR, 1L);
+
+	// ===========================
+	// Test get(Long, Function)
+	// ===========================
+	@Test
+	public void testGet_CachesLoadedEntity() {
+		bookCache.get(1L, id -> Optional.of(before));
+
+		assertEquals(20.0, bookCache.get(1L, id -> Optional.of(after)).orElseThrow().getPrice());
+	}
+
+	@Test
+	public void testGet_LoadOvertakenByInvalidationIsNotCached() throws Exception {
+		CountDownLatch loading	= new CountDownLatch(1);
+		CountDownLatch changed	= new CountDownLatch(1);
+
+		// A miss reads the row before the change commits and is held until the change invalidated it
+		CompletableFuture<Optional<Book>> stale = CompletableFuture.supplyAsync(() -> bookCache.get(1L, id -> {
+			loading.countDown();
+			await(changed);
+			return Optional.of(before);
+		}));
+		await(loading);
+		bookCache.invalidate(1L);
+		changed.countDown();
+
+		assertEquals(20.0, stale.get(5, TimeUnit.SECONDS).orElseThrow().getPrice());
+		assertEquals(25.0, bookCache.get(1L, id -> Optional.of(after)).orElseThrow().getPrice());
+	}
+
+	// ===========================
+	// Test getAll(Collection, Function)
+	// ===========================
+	@Test
+	public void testGetAll_LoadOvertakenByInvalidationIsNotCached() throws Exception {
+		Book			other		= new Book(2L, "Dune", "Frank Herbert", 19.99, BookType.NEW_RELEASE, 0L);
+		CountDownLatch	loading		= new CountDownLatch(1);
+		CountDownLatch	changed		= new CountDownLatch(1);
+
+		CompletableFuture<Map<Long, Book>> stale = CompletableFuture.supplyAsync(() -> bookCache.getAll(List.of(1L, 2L), ids -> {
+			loading.countDown();
+			await(changed);
+			return List.of(before, other);
+		}));
+		await(loading);
+		bookCache.invalidate(1L);
+		changed.countDown();
+
+		assertEquals(2, stale.get(5, TimeUnit.SECONDS).size());
+		Map<Long, Book> books = bookCache.getAll(List.of(1L, 2L), ids -> {
+			assertEquals(List.of(1L), ids);
+			return List.of(after);
+		});
+		assertEquals(25.0, books.get(1L).getPrice());
+		assertEquals(19.99, books.get(2L).getPrice());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			if (!latch.await(5, TimeUnit.SECONDS)) {
+				throw new IllegalStateException("Timed out waiting for the other thread");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
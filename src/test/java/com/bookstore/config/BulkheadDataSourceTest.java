@@ -0,0 +1,91 @@
+package com.bookstore.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BulkheadDataSourceTest {
+
+	private DataSource			pool;
+	private BulkheadDataSource	bulkhead;
+
+	@BeforeEach
+	public void setUp() throws SQLException {
+		pool = mock(DataSource.class);
+		given(pool.getConnection()).willAnswer(invocation -> mock(Connection.class));
+		bulkhead = new BulkheadDataSource(pool, 2, Duration.ofMillis(50));
+	}
+
+	// ===========================
+	// Test getConnection()
+	// ===========================
+	@Test
+	public void testGetConnection_FailsFastBeyondPermits() throws SQLException {
+		Connection first = bulkhead.getConnection();
+		bulkhead.getConnection();
+
+		assertThrows(SQLTransientConnectionException.class, bulkhead::getConnection);
+
+		// Closing gives the permit back, closing twice does not give back two
+		first.close();
+		first.close();
+		assertEquals(1, bulkhead.availablePermits());
+		bulkhead.getConnection();
+		assertEquals(0, bulkhead.availablePermits());
+	}
+
+	@Test
+	public void testGetConnection_ClosesUnderlyingConnection() throws SQLException {
+		Connection	connection	= mock(Connection.class);
+		given(pool.getConnection()).willReturn(connection);
+
+		bulkhead.getConnection().close();
+
+		verify(connection).close();
+		assertEquals(2, bulkhead.availablePermits());
+	}
+
+	@Test
+	public void testGetConnection_PoolFailureReleasesPermit() throws SQLException {
+		given(pool.getConnection()).willThrow(new SQLTransientConnectionException("Pool timeout"));
+
+		assertThrows(SQLTransientConnectionException.class, bulkhead::getConnection);
+		assertEquals(2, bulkhead.availablePermits());
+	}
+
+	@Test
+	public void testGetConnection_WaiterGetsReleasedPermit() throws Exception {
+		Connection first = bulkhead.getConnection();
+		bulkhead.getConnection();
+		BulkheadDataSource patient = new BulkheadDataSource(pool, 1, Duration.ofSeconds(5));
+		Connection held = patient.getConnection();
+
+		// A waiter blocks until the holder closes its connection
+		Thread closer = new Thread(() -> {
+			try {
+				Thread.sleep(50);
+				held.close();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		closer.start();
+		patient.getConnection();
+		closer.join();
+
+		first.close();
+		assertEquals(1, bulkhead.availablePermits());
+	}
+}
@@ -0,0 +1,48 @@
+package com.bookstore.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest
+class SequenceMigrationTest {
+
+	private static final long LEGACY_ID = 1_000_000L;
+
+	@Autowired
+	private SequenceMigration sequenceMigration;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	public void cleanup() {
+		jdbcTemplate.update("DELETE FROM books WHERE id = ?", LEGACY_ID);
+	}
+
+	@Test
+	public void testMigrate_MovesSequencePastExistingIds() {
+		// A row written by the old IDENTITY column, far ahead of the sequence
+		jdbcTemplate.update("INSERT INTO books (id, title, author, price, type) VALUES (?, 'Legacy', 'Unknown', 10, 'REGULAR')", LEGACY_ID);
+
+		sequenceMigration.migrate();
+
+		// The lowest id of the next pooled block must be above every existing id
+		long nextValue = nextValue();
+		assertTrue(nextValue - SequenceMigration.ALLOCATION_SIZE + 1 > LEGACY_ID);
+
+		// Running again is a no-op
+		sequenceMigration.migrate();
+		assertEquals(nextValue, nextValue());
+	}
+
+	private long nextValue() {
+		return jdbcTemplate.queryForObject(
+				"SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'BOOKS_SEQ'", Long.class);
+	}
+}
@@ -0,0 +1,93 @@
+package com.bookstore.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SqlAccountingDataSourceTest {
+
+	private static final String INSERT = "insert into item (id) values (?)";
+
+	private SqlAccountingDataSource	dataSource;
+	private Connection				connection;
+
+	@BeforeEach
+	public void setUp() throws SQLException {
+		JdbcDataSource h2 = new JdbcDataSource();
+		h2.setURL("jdbc:h2:mem:sql-accounting;DB_CLOSE_DELAY=-1");
+		dataSource = new SqlAccountingDataSource(h2);
+		connection = dataSource.getConnection();
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("create table if not exists item (id bigint primary key)");
+			statement.execute("delete from item");
+		}
+	}
+
+	@AfterEach
+	public void tearDown() throws SQLException {
+		SqlStatistics.stop();
+		connection.close();
+	}
+
+	// ===========================
+	// Test statement accounting
+	// ===========================
+	@Test
+	public void testExecute_CountsEveryExecutionBySql() throws SQLException {
+		SqlStatistics statistics = SqlStatistics.start();
+
+		try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+			for (long id = 1; id <= 3; id++) {
+				insert.setLong(1, id);
+				insert.executeUpdate();
+			}
+		}
+		try (Statement statement = connection.createStatement()) {
+			statement.executeQuery("select count(*) from item").close();
+		}
+
+		assertEquals(4, statistics.count());
+		assertTrue(statistics.time().toNanos() > 0);
+		assertEquals(Map.of(INSERT, 3), statistics.repeated(2));
+	}
+
+	@Test
+	public void testExecuteBatch_CountsOneStatement() throws SQLException {
+		SqlStatistics statistics = SqlStatistics.start();
+
+		try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+			for (long id = 1; id <= 50; id++) {
+				insert.setLong(1, id);
+				insert.addBatch();
+			}
+			insert.executeBatch();
+		}
+
+		assertEquals(1, statistics.count());
+	}
+
+	@Test
+	public void testExecute_NotRecordedWithoutStatistics() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.executeQuery("select count(*) from item").close();
+		}
+
+		SqlStatistics statistics = SqlStatistics.start();
+		SqlStatistics.stop();
+		try (Statement statement = connection.createStatement()) {
+			statement.executeQuery("select count(*) from item").close();
+		}
+
+		assertEquals(0, statistics.count());
+	}
+}
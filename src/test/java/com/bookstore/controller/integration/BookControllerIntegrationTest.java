@@ -1,10 +1,14 @@
 package com.bookstore.controller.integration;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -13,13 +17,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import com.bookstore.controller.NdjsonWriter;
 import com.bookstore.dto.BookDTO;
 import com.bookstore.model.Book;
 import com.bookstore.model.BookType;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @SpringBootTest
@@ -34,6 +41,9 @@ class BookControllerIntegrationTest {
 	@Autowired
 	private BookRepository bookRepository;
 
+	@Autowired
+	private BookService bookService;
+
 	private MockMvc mockMvc;
 
 	private Book book1, book2;
@@ -47,6 +57,9 @@ class BookControllerIntegrationTest {
 		book1 = bookRepository.save(new Book(null, "Dungeons & Dragons 5th edition", "Rodney Thompson", 39.99, BookType.REGULAR));
 		book2 = bookRepository.save(new Book(null, "The Hobbit", "J.R.R. Tolkien", 25.99, BookType.REGULAR));
 		bookRepository.save(new Book(null, "Harry Potter and the Sorcerer's Stone", "J.K. Rowling", 29.99, BookType.REGULAR));
+
+		// The books above were written around the service, so the search index must catch up
+		bookService.rebuildSearchIndex();
 	}
 
 	// ===========================
@@ -70,6 +83,175 @@ class BookControllerIntegrationTest {
 		.andExpect(jsonPath("$").isEmpty());
 	}
 
+	// ===========================
+	// streamAllBooks()
+	// ===========================
+
+	@Test
+	public void testStreamAllBooks_WritesOneLinePerBook() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/books").accept(NdjsonWriter.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String body = mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(NdjsonWriter.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString();
+
+		String[] lines = body.split("\n");
+		assertEquals(3, lines.length);
+		assertEquals(book1.getTitle(), objectMapper.readValue(lines[0], BookDTO.class).getTitle());
+	}
+
+	@Test
+	public void testStreamAllBooks_EmptyDatabase() throws Exception {
+		bookRepository.deleteAll();
+
+		MvcResult result = mockMvc.perform(get("/api/books").accept(NdjsonWriter.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+		.andExpect(status().isOk())
+		.andExpect(content().string(""));
+	}
+
+	// ===========================
+	// getBooksPage(String, int, String)
+	// ===========================
+
+	@Test
+	public void testGetBooksPage_FirstPageHasNextCursor() throws Exception {
+		mockMvc.perform(get("/api/books").param("limit", "2"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.items.length()").value(2))
+		.andExpect(jsonPath("$.items[0].id").value(book1.getId()))
+		.andExpect(jsonPath("$.nextCursor").value(String.valueOf(book2.getId())));
+	}
+
+	@Test
+	public void testGetBooksPage_LastPageHasNoCursor() throws Exception {
+		mockMvc.perform(get("/api/books").param("after", String.valueOf(book2.getId())).param("limit", "2"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.items.length()").value(1))
+		.andExpect(jsonPath("$.nextCursor").doesNotExist());
+	}
+
+	@Test
+	public void testGetBooksPage_SortedByTitle() throws Exception {
+		String body = mockMvc.perform(get("/api/books").param("limit", "1").param("sort", "title"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items[0].title").value("Dungeons & Dragons 5th edition"))
+				.andReturn().getResponse().getContentAsString();
+		String cursor = objectMapper.readTree(body).get("nextCursor").asText();
+
+		mockMvc.perform(get("/api/books").param("after", cursor).param("limit", "1").param("sort", "title"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.items[0].title").value("Harry Potter and the Sorcerer's Stone"));
+	}
+
+	@Test
+	public void testGetBooksPage_InvalidLimit() throws Exception {
+		mockMvc.perform(get("/api/books").param("limit", "0"))
+		.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testGetBooksPage_InvalidSort() throws Exception {
+		mockMvc.perform(get("/api/books").param("limit", "2").param("sort", "publisher"))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value("Invalid sort key: publisher"));
+	}
+
+	@Test
+	public void testGetBooksPage_InvalidCursor() throws Exception {
+		mockMvc.perform(get("/api/books").param("after", "abc").param("limit", "2").param("sort", "price"))
+		.andExpect(status().isBadRequest());
+	}
+
+	// ===========================
+	// searchBooks(String, int)
+	// ===========================
+
+	@Test
+	public void testSearchBooks_MatchesTitleAndAuthorWords() throws Exception {
+		mockMvc.perform(get("/api/books/search").param("q", "hobbit TOLKIEN"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(1))
+		.andExpect(jsonPath("$[0].id").value(book2.getId()));
+	}
+
+	@Test
+	public void testSearchBooks_RanksBestMatchFirst() throws Exception {
+		mockMvc.perform(get("/api/books/search").param("q", "dragons harry"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(2));
+
+		mockMvc.perform(get("/api/books/search").param("q", "dungeons dragons harry"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$[0].id").value(book1.getId()));
+	}
+
+	@Test
+	public void testSearchBooks_FollowsWrites() throws Exception {
+		BookDTO newBook = new BookDTO(null, "The Silmarillion", "J.R.R. Tolkien", 49.99, BookType.REGULAR);
+		mockMvc.perform(post("/api/books")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(newBook)))
+		.andExpect(status().isCreated());
+
+		mockMvc.perform(delete("/api/books/" + book2.getId()))
+		.andExpect(status().isNoContent());
+
+		mockMvc.perform(get("/api/books/search").param("q", "tolkien"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(1))
+		.andExpect(jsonPath("$[0].title").value("The Silmarillion"));
+	}
+
+	@Test
+	public void testSearchBooks_EmptyQuery() throws Exception {
+		mockMvc.perform(get("/api/books/search").param("q", " ?! "))
+		.andExpect(status().isBadRequest());
+	}
+
+	// ===========================
+	// suggestBooks(String, int)
+	// ===========================
+
+	@Test
+	public void testSuggestBooks_TitlesAndAuthorsByPrefix() throws Exception {
+		mockMvc.perform(get("/api/books/suggest").param("prefix", "the h"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(1))
+		.andExpect(jsonPath("$[0].text").value("The Hobbit"))
+		.andExpect(jsonPath("$[0].popularity").value(0));
+
+		mockMvc.perform(get("/api/books/suggest").param("prefix", "j"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(2));
+	}
+
+	@Test
+	public void testSuggestBooks_FollowsWrites() throws Exception {
+		BookDTO updatedBookDTO = new BookDTO(book2.getId(), "The Fellowship of the Ring", "J.R.R. Tolkien", 25.99, BookType.REGULAR);
+		mockMvc.perform(put("/api/books/" + book2.getId())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(updatedBookDTO)))
+		.andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/books/suggest").param("prefix", "the"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(1))
+		.andExpect(jsonPath("$[0].text").value("The Fellowship of the Ring"));
+	}
+
+	@Test
+	public void testSuggestBooks_InvalidLimit() throws Exception {
+		mockMvc.perform(get("/api/books/suggest").param("prefix", "the").param("limit", "11"))
+		.andExpect(status().isBadRequest());
+	}
+
 	// ===========================
 	// getBookById(Long)
 	// ===========================
@@ -0,0 +1,273 @@
+package com.bookstore.controller.integration;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.exception.BookImportFailedException;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookImport;
+import com.bookstore.model.BookType;
+import com.bookstore.repository.BookImportRepository;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.bookstore.service.BookImporter;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:bookimport;LOCK_TIMEOUT=500",
+		"bookstore.books.import.chunk-size=2",
+		"bookstore.loyalty.compaction.enabled=false"
+})
+@AutoConfigureMockMvc
+class BookImportIntegrationTest {
+
+	private static final String CSV = String.join("\n",
+			"type,title,author,price",
+			"REGULAR,The Hobbit,J.R.R. Tolkien,20.0",
+			"NEW_RELEASE,\"Dune, Part One\",\"Frank \"\"F.\"\" Herbert\",19.99",
+			"OLD_EDITION,Emma,Jane Austen,9.5",
+			"REGULAR,Ulysses,James Joyce,15",
+			"NEW_RELEASE,Beloved,Toni Morrison,12.5",
+			"");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	@Autowired
+	private BookImportRepository bookImportRepository;
+
+	@Autowired
+	private BookImporter bookImporter;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	public void setup() {
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+		bookImportRepository.deleteAll();
+	}
+
+	@Test
+	public void testImportCsv() throws Exception {
+		importCsv("feed-1", CSV)
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.importId").value("feed-1"))
+		.andExpect(jsonPath("$.accepted").value(5))
+		.andExpect(jsonPath("$.rejected").value(0))
+		.andExpect(jsonPath("$.skipped").value(0));
+
+		List<Book> books = bookRepository.findAll();
+		assertEquals(5, books.size());
+		Book dune = books.stream().filter(book -> book.getType() == BookType.NEW_RELEASE && book.getPrice() == 19.99).findFirst().orElseThrow();
+		assertEquals("Dune, Part One", dune.getTitle());
+		assertEquals("Frank \"F.\" Herbert", dune.getAuthor());
+
+		// Imported books are searchable like created ones
+		mockMvc.perform(get("/api/books/search").param("q", "morrison"))
+		.andExpect(jsonPath("$[0].title").value("Beloved"));
+	}
+
+	@Test
+	public void testImportCsv_RejectsInvalidRowsWithLineNumbers() throws Exception {
+		String csv = String.join("\n",
+				"title,author,price,type,isbn",
+				"The Hobbit,J.R.R. Tolkien,20.0,REGULAR,1",
+				"Dune,Frank Herbert,abc,REGULAR,2",
+				"",
+				"\"Two",
+				"lines\",Someone,0.5,REGULAR,3",
+				"Emma,Jane Austen,9.5,PAPERBACK,4",
+				"Ulysses,James Joyce,15",
+				"Beloved,Toni Morrison,12.5,NEW_RELEASE,5");
+
+		importCsv("feed-2", csv)
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.accepted").value(2))
+		.andExpect(jsonPath("$.rejected").value(4))
+		.andExpect(jsonPath("$.errors[0].line").value(3))
+		.andExpect(jsonPath("$.errors[0].message").value("Invalid price: abc"))
+		.andExpect(jsonPath("$.errors[1].line").value(5))
+		.andExpect(jsonPath("$.errors[1].message").value("Price must be at least 1"))
+		.andExpect(jsonPath("$.errors[2].line").value(7))
+		.andExpect(jsonPath("$.errors[2].message").value("Invalid book type: PAPERBACK"))
+		.andExpect(jsonPath("$.errors[3].line").value(8))
+		.andExpect(jsonPath("$.errors[3].message").value("Expected 5 fields, found 3"));
+
+		assertEquals(2, bookRepository.count());
+	}
+
+	@Test
+	public void testImportCsv_MissingColumns() throws Exception {
+		importCsv("feed-3", "title,author,price\nThe Hobbit,J.R.R. Tolkien,20.0\n")
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value("CSV header must name the columns title, author, price and type"));
+	}
+
+	@Test
+	public void testImportNdjson() throws Exception {
+		String ndjson = String.join("\n",
+				"{\"title\":\"The Hobbit\",\"author\":\"J.R.R. Tolkien\",\"price\":20.0,\"type\":\"REGULAR\"}",
+				"{\"title\":\"Dune\",\"author\":\"Frank Herbert\",\"price\":19.99,\"type\":\"NEW_RELEASE\"}",
+				"{\"title\":\"Emma\",",
+				"{\"author\":\"James Joyce\",\"price\":15,\"type\":\"REGULAR\"}");
+
+		mockMvc.perform(post("/api/books/import").param("importId", "feed-4")
+				.contentType("application/x-ndjson").content(ndjson))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.accepted").value(2))
+		.andExpect(jsonPath("$.rejected").value(2))
+		.andExpect(jsonPath("$.errors[0].line").value(3))
+		.andExpect(jsonPath("$.errors[0].message").value(containsString("Invalid JSON")))
+		.andExpect(jsonPath("$.errors[1].line").value(4))
+		.andExpect(jsonPath("$.errors[1].message").value("Title cannot be null"));
+	}
+
+	@Test
+	public void testImportNdjson_IgnoresIds() throws Exception {
+		Book existing = bookRepository.save(new Book(null, "Emma", "Jane Austen", 9.5, BookType.OLD_EDITION));
+
+		// As streamed by GET /api/books, one row carrying the id of a book that exists
+		String ndjson = String.join("\n",
+				"{\"id\":" + existing.getId() + ",\"title\":\"The Hobbit\",\"author\":\"J.R.R. Tolkien\",\"price\":20.0,\"type\":\"REGULAR\",\"version\":0}",
+				"{\"id\":999999,\"title\":\"Dune\",\"author\":\"Frank Herbert\",\"price\":19.99,\"type\":\"NEW_RELEASE\",\"version\":3}");
+
+		mockMvc.perform(post("/api/books/import").param("importId", "feed-7")
+				.contentType("application/x-ndjson").content(ndjson))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.accepted").value(2))
+		.andExpect(jsonPath("$.rejected").value(0));
+
+		assertEquals(3, bookRepository.count());
+		assertEquals("Emma", bookRepository.findById(existing.getId()).orElseThrow().getTitle());
+		assertEquals(0, bookRepository.findAll().stream().filter(book -> book.getTitle().equals("Dune")).findFirst().orElseThrow().getVersion());
+	}
+
+	@Test
+	public void testImportCsv_ResumesAfterBrokenOffUpload() throws Exception {
+		// The first upload ended after three rows, two chunks were committed
+		importCsv("feed-5", CSV.substring(0, CSV.indexOf("REGULAR,Ulysses")))
+		.andExpect(jsonPath("$.accepted").value(3));
+
+		importCsv("feed-5", CSV)
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.accepted").value(2))
+		.andExpect(jsonPath("$.skipped").value(3));
+
+		// Uploading a finished import again changes nothing
+		importCsv("feed-5", CSV)
+		.andExpect(jsonPath("$.accepted").value(0))
+		.andExpect(jsonPath("$.skipped").value(5));
+
+		assertEquals(5, bookRepository.count());
+		BookImport progress = bookImportRepository.findById("feed-5").orElseThrow();
+		assertEquals(6, progress.getCommittedLines());
+		assertEquals(5, progress.getAccepted());
+	}
+
+	@Test
+	public void testImportCsv_RejectsOverlongTitle() throws Exception {
+		importCsv("feed-6", CSV.replace("Emma", "E".repeat(256)))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.accepted").value(4))
+		.andExpect(jsonPath("$.rejected").value(1))
+		.andExpect(jsonPath("$.errors[0].line").value(4))
+		.andExpect(jsonPath("$.errors[0].message").value("Title must be at most 255 characters"));
+		assertEquals(4, bookRepository.count());
+	}
+
+	@Test
+	public void testImportCsv_ResumesAfterFailedChunk() throws Exception {
+		// Another transaction holds the import's progress from line 4 on, so the second chunk times out waiting for it
+		int						split	= CSV.indexOf("REGULAR,Ulysses");
+		CountDownLatch			locked	= new CountDownLatch(1);
+		CountDownLatch			release	= new CountDownLatch(1);
+		CompletableFuture<?>	holder	= new CompletableFuture<>();
+		InputStream				lock	= new InputStream() {
+			@Override
+			public int read() {
+				if (!holder.isDone()) {
+					CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+						bookImportRepository.findForUpdateById("feed-8").orElseThrow();
+						locked.countDown();
+						await(release);
+					})).whenComplete((result, e) -> holder.complete(null));
+					await(locked);
+				}
+				return -1;
+			}
+		};
+		InputStream upload = new SequenceInputStream(Collections.enumeration(List.of(
+				new ByteArrayInputStream(CSV.substring(0, split).getBytes(StandardCharsets.UTF_8)), lock,
+				new ByteArrayInputStream(CSV.substring(split).getBytes(StandardCharsets.UTF_8)))));
+
+		BookImportFailedException e = assertThrows(BookImportFailedException.class, () -> bookImporter.importCsv("feed-8", upload));
+		assertTrue(e.getMessage().contains("failed in the chunk ending at line 5"), e.getMessage());
+		release.countDown();
+		holder.get(5, TimeUnit.SECONDS);
+		assertEquals(2, bookRepository.count());
+
+		importCsv("feed-8", CSV)
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.accepted").value(3))
+		.andExpect(jsonPath("$.skipped").value(2));
+		assertEquals(5, bookRepository.count());
+	}
+
+	@Test
+	public void testImport_RequiresImportId() throws Exception {
+		importCsv(" ", CSV)
+		.andExpect(status().isBadRequest());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			if (!latch.await(10, TimeUnit.SECONDS)) {
+				throw new IllegalStateException("Timed out waiting for the other thread");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private ResultActions importCsv(String importId, String csv) throws Exception {
+		return mockMvc.perform(post("/api/books/import").param("importId", importId).contentType("text/csv").content(csv));
+	}
+}
@@ -0,0 +1,189 @@
+package com.bookstore.controller.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bookstore.export.Column;
+import com.bookstore.export.ColumnarReader;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.model.Purchase;
+import com.bookstore.reactive.ReactiveCatalogRepository;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.bookstore.service.LoyaltyLedger;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = {
+		"bookstore.export.row-group-size=2",
+		"bookstore.loyalty.compaction.enabled=false"
+})
+@AutoConfigureMockMvc
+class ColumnarExportIntegrationTest {
+
+	@TempDir
+	private static Path directory;
+
+	@DynamicPropertySource
+	static void exportDirectory(DynamicPropertyRegistry registry) {
+		registry.add("bookstore.export.directory", () -> directory.toString());
+	}
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	@Autowired
+	private LoyaltyLedger loyaltyLedger;
+
+	@Autowired
+	private ReactiveCatalogRepository reactiveCatalogRepository;
+
+	private Book		hobbit;
+	private Book		dune;
+	private Book		towers;
+	private Customer	customer;
+	private Purchase	purchase;
+
+	@BeforeEach
+	public void setup() {
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+
+		hobbit		= bookRepository.save(new Book(null, "The Hobbit", "J.R.R. Tolkien", 20.0, BookType.REGULAR));
+		dune		= bookRepository.save(new Book(null, "Dune", "Frank Herbert", 19.99, BookType.NEW_RELEASE));
+		towers		= bookRepository.save(new Book(null, "The Two Towers", "J.R.R. Tolkien", 15.0, BookType.REGULAR));
+		customer	= customerRepository.save(new Customer(null, "John Doe", 0));
+		purchase	= purchaseRepository.save(new Purchase(customer, new ArrayList<>(List.of(hobbit, dune, towers)), 54.99, false));
+		purchaseRepository.save(new Purchase(customer, new ArrayList<>(List.of(dune)), 0, true));
+	}
+
+	@Test
+	public void testExport() throws Exception {
+		String body = mockMvc.perform(post("/api/exports"))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.tables[0].table").value("books"))
+				.andExpect(jsonPath("$.tables[0].rows").value(3))
+				.andExpect(jsonPath("$.tables[1].rows").value(1))
+				.andExpect(jsonPath("$.tables[2].rows").value(2))
+				.andExpect(jsonPath("$.tables[3].table").value("purchase_books"))
+				.andExpect(jsonPath("$.tables[3].rows").value(4))
+				.andReturn().getResponse().getContentAsString();
+
+		Path run = Path.of(objectMapper.readTree(body).get("directory").asText());
+		assertEquals(directory, run.getParent());
+		for (JsonNode table : objectMapper.readTree(body).get("tables")) {
+			assertEquals(table.get("bytes").asLong(), Files.size(run.resolve(table.get("file").asText())));
+		}
+
+		// Authors and types come back from their dictionaries, across row groups
+		assertEquals(List.of(
+				List.of(hobbit.getId(), "The Hobbit", "J.R.R. Tolkien", 20.0, "REGULAR", 0L),
+				List.of(dune.getId(), "Dune", "Frank Herbert", 19.99, "NEW_RELEASE", 0L),
+				List.of(towers.getId(), "The Two Towers", "J.R.R. Tolkien", 15.0, "REGULAR", 0L)),
+				read(run.resolve("books.bkc")));
+		assertEquals(List.of(List.of(customer.getId(), "John Doe", 0L, 0L)), read(run.resolve("customers.bkc")));
+
+		List<List<Object>> purchases = read(run.resolve("purchases.bkc"));
+		assertEquals(List.of(purchase.getId(), customer.getId(), 54.99, false), purchases.get(0));
+		assertEquals(List.of(customer.getId(), 0.0, true), purchases.get(1).subList(1, 4));
+
+		List<List<Object>> purchaseBooks = read(run.resolve("purchase_books.bkc"));
+		assertEquals(List.of(
+				List.of(purchase.getId(), hobbit.getId()),
+				List.of(purchase.getId(), dune.getId()),
+				List.of(purchase.getId(), towers.getId())),
+				purchaseBooks.subList(0, 3));
+		assertEquals(dune.getId(), purchaseBooks.get(3).get(1));
+
+		try (ColumnarReader reader = ColumnarReader.open(run.resolve("purchase_books.bkc"))) {
+			assertEquals(List.of("purchase_id", "book_id"), reader.columns().stream().map(Column::name).toList());
+			assertEquals(2, reader.rowGroupCount());
+		}
+	}
+
+	@Test
+	public void testExport_EachRunGetsItsOwnDirectory() throws Exception {
+		String first	= mockMvc.perform(post("/api/exports")).andReturn().getResponse().getContentAsString();
+		String second	= mockMvc.perform(post("/api/exports")).andReturn().getResponse().getContentAsString();
+
+		Path firstRun	= Path.of(objectMapper.readTree(first).get("directory").asText());
+		Path secondRun	= Path.of(objectMapper.readTree(second).get("directory").asText());
+		assertFalse(firstRun.equals(secondRun));
+		assertEquals(3, read(firstRun.resolve("books.bkc")).size());
+		try (var runs = Files.list(directory)) {
+			assertFalse(runs.anyMatch(run -> run.getFileName().toString().endsWith(".tmp")));
+		}
+	}
+
+	@Test
+	public void testExport_LoyaltyBalanceAgreesWithTheEntityAndTheReactiveApi() throws Exception {
+		// A snapshot of 9 points, then 2 more in entries not compacted into it yet
+		Customer jane = customerRepository.save(new Customer(null, "Jane Doe", 0));
+		loyaltyLedger.adjust(jane.getId(), 7);
+		loyaltyLedger.adjust(jane.getId(), 2);
+		while (loyaltyLedger.compact(1000) > 0) {
+		}
+		loyaltyLedger.adjust(jane.getId(), 3);
+		loyaltyLedger.adjust(jane.getId(), -1);
+
+		assertEquals(11, loyaltyLedger.balance(jane.getId()));
+		assertEquals(11, reactiveCatalogRepository.findCustomer(jane.getId()).block().getLoyaltyPoints());
+
+		String	body	= mockMvc.perform(post("/api/exports")).andReturn().getResponse().getContentAsString();
+		Path	run		= Path.of(objectMapper.readTree(body).get("directory").asText());
+		assertEquals(List.of(jane.getId(), "Jane Doe", 11L, 0L),
+				read(run.resolve("customers.bkc")).stream().filter(row -> row.get(0).equals(jane.getId())).findFirst().orElseThrow());
+	}
+
+	private static List<List<Object>> read(Path file) throws IOException {
+		List<List<Object>> rows = new ArrayList<>();
+		try (ColumnarReader reader = ColumnarReader.open(file)) {
+			for (int group = 0; group < reader.rowGroupCount(); group++) {
+				ColumnarReader.RowGroup rowGroup = reader.rowGroup(group);
+				for (int row = 0; row < rowGroup.rows(); row++) {
+					List<Object> values = new ArrayList<>();
+					for (int column = 0; column < reader.columns().size(); column++) {
+						values.add(rowGroup.get(column, row));
+					}
+					rows.add(values);
+				}
+			}
+		}
+		return rows;
+	}
+}
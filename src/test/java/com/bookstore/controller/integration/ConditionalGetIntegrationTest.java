@@ -0,0 +1,171 @@
+package com.bookstore.controller.integration;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.bookstore.cache.BookCache;
+import com.bookstore.config.SqlAccountingFilter;
+import com.bookstore.controller.HttpCaching;
+import com.bookstore.dto.BookDTO;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.bookstore.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = {
+		"bookstore.sql.headers.enabled=true",
+		"bookstore.loyalty.compaction.enabled=false"
+})
+@AutoConfigureMockMvc
+class ConditionalGetIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookCache bookCache;
+
+	@Autowired
+	private HttpCaching httpCaching;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private BookDTO book;
+	private Customer customer;
+
+	@BeforeEach
+	public void setup() {
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+
+		// Created through the service, so the book is indexed like any book written through the API
+		book		= bookService.createBook(new BookDTO(null, "The Hobbit", "J.R.R. Tolkien", 20.0, BookType.REGULAR));
+		customer	= customerRepository.save(new Customer(null, "John Doe", 0));
+	}
+
+	@Test
+	public void testGetAllBooks_NotModifiedWithoutSql() throws Exception {
+		String etag = etagOf("/api/books");
+
+		mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+		.andExpect(status().isNotModified())
+		.andExpect(header().string(HttpHeaders.ETAG, etag))
+		.andExpect(header().string(SqlAccountingFilter.COUNT_HEADER, "0"))
+		.andExpect(content().string(""));
+	}
+
+	@Test
+	public void testGetAllBooks_BookUpdateChangesCatalogVersion() throws Exception {
+		String etag = etagOf("/api/books");
+
+		updateBook("The Hobbit, or There and Back Again");
+
+		mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$[0].title").value("The Hobbit, or There and Back Again"));
+		assertNotEquals(etag, etagOf("/api/books"));
+	}
+
+	@Test
+	public void testGetBooksPage_SharesCatalogVersion() throws Exception {
+		String etag = etagOf("/api/books");
+
+		mockMvc.perform(get("/api/books").param("limit", "10").header(HttpHeaders.IF_NONE_MATCH, etag))
+		.andExpect(status().isNotModified());
+	}
+
+	@Test
+	public void testGetBookById_NotModifiedUntilUpdated() throws Exception {
+		String etag = etagOf("/api/books/" + book.getId());
+
+		// Compared with the indexed version, the book is not loaded even when no cache holds it
+		bookCache.invalidateAll();
+		entityManagerFactory.getCache().evictAll();
+		mockMvc.perform(get("/api/books/" + book.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+		.andExpect(status().isNotModified())
+		.andExpect(header().string(SqlAccountingFilter.COUNT_HEADER, "0"));
+
+		updateBook("The Hobbit, or There and Back Again")
+		.andExpect(jsonPath("$.version").value(1));
+
+		mockMvc.perform(get("/api/books/" + book.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+		.andExpect(status().isOk())
+		.andExpect(header().string(HttpHeaders.ETAG, httpCaching.etag("1")))
+		.andExpect(jsonPath("$.title").value("The Hobbit, or There and Back Again"));
+	}
+
+	@Test
+	public void testGetCustomerById_LoyaltyPointsChangeETag() throws Exception {
+		String etag = mockMvc.perform(get("/api/customers/" + customer.getId()))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/customers/" + customer.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+		.andExpect(status().isNotModified());
+
+		// A purchase adds points through the ledger, the customer row is not written
+		mockMvc.perform(post("/api/purchases")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new PurchaseDTO(null, customer.getId(), Arrays.asList(book.getId()), 0))))
+		.andExpect(status().isCreated());
+
+		mockMvc.perform(get("/api/customers/" + customer.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.loyaltyPoints").value(1));
+	}
+
+	private String etagOf(String path) throws Exception {
+		return mockMvc.perform(get(path))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+
+	private ResultActions updateBook(String title) throws Exception {
+		return mockMvc.perform(put("/api/books/" + book.getId())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new BookDTO(null, title, "J.R.R. Tolkien", 20.0, BookType.REGULAR))))
+		.andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,143 @@
+package com.bookstore.controller.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.model.Purchase;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * JSON, CBOR and Smile bodies and gzip compression, through the real server since
+ * compression happens in Tomcat.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "bookstore.loyalty.compaction.enabled=false")
+class ContentNegotiationIntegrationTest {
+
+	private static final int PURCHASES = 100;
+
+	private static final TypeReference<List<PurchaseDTO>> PURCHASE_LIST = new TypeReference<>() {};
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	private Book book;
+
+	@BeforeEach
+	public void setup() {
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+
+		book = bookRepository.save(new Book(null, "The Hobbit", "J.R.R. Tolkien", 20.0, BookType.REGULAR));
+		Book			other		= bookRepository.save(new Book(null, "Dune", "Frank Herbert", 19.99, BookType.OLD_EDITION));
+		Customer		customer	= customerRepository.save(new Customer(null, "John Doe", 0));
+		List<Purchase>	purchases	= new ArrayList<>();
+		for (int i = 0; i < PURCHASES; i++) {
+			purchases.add(new Purchase(customer, List.of(book, other), 35.99, false));
+		}
+		purchaseRepository.saveAll(purchases);
+	}
+
+	@Test
+	public void testGetAllPurchases_Cbor() throws Exception {
+		HttpResponse<byte[]> response = get("/api/purchases", "application/cbor", null);
+
+		assertEquals(200, response.statusCode());
+		assertEquals("application/cbor", response.headers().firstValue("Content-Type").orElseThrow());
+		assertEquals(json(), new ObjectMapper(new CBORFactory()).readValue(response.body(), PURCHASE_LIST).size());
+	}
+
+	@Test
+	public void testGetAllPurchases_Smile() throws Exception {
+		HttpResponse<byte[]> response = get("/api/purchases", "application/x-jackson-smile", null);
+
+		assertEquals(200, response.statusCode());
+		assertEquals("application/x-jackson-smile", response.headers().firstValue("Content-Type").orElseThrow());
+		List<PurchaseDTO> purchases = new ObjectMapper(new SmileFactory()).readValue(response.body(), PURCHASE_LIST);
+		assertEquals(PURCHASES, purchases.size());
+		assertEquals(List.of(book.getId()), purchases.get(0).getBookIds().subList(0, 1));
+	}
+
+	@Test
+	public void testGetAllPurchases_GzipAboveThreshold() throws Exception {
+		HttpResponse<byte[]> response = get("/api/purchases", "application/json", "gzip");
+
+		assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+		try (InputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+			assertEquals(PURCHASES, new ObjectMapper().readValue(body, PURCHASE_LIST).size());
+		}
+	}
+
+	@Test
+	public void testGetBookById_NotCompressedBelowThreshold() throws Exception {
+		HttpResponse<byte[]> response = get("/api/books/" + book.getId(), "application/json", "gzip");
+
+		assertEquals(200, response.statusCode());
+		assertFalse(response.headers().firstValue("Content-Encoding").isPresent());
+		assertTrue(response.headers().allValues("Vary").stream().anyMatch(vary -> vary.contains("Accept")));
+	}
+
+	@Test
+	public void testStreamAllBooks_FlushesAreKept() throws Exception {
+		HttpResponse<byte[]> response = get("/api/books", "application/x-ndjson", "gzip");
+
+		// The stream is flushed before its length is known, so even two books are sent compressed
+		assertEquals(200, response.statusCode());
+		assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+		assertFalse(response.headers().firstValue("Content-Length").isPresent());
+		try (InputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+			assertEquals(2, new String(body.readAllBytes()).lines().count());
+		}
+	}
+
+	private int json() throws IOException, InterruptedException {
+		return new ObjectMapper().readValue(get("/api/purchases", "application/json", null).body(), PURCHASE_LIST).size();
+	}
+
+	private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws IOException, InterruptedException {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).header("Accept", accept);
+		if (acceptEncoding != null) {
+			request.header("Accept-Encoding", acceptEncoding);
+		}
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+}
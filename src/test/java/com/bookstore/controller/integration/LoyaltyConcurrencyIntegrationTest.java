@@ -0,0 +1,216 @@
+package com.bookstore.controller.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.model.LoyaltyEntry;
+import com.bookstore.model.LoyaltyEntryType;
+import com.bookstore.model.Purchase;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.LoyaltyEntryRepository;
+import com.bookstore.repository.LoyaltySnapshotRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.bookstore.service.LoyaltyLedger;
+import com.bookstore.service.PurchaseService;
+
+/**
+ * Many threads buying for the same customer at once while the ledger is being compacted.
+ * Accruals do not wait for each other, so the order of redemptions depends on the
+ * interleaving, but the ledger must still account for every purchase exactly once and
+ * must never let two purchases redeem the same points, nor take back points from a
+ * deleted purchase that a concurrent redemption has already spent.
+ */
+@SpringBootTest
+class LoyaltyConcurrencyIntegrationTest {
+
+	private static final int THREADS				= 8;
+	private static final int PURCHASES_PER_THREAD	= 50;
+	private static final int THRESHOLD				= 10;
+
+	@Autowired
+	private PurchaseService purchaseService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	@Autowired
+	private LoyaltyEntryRepository loyaltyEntryRepository;
+
+	@Autowired
+	private LoyaltySnapshotRepository loyaltySnapshotRepository;
+
+	@Autowired
+	private LoyaltyLedger loyaltyLedger;
+
+	private Book		book;
+	private Customer	customer;
+
+	@BeforeEach
+	public void setup() {
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+		loyaltyEntryRepository.deleteAll();
+		loyaltySnapshotRepository.deleteAll();
+
+		book		= bookRepository.save(new Book(null, "The Hobbit", "J.R.R. Tolkien", 25.99, BookType.REGULAR));
+		customer	= customerRepository.save(new Customer(null, "Hot Customer", 0));
+	}
+
+	@Test
+	public void testConcurrentPurchases_HotCustomerKeepsExactPoints() throws Exception {
+		int purchases = runConcurrently(thread -> {
+			for (int i = 0; i < PURCHASES_PER_THREAD; i++) {
+				purchaseService.createPurchase(onePurchase());
+			}
+			return PURCHASES_PER_THREAD;
+		});
+
+		assertLedgerExact(purchases);
+	}
+
+	@Test
+	public void testConcurrentPurchasesAndBatches_HotCustomerKeepsExactPoints() throws Exception {
+		// Half the threads buy one at a time, the other half submit batches of five
+		int purchases = runConcurrently(thread -> {
+			for (int i = 0; i < PURCHASES_PER_THREAD / 5; i++) {
+				if (thread % 2 == 0) {
+					for (int j = 0; j < 5; j++) {
+						purchaseService.createPurchase(onePurchase());
+					}
+				} else {
+					purchaseService.createPurchases(Collections.nCopies(5, onePurchase()), true);
+				}
+			}
+			return PURCHASES_PER_THREAD / 5 * 5;
+		});
+
+		assertLedgerExact(purchases);
+	}
+
+	@Test
+	public void testConcurrentDeletesAndRedemptions_BalanceNeverNegative() throws Exception {
+		// Purchases whose deletion takes back the point they accrued, or gives back what they redeemed
+		List<Long> earlier = new ArrayList<>();
+		for (int i = 0; i < THREADS / 2 * PURCHASES_PER_THREAD; i++) {
+			earlier.add(purchaseService.createPurchase(onePurchase()).getId());
+		}
+
+		// Half the threads delete their share of those purchases while the other half buy and redeem
+		runConcurrently(thread -> {
+			if (thread % 2 == 0) {
+				for (Long id : earlier.subList(thread / 2 * PURCHASES_PER_THREAD, (thread / 2 + 1) * PURCHASES_PER_THREAD)) {
+					purchaseService.deletePurchase(id);
+				}
+			} else {
+				for (int i = 0; i < PURCHASES_PER_THREAD; i++) {
+					purchaseService.createPurchase(onePurchase());
+				}
+			}
+			return 0;
+		});
+
+		// A point taken back is never one a concurrent redemption has already spent
+		List<LoyaltyEntry>	entries	= loyaltyEntryRepository.findAll();
+		int					balance	= loyaltyLedger.balance(customer.getId());
+		assertEquals(entries.stream().mapToInt(LoyaltyEntry::getPoints).sum(), balance);
+		assertTrue(balance >= 0, "balance " + balance);
+		assertEquals(THREADS / 2 * PURCHASES_PER_THREAD, purchaseRepository.count());
+	}
+
+	private interface Buyer {
+		int buy(int thread) throws Exception;
+	}
+
+	// Runs the buyer on every thread at once, with compaction running alongside
+	private int runConcurrently(Buyer buyer) throws Exception {
+		ExecutorService	executor	= Executors.newFixedThreadPool(THREADS + 1);
+		AtomicBoolean	buying		= new AtomicBoolean(true);
+		Future<?>		compaction	= executor.submit(() -> {
+			while (buying.get()) {
+				loyaltyLedger.compact(20);
+			}
+			return null;
+		});
+		try {
+			List<Callable<Integer>> tasks = new ArrayList<>();
+			for (int thread = 0; thread < THREADS; thread++) {
+				int index = thread;
+				tasks.add(() -> buyer.buy(index));
+			}
+			int purchases = 0;
+			for (Future<Integer> result : executor.invokeAll(tasks)) {
+				purchases += result.get();
+			}
+			buying.set(false);
+			compaction.get();
+			return purchases;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private void assertLedgerExact(int purchases) {
+		List<Purchase>		all			= purchaseRepository.findAll();
+		List<LoyaltyEntry>	entries		= loyaltyEntryRepository.findAll();
+		Set<Long>			redeemed	= all.stream().filter(Purchase::isLoyaltyPointsUsed).map(Purchase::getId).collect(Collectors.toSet());
+
+		// One entry per purchase, a redemption exactly for the purchases that got a free book
+		assertEquals(purchases, all.size());
+		assertEquals(purchases, entries.size());
+		assertEquals(all.stream().map(Purchase::getId).collect(Collectors.toSet()),
+				entries.stream().map(LoyaltyEntry::getPurchaseId).collect(Collectors.toSet()));
+		for (LoyaltyEntry entry : entries) {
+			if (redeemed.contains(entry.getPurchaseId())) {
+				assertEquals(LoyaltyEntryType.REDEMPTION, entry.getType());
+				assertTrue(entry.getPoints() <= -THRESHOLD, "redeemed " + entry.getPoints());
+			} else {
+				assertEquals(LoyaltyEntryType.ACCRUAL, entry.getType());
+				assertEquals(1, entry.getPoints());
+			}
+		}
+
+		// No points lost or spent twice: the balance is the sum of all entries and never negative
+		int balance = loyaltyLedger.balance(customer.getId());
+		assertEquals(entries.stream().mapToInt(LoyaltyEntry::getPoints).sum(), balance);
+		assertTrue(balance >= 0 && balance < THRESHOLD + THREADS, "balance " + balance);
+		assertTrue(redeemed.size() >= (purchases - THRESHOLD - THREADS) / (THRESHOLD + THREADS), "redemptions " + redeemed.size());
+
+		// Compacting the rest of the ledger does not change the balance
+		while (loyaltyLedger.compact(100) > 0) {
+		}
+		assertEquals(balance, loyaltySnapshotRepository.findById(customer.getId()).orElseThrow().getBalance());
+		assertEquals(balance, loyaltyLedger.balance(customer.getId()));
+	}
+
+	private PurchaseDTO onePurchase() {
+		return new PurchaseDTO(null, customer.getId(), List.of(book.getId()), 0);
+	}
+}
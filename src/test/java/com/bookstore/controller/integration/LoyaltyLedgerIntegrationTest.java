@@ -0,0 +1,201 @@
+package com.bookstore.controller.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.bookstore.dto.CustomerDTO;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.LoyaltyEntryRepository;
+import com.bookstore.repository.LoyaltySnapshotRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.bookstore.service.LoyaltyLedger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+class LoyaltyLedgerIntegrationTest {
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	@Autowired
+	private LoyaltyEntryRepository loyaltyEntryRepository;
+
+	@Autowired
+	private LoyaltySnapshotRepository loyaltySnapshotRepository;
+
+	@Autowired
+	private LoyaltyLedger loyaltyLedger;
+
+	private MockMvc mockMvc;
+
+	private Book book1, book2;
+
+	@BeforeEach
+	public void setup() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+		loyaltyEntryRepository.deleteAll();
+		loyaltySnapshotRepository.deleteAll();
+
+		book1 = bookRepository.save(new Book(null, "Dungeons & Dragons 5th edition", "Rodney Thompson", 39.99, BookType.REGULAR));
+		book2 = bookRepository.save(new Book(null, "The Hobbit", "J.R.R. Tolkien", 25.99, BookType.REGULAR));
+	}
+
+	// ===========================
+	// Customer balance and history
+	// ===========================
+
+	@Test
+	public void testCreateAndUpdateCustomer_AppendAdjustments() throws Exception {
+		Long id = createCustomer(7);
+
+		mockMvc.perform(get("/api/customers/" + id))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.loyaltyPoints").value(7));
+
+		mockMvc.perform(put("/api/customers/" + id)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new CustomerDTO(id, "Jane Doe", 3))))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.loyaltyPoints").value(3));
+
+		mockMvc.perform(get("/api/customers/" + id + "/loyalty-entries"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(2))
+		.andExpect(jsonPath("$[0].type").value("ADJUSTMENT"))
+		.andExpect(jsonPath("$[0].points").value(-4))
+		.andExpect(jsonPath("$[1].points").value(7));
+	}
+
+	@Test
+	public void testGetLoyaltyHistory_UnknownCustomer() throws Exception {
+		mockMvc.perform(get("/api/customers/100/loyalty-entries"))
+		.andExpect(status().isNotFound());
+	}
+
+	// ===========================
+	// Purchases
+	// ===========================
+
+	@Test
+	public void testPurchaseLifecycle_RecordedInLedger() throws Exception {
+		Long id			= createCustomer(0);
+		Long purchaseId	= createPurchase(id, book1, book2);
+		assertEquals(2, loyaltyLedger.balance(id));
+
+		// Changing the books of the purchase corrects its accrual instead of adding it again
+		mockMvc.perform(put("/api/purchases/" + purchaseId)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new PurchaseDTO(purchaseId, id, Arrays.asList(book1.getId()), 0))))
+		.andExpect(status().isOk());
+		assertEquals(1, loyaltyLedger.balance(id));
+
+		mockMvc.perform(delete("/api/purchases/" + purchaseId))
+		.andExpect(status().isNoContent());
+		assertEquals(0, loyaltyLedger.balance(id));
+
+		mockMvc.perform(get("/api/customers/" + id + "/loyalty-entries"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(3))
+		.andExpect(jsonPath("$[0].type").value("REVERSAL"))
+		.andExpect(jsonPath("$[0].purchaseId").value(purchaseId))
+		.andExpect(jsonPath("$[1].points").value(-1))
+		.andExpect(jsonPath("$[2].type").value("ACCRUAL"))
+		.andExpect(jsonPath("$[2].points").value(2));
+	}
+
+	@Test
+	public void testRedemption_SpendsWholeBalance() throws Exception {
+		Long id = createCustomer(12);
+
+		createPurchase(id, book1);
+
+		assertEquals(0, loyaltyLedger.balance(id));
+		mockMvc.perform(get("/api/customers/" + id + "/loyalty-entries"))
+		.andExpect(jsonPath("$[0].type").value("REDEMPTION"))
+		.andExpect(jsonPath("$[0].points").value(-12));
+	}
+
+	// ===========================
+	// Compaction
+	// ===========================
+
+	@Test
+	public void testCompact_KeepsBalancesAndHistory() throws Exception {
+		Long first	= createCustomer(4);
+		Long second	= createCustomer(0);
+		createPurchase(first, book1, book2);
+		createPurchase(second, book2);
+
+		// Three entries, the second customer opened without points: rolled in two rounds
+		assertEquals(2, loyaltyLedger.compact(2));
+		assertEquals(1, loyaltyLedger.compact(10));
+		assertEquals(0, loyaltyLedger.compact(10));
+
+		assertEquals(6, loyaltyLedger.balance(first));
+		assertEquals(1, loyaltyLedger.balance(second));
+		assertEquals(6, loyaltySnapshotRepository.findById(first).orElseThrow().getBalance());
+		assertEquals(2, loyaltySnapshotRepository.findById(first).orElseThrow().getEntries());
+		assertTrue(loyaltyEntryRepository.findAll().stream().allMatch(entry -> entry.isCompacted()));
+
+		// New entries are added on top of the snapshot
+		createPurchase(first, book1);
+		assertEquals(7, loyaltyLedger.balance(first));
+		mockMvc.perform(get("/api/customers/" + first + "/loyalty-entries"))
+		.andExpect(jsonPath("$.length()").value(3));
+	}
+
+	private Long createCustomer(int loyaltyPoints) throws Exception {
+		String response = mockMvc.perform(post("/api/customers")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new CustomerDTO(null, "John Doe", loyaltyPoints))))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readValue(response, CustomerDTO.class).getId();
+	}
+
+	private Long createPurchase(Long customerId, Book... books) throws Exception {
+		String response = mockMvc.perform(post("/api/purchases")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new PurchaseDTO(null, customerId,
+						Arrays.stream(books).map(Book::getId).toList(), 0))))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readValue(response, PurchaseDTO.class).getId();
+	}
+}
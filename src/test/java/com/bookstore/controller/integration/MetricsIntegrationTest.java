@@ -0,0 +1,122 @@
+package com.bookstore.controller.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = "bookstore.loyalty.compaction.enabled=false")
+@AutoConfigureObservability
+// Filters are needed for the HTTP request observations
+@AutoConfigureMockMvc
+class MetricsIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	private Book regular;
+	private Book oldEdition;
+	private Customer customer;
+
+	@BeforeEach
+	public void setup() {
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+
+		regular		= bookRepository.save(new Book(null, "The Hobbit", "J.R.R. Tolkien", 20.0, BookType.REGULAR));
+		oldEdition	= bookRepository.save(new Book(null, "Dungeons & Dragons 3rd edition", "Monte Cook", 10.0, BookType.OLD_EDITION));
+		customer	= customerRepository.save(new Customer(null, "John Doe", 0));
+	}
+
+	@Test
+	public void testCreatePurchase_CountsPurchaseAndRevenuePerType() throws Exception {
+		double created		= meterRegistry.counter("bookstore.purchases").count();
+		double regularSales	= meterRegistry.counter("bookstore.revenue", "type", "REGULAR").count();
+		double oldSales		= meterRegistry.counter("bookstore.revenue", "type", "OLD_EDITION").count();
+
+		createPurchase();
+
+		assertEquals(created + 1, meterRegistry.counter("bookstore.purchases").count());
+		assertEquals(regularSales + 20.0, meterRegistry.counter("bookstore.revenue", "type", "REGULAR").count(), 1e-9);
+		assertEquals(oldSales + 10.0 * 0.8, meterRegistry.counter("bookstore.revenue", "type", "OLD_EDITION").count(), 1e-9);
+	}
+
+	@Test
+	public void testCreatePurchase_InvalidPurchaseIsNotCounted() throws Exception {
+		double created = meterRegistry.counter("bookstore.purchases").count();
+
+		mockMvc.perform(post("/api/purchases")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new PurchaseDTO(null, customer.getId(), Arrays.asList(-1L), 0))))
+		.andExpect(status().isNotFound());
+
+		assertEquals(created, meterRegistry.counter("bookstore.purchases").count());
+	}
+
+	@Test
+	public void testPrometheusScrape() throws Exception {
+		createPurchase();
+		mockMvc.perform(get("/api/books/" + regular.getId())).andExpect(status().isOk());
+
+		String scrape = mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		assertTrue(scrape.contains("bookstore_purchases_total"));
+		assertTrue(scrape.contains("bookstore_loyalty_redemptions_total"));
+		assertTrue(scrape.contains("bookstore_revenue_total{type=\"REGULAR\"}"));
+		assertTrue(scrape.contains("http_server_requests_seconds_bucket{"));
+		assertTrue(scrape.contains("uri=\"/api/books/{id}\""));
+		assertTrue(scrape.contains("bookstore_service_seconds_bucket{class=\"com.bookstore.service.PurchaseService\""));
+		assertTrue(scrape.contains("method=\"createPurchase\""));
+		assertTrue(scrape.contains("hikaricp_connections_active"));
+		assertTrue(scrape.contains("hibernate_sessions_open_total"));
+		assertTrue(scrape.contains("cache_gets_total{cache=\"books\""));
+	}
+
+	private void createPurchase() throws Exception {
+		mockMvc.perform(post("/api/purchases")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new PurchaseDTO(null, customer.getId(), Arrays.asList(regular.getId(), oldEdition.getId()), 0))))
+		.andExpect(status().isCreated());
+	}
+}
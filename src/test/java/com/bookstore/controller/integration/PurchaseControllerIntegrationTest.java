@@ -1,14 +1,18 @@
 package com.bookstore.controller.integration;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,10 +20,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import com.bookstore.controller.NdjsonWriter;
 import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.dto.PurchaseTicketDTO;
 import com.bookstore.model.Book;
 import com.bookstore.model.BookType;
 import com.bookstore.model.Customer;
@@ -27,6 +34,7 @@ import com.bookstore.model.Purchase;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.CustomerRepository;
 import com.bookstore.repository.PurchaseRepository;
+import com.bookstore.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @SpringBootTest
@@ -47,6 +55,9 @@ class PurchaseControllerIntegrationTest {
 	@Autowired
 	private PurchaseRepository purchaseRepository;
 
+	@Autowired
+	private BookService bookService;
+
 	private MockMvc mockMvc;
 
 	private Book book1, book2, book3;
@@ -90,6 +101,59 @@ class PurchaseControllerIntegrationTest {
 		.andExpect(jsonPath("$").isEmpty());
 	}
 
+	// ===========================
+	// streamAllPurchases()
+	// ===========================
+
+	@Test
+	public void testStreamAllPurchases_WritesOneLinePerPurchase() throws Exception {
+		purchaseRepository.save(new Purchase(customer, Arrays.asList(book3), 29.99, false));
+
+		MvcResult result = mockMvc.perform(get("/api/purchases").accept(NdjsonWriter.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String body = mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		String[] lines = body.split("\n");
+		assertEquals(2, lines.length);
+		PurchaseDTO first = objectMapper.readValue(lines[0], PurchaseDTO.class);
+		assertEquals(purchase.getId(), first.getId());
+		assertEquals(2, first.getBookIds().size());
+	}
+
+	// ===========================
+	// getPurchasesPage(String, int, String)
+	// ===========================
+
+	@Test
+	public void testGetPurchasesPage_WalksAllPages() throws Exception {
+		Purchase second = purchaseRepository.save(new Purchase(customer, Arrays.asList(book3), 29.99, false));
+
+		mockMvc.perform(get("/api/purchases").param("limit", "1"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.items[0].id").value(purchase.getId()))
+		.andExpect(jsonPath("$.items[0].bookIds.length()").value(2))
+		.andExpect(jsonPath("$.nextCursor").value(String.valueOf(purchase.getId())));
+
+		mockMvc.perform(get("/api/purchases").param("after", String.valueOf(purchase.getId())).param("limit", "1"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.items[0].id").value(second.getId()))
+		.andExpect(jsonPath("$.nextCursor").doesNotExist());
+	}
+
+	@Test
+	public void testGetPurchasesPage_SortedByTotalPrice() throws Exception {
+		purchaseRepository.save(new Purchase(customer, Arrays.asList(book3), 29.99, false));
+
+		mockMvc.perform(get("/api/purchases").param("limit", "1").param("sort", "totalPrice"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.items[0].totalPrice").value(29.99))
+		.andExpect(jsonPath("$.nextCursor").isNotEmpty());
+	}
+
 	// ===========================
 	// getPurchaseById(Long)
 	// ===========================
@@ -135,6 +199,23 @@ class PurchaseControllerIntegrationTest {
 		.andExpect(status().isCreated());
 	}
 
+	@Test
+	public void testCreatePurchase_RaisesSuggestionPopularity() throws Exception {
+		// Counts the purchase from setup
+		bookService.rebuildSearchIndex();
+
+		PurchaseDTO newPurchase = new PurchaseDTO(null, customer.getId(), Arrays.asList(book2.getId()), 25.99);
+		mockMvc.perform(post("/api/purchases")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(newPurchase)))
+		.andExpect(status().isCreated());
+
+		mockMvc.perform(get("/api/books/suggest").param("prefix", "the hob"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$[0].text").value("The Hobbit"))
+		.andExpect(jsonPath("$[0].popularity").value(2));
+	}
+
 	@Test
 	public void testCreatePurchase_InvalidCustomer() throws Exception {
 		PurchaseDTO newPurchase = new PurchaseDTO(null, 100L, Arrays.asList(book1.getId()), 39.99);
@@ -155,6 +236,192 @@ class PurchaseControllerIntegrationTest {
 		.andExpect(status().isNotFound());
 	}
 
+	// ===========================
+	// submitPurchase(PurchaseDTO) and getTicket(String)
+	// ===========================
+
+	@Test
+	public void testSubmitPurchase_CreatedInBackground() throws Exception {
+		PurchaseDTO newPurchase = new PurchaseDTO(null, customer.getId(), Arrays.asList(book1.getId(), book3.getId()), 0);
+
+		String response = mockMvc.perform(post("/api/purchases/async")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(newPurchase)))
+				.andExpect(status().isAccepted())
+				.andExpect(jsonPath("$.status").value("QUEUED"))
+				.andReturn().getResponse().getContentAsString();
+		String ticketId = objectMapper.readValue(response, PurchaseTicketDTO.class).getId();
+
+		PurchaseTicketDTO ticket = awaitTicket(ticketId);
+		assertEquals(PurchaseTicketDTO.Status.CREATED, ticket.getStatus());
+		assertEquals(2, purchaseRepository.count());
+
+		mockMvc.perform(get("/api/purchases/" + ticket.getPurchase().getId()))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.bookIds.length()").value(2));
+	}
+
+	@Test
+	public void testSubmitPurchase_InvalidCustomerRejectedUpfront() throws Exception {
+		PurchaseDTO newPurchase = new PurchaseDTO(null, 100L, Arrays.asList(book1.getId()), 0);
+
+		mockMvc.perform(post("/api/purchases/async")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(newPurchase)))
+		.andExpect(status().isNotFound());
+	}
+
+	@Test
+	public void testGetTicket_NotFound() throws Exception {
+		mockMvc.perform(get("/api/purchases/tickets/unknown"))
+		.andExpect(status().isNotFound())
+		.andExpect(jsonPath("$.message").value("Purchase ticket not found with ID: unknown"));
+	}
+
+	private PurchaseTicketDTO awaitTicket(String id) throws Exception {
+		long deadline = System.nanoTime() + 5_000_000_000L;
+		while (true) {
+			String response = mockMvc.perform(get("/api/purchases/tickets/" + id))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+			PurchaseTicketDTO ticket = objectMapper.readValue(response, PurchaseTicketDTO.class);
+			if (ticket.getStatus() != PurchaseTicketDTO.Status.QUEUED || System.nanoTime() > deadline) {
+				return ticket;
+			}
+			Thread.sleep(20);
+		}
+	}
+
+	// ===========================
+	// quotePurchase(PurchaseDTO)
+	// ===========================
+
+	@Test
+	public void testQuotePurchase_PersistsNothing() throws Exception {
+		PurchaseDTO cart = new PurchaseDTO(null, customer.getId(), Arrays.asList(book1.getId(), book2.getId(), book3.getId()), 0);
+
+		mockMvc.perform(post("/api/purchases/quote")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(cart)))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.listPrice").value(95.97))
+		.andExpect(jsonPath("$.loyaltyPointsApplied").value(false))
+		.andExpect(jsonPath("$.loyaltyDiscount").value(0.0));
+
+		assertEquals(1, purchaseRepository.count());
+		assertEquals(0, customerRepository.findById(customer.getId()).get().getLoyaltyPoints());
+	}
+
+	@Test
+	public void testQuotePurchase_InvalidBook() throws Exception {
+		PurchaseDTO cart = new PurchaseDTO(null, customer.getId(), Collections.singletonList(100L), 0);
+
+		mockMvc.perform(post("/api/purchases/quote")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(cart)))
+		.andExpect(status().isNotFound());
+	}
+
+	// ===========================
+	// createPurchases(List<PurchaseDTO>, boolean)
+	// ===========================
+
+	@Test
+	public void testCreatePurchases_CreatesAll() throws Exception {
+		Customer other = customerRepository.save(new Customer(null, "Jane Doe", 0));
+		List<PurchaseDTO> batch = Arrays.asList(
+				new PurchaseDTO(null, customer.getId(), Arrays.asList(book1.getId(), book2.getId()), 0),
+				new PurchaseDTO(null, other.getId(), Arrays.asList(book3.getId()), 0),
+				new PurchaseDTO(null, customer.getId(), Arrays.asList(book3.getId()), 0));
+
+		mockMvc.perform(post("/api/purchases/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(batch)))
+		.andExpect(status().isCreated())
+		.andExpect(jsonPath("$.created").value(3))
+		.andExpect(jsonPath("$.failed").value(0))
+		.andExpect(jsonPath("$.items[0].purchase.bookIds.length()").value(2))
+		.andExpect(jsonPath("$.items[1].purchase.totalPrice").value(29.99));
+
+		assertEquals(4, purchaseRepository.count());
+		// Points of both purchases of the same customer accumulate
+		assertEquals(3, customerRepository.findById(customer.getId()).get().getLoyaltyPoints());
+	}
+
+	@Test
+	public void testCreatePurchases_ReportsPerItemFailures() throws Exception {
+		List<PurchaseDTO> batch = Arrays.asList(
+				new PurchaseDTO(null, customer.getId(), Arrays.asList(book1.getId()), 0),
+				new PurchaseDTO(null, 100L, Arrays.asList(book1.getId()), 0),
+				new PurchaseDTO(null, customer.getId(), Arrays.asList(100L), 0),
+				new PurchaseDTO(null, null, Arrays.asList(book1.getId()), 0));
+
+		mockMvc.perform(post("/api/purchases/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(batch)))
+		.andExpect(status().isMultiStatus())
+		.andExpect(jsonPath("$.created").value(1))
+		.andExpect(jsonPath("$.failed").value(3))
+		.andExpect(jsonPath("$.items[0].status").value("CREATED"))
+		.andExpect(jsonPath("$.items[1].message").value("Customer not found with ID: 100"))
+		.andExpect(jsonPath("$.items[2].message").value("Some books not found. Please check book IDs."))
+		.andExpect(jsonPath("$.items[3].message").value("Customer ID cannot be null"));
+
+		assertEquals(2, purchaseRepository.count());
+	}
+
+	@Test
+	public void testCreatePurchases_AtomicRejectsWholeBatch() throws Exception {
+		List<PurchaseDTO> batch = Arrays.asList(
+				new PurchaseDTO(null, customer.getId(), Arrays.asList(book1.getId()), 0),
+				new PurchaseDTO(null, customer.getId(), Arrays.asList(100L), 0));
+
+		mockMvc.perform(post("/api/purchases/batch")
+				.param("atomic", "true")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(batch)))
+		.andExpect(status().isUnprocessableEntity())
+		.andExpect(jsonPath("$.created").value(0))
+		.andExpect(jsonPath("$.items[0].status").value("NOT_CREATED"))
+		.andExpect(jsonPath("$.items[1].status").value("FAILED"));
+
+		assertEquals(1, purchaseRepository.count());
+		assertEquals(0, customerRepository.findById(customer.getId()).get().getLoyaltyPoints());
+	}
+
+	@Test
+	public void testCreatePurchases_NullItem() throws Exception {
+		List<PurchaseDTO> batch = Arrays.asList(
+				new PurchaseDTO(null, customer.getId(), Arrays.asList(book1.getId()), 0),
+				null);
+
+		mockMvc.perform(post("/api/purchases/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(batch)))
+		.andExpect(status().isMultiStatus())
+		.andExpect(jsonPath("$.created").value(1))
+		.andExpect(jsonPath("$.items[0].status").value("CREATED"))
+		.andExpect(jsonPath("$.items[1].status").value("FAILED"))
+		.andExpect(jsonPath("$.items[1].message").value("Purchase cannot be null"));
+
+		mockMvc.perform(post("/api/purchases/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[null]"))
+		.andExpect(status().isUnprocessableEntity())
+		.andExpect(jsonPath("$.failed").value(1))
+		.andExpect(jsonPath("$.items[0].message").value("Purchase cannot be null"));
+
+		assertEquals(2, purchaseRepository.count());
+	}
+
+	@Test
+	public void testCreatePurchases_EmptyBatch() throws Exception {
+		mockMvc.perform(post("/api/purchases/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[]"))
+		.andExpect(status().isBadRequest());
+	}
+
 	// ===========================
 	// updatePurchase(Long, PurchaseDTO)
 	// ===========================
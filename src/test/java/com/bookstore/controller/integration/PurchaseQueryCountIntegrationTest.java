@@ -0,0 +1,178 @@
+package com.bookstore.controller.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.bookstore.controller.NdjsonWriter;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.model.Purchase;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards the purchase read paths against N+1 loading of books and customers:
+ * the number of SQL statements must not grow with the number of purchases read.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+		"bookstore.loyalty.compaction.enabled=false"
+})
+class PurchaseQueryCountIntegrationTest {
+
+	private static final int PURCHASES = 20;
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	private MockMvc mockMvc;
+	private Statistics statistics;
+	private Purchase purchase;
+	private List<Book> books = new ArrayList<>();
+	private List<Customer> customers = new ArrayList<>();
+
+	@BeforeEach
+	public void setup() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+
+		for (int i = 0; i < PURCHASES; i++) {
+			Book book1 = bookRepository.save(new Book(null, "Book A" + i, "Author", 10.0, BookType.REGULAR));
+			Book book2 = bookRepository.save(new Book(null, "Book B" + i, "Author", 20.0, BookType.OLD_EDITION));
+			Customer customer = customerRepository.save(new Customer(null, "Customer " + i, 0));
+			purchase = purchaseRepository.save(new Purchase(customer, Arrays.asList(book1, book2), 30.0, false));
+			books.addAll(Arrays.asList(book1, book2));
+			customers.add(customer);
+		}
+		statistics.clear();
+	}
+
+	@Test
+	public void testGetAllPurchases_SingleStatement() throws Exception {
+		mockMvc.perform(get("/api/purchases"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(PURCHASES))
+		.andExpect(jsonPath("$[0].bookIds.length()").value(2));
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testGetPurchaseById_SingleStatement() throws Exception {
+		mockMvc.perform(get("/api/purchases/" + purchase.getId()))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.customerId").value(purchase.getCustomer().getId()))
+		.andExpect(jsonPath("$.bookIds.length()").value(2));
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testGetPurchasesPage_TwoStatements() throws Exception {
+		mockMvc.perform(get("/api/purchases").param("limit", String.valueOf(PURCHASES)))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.items.length()").value(PURCHASES));
+
+		// One for the page, one to batch load the books of every purchase on it
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testStreamAllPurchases_TwoStatements() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/purchases").accept(NdjsonWriter.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(result))
+		.andExpect(status().isOk());
+
+		// One for the cursor, one per chunk to batch load books
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testQuotePurchase_ServedFromCache() throws Exception {
+		PurchaseDTO quote = new PurchaseDTO(null, customers.get(0).getId(), Arrays.asList(books.get(0).getId(), books.get(1).getId()), 0);
+		String content = objectMapper.writeValueAsString(quote);
+
+		mockMvc.perform(post("/api/purchases/quote").contentType(MediaType.APPLICATION_JSON).content(content))
+		.andExpect(status().isOk());
+		statistics.clear();
+
+		mockMvc.perform(post("/api/purchases/quote").contentType(MediaType.APPLICATION_JSON).content(content))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.listPrice").value(30.0));
+
+		// The customer and both books come from the entity caches
+		assertEquals(0, statistics.getPrepareStatementCount());
+
+		mockMvc.perform(get("/api/cache/stats"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.books.hits").isNumber())
+		.andExpect(jsonPath("$.customers.size").isNumber());
+	}
+
+	@Test
+	public void testCreatePurchases_InsertsInJdbcBatches() throws Exception {
+		List<PurchaseDTO> batch = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			batch.add(new PurchaseDTO(null, customers.get(i % PURCHASES).getId(),
+					Arrays.asList(books.get(i % books.size()).getId(), books.get((i + 1) % books.size()).getId()), 0));
+		}
+
+		mockMvc.perform(post("/api/purchases/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(batch)))
+		.andExpect(status().isCreated());
+
+		// 100 purchases and 200 join rows must go out as a handful of batches, not one statement per row
+		assertEquals(100 + PURCHASES, purchaseRepository.count());
+		assertTrue(statistics.getPrepareStatementCount() <= 12, "statements: " + statistics.getPrepareStatementCount());
+	}
+}
@@ -0,0 +1,227 @@
+package com.bookstore.controller.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.dto.CustomerDTO;
+import com.bookstore.dto.PageDTO;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.reactive.ReactiveServer;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.LoyaltyEntryRepository;
+import com.bookstore.repository.LoyaltySnapshotRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.bookstore.service.CustomerService;
+import com.bookstore.service.PurchaseService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "bookstore.loyalty.compaction.enabled=false")
+class ReactiveApiIntegrationTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ReactiveServer reactiveServer;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	@Autowired
+	private LoyaltyEntryRepository loyaltyEntryRepository;
+
+	@Autowired
+	private LoyaltySnapshotRepository loyaltySnapshotRepository;
+
+	@Autowired
+	private CustomerService customerService;
+
+	@Autowired
+	private PurchaseService purchaseService;
+
+	private WebTestClient client;
+
+	private Book book1, book2, book3;
+
+	@BeforeEach
+	public void setup() {
+		client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveServer.port()).build();
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+		loyaltyEntryRepository.deleteAll();
+		loyaltySnapshotRepository.deleteAll();
+
+		book1 = bookRepository.save(new Book(null, "Dungeons & Dragons 5th edition", "Rodney Thompson", 39.99, BookType.REGULAR));
+		book2 = bookRepository.save(new Book(null, "The Hobbit", "J.R.R. Tolkien", 25.99, BookType.NEW_RELEASE));
+		book3 = bookRepository.save(new Book(null, "Dune", "Frank Herbert", 19.99, BookType.OLD_EDITION));
+	}
+
+	// ===========================
+	// Books
+	// ===========================
+
+	@Test
+	public void testGetBookById() {
+		client.get().uri("/api/books/" + book2.getId()).exchange()
+		.expectStatus().isOk()
+		.expectBody()
+		.jsonPath("$.id").isEqualTo(book2.getId())
+		.jsonPath("$.title").isEqualTo("The Hobbit")
+		.jsonPath("$.price").isEqualTo(25.99)
+		.jsonPath("$.type").isEqualTo("NEW_RELEASE");
+	}
+
+	@Test
+	public void testGetBookById_NotFoundAndInvalid() {
+		client.get().uri("/api/books/100000").exchange()
+		.expectStatus().isNotFound()
+		.expectBody().jsonPath("$.message").isEqualTo("Book with ID 100000 not found");
+
+		client.get().uri("/api/books/abc").exchange()
+		.expectStatus().isBadRequest()
+		.expectBody().jsonPath("$.message").isEqualTo("Invalid book ID format: abc");
+	}
+
+	@Test
+	public void testGetAllBooks() {
+		client.get().uri("/api/books").exchange()
+		.expectStatus().isOk()
+		.expectBody()
+		.jsonPath("$.length()").isEqualTo(3)
+		.jsonPath("$[0].id").isEqualTo(book1.getId())
+		.jsonPath("$[2].title").isEqualTo("Dune");
+	}
+
+	@Test
+	public void testStreamAllBooks_Ndjson() {
+		List<BookDTO> books = client.get().uri("/api/books").accept(MediaType.APPLICATION_NDJSON).exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(BookDTO.class).getResponseBody().collectList().block();
+		assertEquals(List.of(book1.getId(), book2.getId(), book3.getId()), books.stream().map(BookDTO::getId).toList());
+	}
+
+	@Test
+	public void testGetBooksPage_FollowsCursor() {
+		client.get().uri("/api/books?limit=2").exchange()
+		.expectStatus().isOk()
+		.expectBody()
+		.jsonPath("$.items.length()").isEqualTo(2)
+		.jsonPath("$.nextCursor").isEqualTo(String.valueOf(book2.getId()));
+
+		client.get().uri("/api/books?limit=2&after=" + book2.getId()).exchange()
+		.expectStatus().isOk()
+		.expectBody()
+		.jsonPath("$.items.length()").isEqualTo(1)
+		.jsonPath("$.items[0].id").isEqualTo(book3.getId())
+		.jsonPath("$.nextCursor").doesNotExist();
+	}
+
+	@Test
+	public void testGetBooksPage_SharesServletCursors() {
+		WebTestClient	servlet	= WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+		String			cursor	= servlet.get().uri("/api/books?limit=2").exchange()
+				.expectStatus().isOk()
+				.expectBody(new ParameterizedTypeReference<PageDTO<BookDTO>>() {}).returnResult().getResponseBody().getNextCursor();
+
+		client.get().uri("/api/books?limit=2&after=" + cursor).exchange()
+		.expectStatus().isOk()
+		.expectBody()
+		.jsonPath("$.items[0].id").isEqualTo(book3.getId());
+
+		// Cursors of the other sort keys are tokens the reactive API does not page by
+		String titleCursor = servlet.get().uri("/api/books?limit=1&sort=title").exchange()
+				.expectBody(new ParameterizedTypeReference<PageDTO<BookDTO>>() {}).returnResult().getResponseBody().getNextCursor();
+		client.get().uri("/api/books?limit=2&after=" + titleCursor).exchange()
+		.expectStatus().isBadRequest()
+		.expectBody().jsonPath("$.message").isEqualTo("Invalid cursor: " + titleCursor);
+	}
+
+	@Test
+	public void testGetBooksPage_InvalidParameters() {
+		client.get().uri("/api/books?limit=0").exchange()
+		.expectStatus().isBadRequest()
+		.expectBody().jsonPath("$.message").isEqualTo("Limit must be between 1 and 1000");
+
+		client.get().uri("/api/books?limit=2&sort=title").exchange()
+		.expectStatus().isBadRequest()
+		.expectBody().jsonPath("$.message").isEqualTo("Invalid sort key: title");
+
+		client.get().uri("/api/books?limit=2&after=xyz").exchange()
+		.expectStatus().isBadRequest()
+		.expectBody().jsonPath("$.message").isEqualTo("Invalid cursor: xyz");
+	}
+
+	// ===========================
+	// Customers and purchases
+	// ===========================
+
+	@Test
+	public void testGetCustomerById_WithLoyaltyBalance() {
+		CustomerDTO customer = customerService.createCustomer(new CustomerDTO(null, "Jane Doe", 4));
+		purchaseService.createPurchase(new PurchaseDTO(null, customer.getId(), List.of(book1.getId(), book2.getId()), 0));
+
+		client.get().uri("/api/customers/" + customer.getId()).exchange()
+		.expectStatus().isOk()
+		.expectBody()
+		.jsonPath("$.name").isEqualTo("Jane Doe")
+		.jsonPath("$.loyaltyPoints").isEqualTo(6);
+
+		client.get().uri("/api/customers/100000").exchange()
+		.expectStatus().isNotFound()
+		.expectBody().jsonPath("$.message").isEqualTo("Customer with ID 100000 not found");
+	}
+
+	@Test
+	public void testGetPurchases_WithBookIds() {
+		Customer	customer	= customerRepository.save(new Customer(null, "John Doe", 0));
+		PurchaseDTO	first		= purchaseService.createPurchase(new PurchaseDTO(null, customer.getId(), List.of(book1.getId(), book3.getId()), 0));
+		PurchaseDTO	second		= purchaseService.createPurchase(new PurchaseDTO(null, customer.getId(), List.of(book2.getId()), 0));
+
+		PurchaseDTO purchase = client.get().uri("/api/purchases/" + first.getId()).exchange()
+				.expectStatus().isOk()
+				.expectBody(PurchaseDTO.class).returnResult().getResponseBody();
+		assertEquals(customer.getId(), purchase.getCustomerId());
+		assertEquals(first.getTotalPrice(), purchase.getTotalPrice());
+		assertEquals(List.of(book1.getId(), book3.getId()), purchase.getBookIds().stream().sorted().toList());
+
+		client.get().uri("/api/purchases?limit=1").exchange()
+		.expectStatus().isOk()
+		.expectBody()
+		.jsonPath("$.items.length()").isEqualTo(1)
+		.jsonPath("$.items[0].bookIds.length()").isEqualTo(2)
+		.jsonPath("$.nextCursor").isEqualTo(String.valueOf(first.getId()));
+
+		client.get().uri("/api/purchases").exchange()
+		.expectStatus().isOk()
+		.expectBody()
+		.jsonPath("$.length()").isEqualTo(2)
+		.jsonPath("$[1].id").isEqualTo(second.getId())
+		.jsonPath("$[1].bookIds[0]").isEqualTo(book2.getId());
+
+		client.get().uri("/api/purchases/100000").exchange()
+		.expectStatus().isNotFound()
+		.expectBody().jsonPath("$.message").isEqualTo("Purchase not found with ID: 100000");
+	}
+}
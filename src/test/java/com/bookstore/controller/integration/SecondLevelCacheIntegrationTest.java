@@ -0,0 +1,160 @@
+package com.bookstore.controller.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.model.Purchase;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Checks that books and the book ids of purchases are served from the Hibernate
+ * second-level cache once loaded, and that writes through the services invalidate it.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+		"bookstore.loyalty.compaction.enabled=false"
+})
+class SecondLevelCacheIntegrationTest {
+
+	private static final int PURCHASES = 10;
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	private MockMvc mockMvc;
+	private Statistics statistics;
+	private Book book;
+
+	@BeforeEach
+	public void setup() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+
+		for (int i = 0; i < PURCHASES; i++) {
+			Book book1 = bookRepository.save(new Book(null, "Book A" + i, "Author", 10.0, BookType.REGULAR));
+			Book book2 = bookRepository.save(new Book(null, "Book B" + i, "Author", 20.0, BookType.OLD_EDITION));
+			Customer customer = customerRepository.save(new Customer(null, "Customer " + i, 0));
+			purchaseRepository.save(new Purchase(customer, Arrays.asList(book1, book2), 30.0, false));
+			book = book1;
+		}
+		statistics.clear();
+	}
+
+	@Test
+	public void testGetPurchasesPage_RepeatedBookLoadsFromCache() throws Exception {
+		mockMvc.perform(get("/api/purchases").param("limit", String.valueOf(PURCHASES)))
+		.andExpect(status().isOk());
+
+		// One for the page, one to batch load the books of every purchase on it
+		assertEquals(2, statistics.getPrepareStatementCount());
+		statistics.clear();
+
+		mockMvc.perform(get("/api/purchases").param("limit", String.valueOf(PURCHASES)))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.items.length()").value(PURCHASES))
+		.andExpect(jsonPath("$.items[0].bookIds.length()").value(2));
+
+		// Only the page itself, the book ids and the books come from the cache
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(PURCHASES, statistics.getCacheRegionStatistics("purchase-books").getHitCount());
+		assertTrue(statistics.getSecondLevelCacheHitCount() >= 3 * PURCHASES);
+	}
+
+	@Test
+	public void testGetAllBooks_RepeatedListingFromQueryCache() throws Exception {
+		mockMvc.perform(get("/api/books"))
+		.andExpect(status().isOk());
+		statistics.clear();
+
+		mockMvc.perform(get("/api/books"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(2 * PURCHASES));
+
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getQueryCacheHitCount());
+	}
+
+	@Test
+	public void testUpdateBook_InvalidatesCachedListing() throws Exception {
+		// The listing has no defined order, so the book is looked up by id
+		String updated = "$[?(@.id == " + book.getId() + ")]";
+		mockMvc.perform(get("/api/books"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath(updated + ".price").value(10.0));
+
+		BookDTO update = new BookDTO(book.getId(), book.getTitle(), book.getAuthor(), 5.0, BookType.REGULAR);
+		mockMvc.perform(put("/api/books/" + book.getId())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(update)))
+		.andExpect(status().isOk());
+		statistics.clear();
+
+		mockMvc.perform(get("/api/books"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath(updated + ".price").value(5.0));
+
+		assertEquals(0, statistics.getQueryCacheHitCount());
+	}
+
+	@Test
+	public void testDeleteBook_InvalidatesCachedListing() throws Exception {
+		Book unsold = bookRepository.save(new Book(null, "Unsold", "Author", 1.0, BookType.REGULAR));
+
+		mockMvc.perform(get("/api/books"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(2 * PURCHASES + 1));
+
+		mockMvc.perform(delete("/api/books/" + unsold.getId()))
+		.andExpect(status().isNoContent());
+
+		mockMvc.perform(get("/api/books"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(2 * PURCHASES));
+	}
+}
@@ -0,0 +1,166 @@
+package com.bookstore.controller.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bookstore.config.SqlStatistics;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.model.Purchase;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.bookstore.service.BookService;
+import com.bookstore.service.CustomerService;
+import com.bookstore.service.PurchaseService;
+
+/**
+ * ?fields= returns only the requested fields and reads only their columns.
+ */
+@SpringBootTest(properties = {
+		"bookstore.sql.headers.enabled=true",
+		"bookstore.loyalty.compaction.enabled=false"
+})
+@AutoConfigureMockMvc
+class SparseFieldsetIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private CustomerService customerService;
+
+	@Autowired
+	private PurchaseService purchaseService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	private Book book;
+	private Book other;
+	private Purchase purchase;
+
+	@BeforeEach
+	public void setup() {
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+
+		book		= bookRepository.save(new Book(null, "The Hobbit", "J.R.R. Tolkien", 20.0, BookType.REGULAR));
+		other		= bookRepository.save(new Book(null, "Dune", "Frank Herbert", 19.99, BookType.OLD_EDITION));
+		Customer customer = customerRepository.save(new Customer(null, "John Doe", 0));
+		purchase	= purchaseRepository.save(new Purchase(customer, new ArrayList<>(List.of(book, other)), 35.99, false));
+		purchaseRepository.save(new Purchase(customer, new ArrayList<>(), 0, false));
+	}
+
+	@Test
+	public void testGetAllBooks_OnlyRequestedFields() throws Exception {
+		mockMvc.perform(get("/api/books").param("fields", "id,title,price"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.length()").value(2))
+		.andExpect(jsonPath("$[0].id").value(book.getId()))
+		.andExpect(jsonPath("$[0].title").value("The Hobbit"))
+		.andExpect(jsonPath("$[0].price").value(20.0))
+		.andExpect(jsonPath("$[0].author").doesNotExist())
+		.andExpect(jsonPath("$[0].type").doesNotExist())
+		.andExpect(jsonPath("$[0].version").doesNotExist());
+	}
+
+	@Test
+	public void testGetAllBooks_SelectsOnlyRequestedColumns() {
+		String sql = onlyStatement(() -> bookService.getAllBooks("id, title ,price,title"));
+
+		assertTrue(sql.contains("title") && sql.contains("price"), sql);
+		assertFalse(sql.contains("author") || sql.contains("type") || sql.contains("version"), sql);
+	}
+
+	@Test
+	public void testGetAllBooks_UnknownField() throws Exception {
+		mockMvc.perform(get("/api/books").param("fields", "id,isbn"))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value("Unknown field: isbn, expected some of id,title,author,price,type,version"));
+
+		mockMvc.perform(get("/api/books").param("fields", " , "))
+		.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testGetAllCustomers_SkipsLoyaltyBalance() throws Exception {
+		mockMvc.perform(get("/api/customers").param("fields", "name"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$[0].name").value("John Doe"))
+		.andExpect(jsonPath("$[0].id").doesNotExist());
+
+		String sql = onlyStatement(() -> customerService.getAllCustomers("id,name"));
+		assertFalse(sql.contains("loyalty"), sql);
+	}
+
+	@Test
+	public void testGetAllPurchases_WithoutBookIdsSkipsJoinTable() throws Exception {
+		mockMvc.perform(get("/api/purchases").param("fields", "totalPrice,customerId"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$[0].totalPrice").value(35.99))
+		.andExpect(jsonPath("$[0].customerId").value(purchase.getCustomer().getId()))
+		.andExpect(jsonPath("$[0].id").doesNotExist())
+		.andExpect(jsonPath("$[0].bookIds").doesNotExist());
+
+		// The customer id is the foreign key column, no other table is joined
+		String sql = onlyStatement(() -> purchaseService.getAllPurchases("id,customerId,totalPrice"));
+		assertFalse(sql.contains("join") || sql.contains("purchase_books") || sql.contains("customers"), sql);
+	}
+
+	@Test
+	public void testGetAllPurchases_BookIdsFromJoinTable() throws Exception {
+		mockMvc.perform(get("/api/purchases").param("fields", "bookIds,totalPrice"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$[0].bookIds.length()").value(2))
+		.andExpect(jsonPath("$[0].totalPrice").value(35.99))
+		.andExpect(jsonPath("$[0].id").doesNotExist())
+		.andExpect(jsonPath("$[1].bookIds.length()").value(0));
+
+		Set<String> statements = statements(() -> purchaseService.getAllPurchases("id,bookIds"));
+		assertEquals(2, statements.size(), statements.toString());
+		assertTrue(statements.stream().noneMatch(sql -> sql.contains("join")), statements.toString());
+	}
+
+	private static String onlyStatement(Runnable read) {
+		Set<String> statements = statements(read);
+		assertEquals(1, statements.size(), statements.toString());
+		return statements.iterator().next().toLowerCase();
+	}
+
+	private static Set<String> statements(Runnable read) {
+		SqlStatistics statistics = SqlStatistics.start();
+		try {
+			read.run();
+		} finally {
+			SqlStatistics.stop();
+		}
+		return statistics.repeated(1).keySet();
+	}
+}
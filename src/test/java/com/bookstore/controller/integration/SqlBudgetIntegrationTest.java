@@ -0,0 +1,196 @@
+package com.bookstore.controller.integration;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.bookstore.cache.BookCache;
+import com.bookstore.cache.CustomerCache;
+import com.bookstore.config.SqlAccountingFilter;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.model.Customer;
+import com.bookstore.model.Purchase;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CustomerRepository;
+import com.bookstore.repository.PurchaseRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * SQL statement budgets per endpoint, read from the X-SQL-Count header. Caches are
+ * cleared first, so the budgets hold for a cold start. Reading many purchases must cost
+ * as much as reading a few: lazily loading the books or customer of each purchase
+ * (N+1) breaks the budget.
+ */
+@SpringBootTest(properties = {
+		"bookstore.sql.headers.enabled=true",
+		"bookstore.loyalty.compaction.enabled=false"
+})
+@AutoConfigureMockMvc
+class SqlBudgetIntegrationTest {
+
+	private static final int PURCHASES = 20;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private BookCache bookCache;
+
+	@Autowired
+	private CustomerCache customerCache;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PurchaseRepository purchaseRepository;
+
+	private List<Book> books = new ArrayList<>();
+	private List<Customer> customers = new ArrayList<>();
+	private Purchase purchase;
+
+	@BeforeEach
+	public void setup() {
+		purchaseRepository.deleteAll();
+		bookRepository.deleteAll();
+		customerRepository.deleteAll();
+
+		for (int i = 0; i < PURCHASES; i++) {
+			Book book1 = bookRepository.save(new Book(null, "Book A" + i, "Author", 10.0, BookType.REGULAR));
+			Book book2 = bookRepository.save(new Book(null, "Book B" + i, "Author", 20.0, BookType.OLD_EDITION));
+			Customer customer = customerRepository.save(new Customer(null, "Customer " + i, 0));
+			purchase = purchaseRepository.save(new Purchase(customer, Arrays.asList(book1, book2), 30.0, false));
+			books.addAll(Arrays.asList(book1, book2));
+			customers.add(customer);
+		}
+
+		bookCache.invalidateAll();
+		customerCache.invalidateAll();
+		entityManagerFactory.getCache().evictAll();
+	}
+
+	@Test
+	public void testGetBook() throws Exception {
+		mockMvc.perform(get("/api/books/" + books.get(0).getId()))
+		.andExpect(status().isOk())
+		.andExpect(sqlBudget(1));
+	}
+
+	@Test
+	public void testGetBooksPage() throws Exception {
+		mockMvc.perform(get("/api/books").param("limit", "20"))
+		.andExpect(status().isOk())
+		.andExpect(sqlBudget(1));
+	}
+
+	@Test
+	public void testGetCustomer() throws Exception {
+		mockMvc.perform(get("/api/customers/" + customers.get(0).getId()))
+		.andExpect(status().isOk())
+		.andExpect(sqlBudget(1));
+	}
+
+	@Test
+	public void testGetCustomersPage() throws Exception {
+		mockMvc.perform(get("/api/customers").param("limit", "20"))
+		.andExpect(status().isOk())
+		.andExpect(sqlBudget(1));
+	}
+
+	@Test
+	public void testGetPurchase() throws Exception {
+		mockMvc.perform(get("/api/purchases/" + purchase.getId()))
+		.andExpect(status().isOk())
+		.andExpect(sqlBudget(1));
+	}
+
+	@Test
+	public void testGetAllPurchases() throws Exception {
+		mockMvc.perform(get("/api/purchases"))
+		.andExpect(status().isOk())
+		.andExpect(sqlBudget(1));
+	}
+
+	@Test
+	public void testGetPurchasesPage() throws Exception {
+		// The page, then the books of all its purchases in one batch
+		mockMvc.perform(get("/api/purchases").param("limit", String.valueOf(PURCHASES)))
+		.andExpect(status().isOk())
+		.andExpect(sqlBudget(2));
+	}
+
+	@Test
+	public void testCreatePurchase() throws Exception {
+		mockMvc.perform(post("/api/purchases")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(purchaseOf(0))))
+		.andExpect(status().isCreated())
+		.andExpect(sqlBudget(7));
+	}
+
+	@Test
+	public void testCreatePurchaseBatch() throws Exception {
+		List<PurchaseDTO> batch = new ArrayList<>();
+		for (int i = 0; i < PURCHASES; i++) {
+			batch.add(purchaseOf(i));
+		}
+
+		mockMvc.perform(post("/api/purchases/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(batch)))
+		.andExpect(status().isCreated())
+		.andExpect(sqlBudget(8));
+	}
+
+	@Test
+	public void testUpdatePurchase() throws Exception {
+		mockMvc.perform(put("/api/purchases/" + purchase.getId())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(purchaseOf(PURCHASES - 1))))
+		.andExpect(status().isOk())
+		.andExpect(sqlBudget(8));
+	}
+
+	private PurchaseDTO purchaseOf(int i) {
+		return new PurchaseDTO(null, customers.get(i).getId(), Arrays.asList(books.get(2 * i).getId(), books.get(2 * i + 1).getId()), 0);
+	}
+
+	private static ResultMatcher sqlBudget(int statements) {
+		return result -> {
+			String count = result.getResponse().getHeader(SqlAccountingFilter.COUNT_HEADER);
+			assertNotNull(count, "No " + SqlAccountingFilter.COUNT_HEADER + " header");
+			// With cold caches every request reads the database at least once
+			assertTrue(Integer.parseInt(count) > 0, "No SQL statements were counted");
+			assertTrue(Integer.parseInt(count) <= statements, "Ran " + count + " SQL statements, the budget is " + statements);
+		};
+	}
+}
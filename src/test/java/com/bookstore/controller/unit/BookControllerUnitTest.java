@@ -2,31 +2,40 @@ package com.bookstore.controller.unit;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.OptionalLong;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.bookstore.controller.BookController;
+import com.bookstore.controller.HttpCaching;
 import com.bookstore.dto.BookDTO;
 import com.bookstore.exception.BookNotFoundException;
 import com.bookstore.exception.GlobalExceptionHandler;
 import com.bookstore.model.Book;
 import com.bookstore.model.BookType;
 import com.bookstore.service.BookService;
+import com.bookstore.service.CatalogVersion;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 class BookControllerUnitTest {
@@ -34,6 +43,12 @@ class BookControllerUnitTest {
 	@Mock
 	private BookService bookService;
 
+	@Spy
+	private HttpCaching httpCaching = new HttpCaching(Duration.ofSeconds(30));
+
+	@Spy
+	private CatalogVersion catalogVersion = new CatalogVersion();
+
 	@InjectMocks
 	private BookController bookController;
 
@@ -71,6 +86,14 @@ class BookControllerUnitTest {
 		.andExpect(jsonPath("$.length()").value(2));
 	}
 
+	@Test
+	public void testGetAllBooks_NotModifiedWithoutLoadingBooks() throws Exception {
+		mockMvc.perform(get("/api/books").header("If-None-Match", httpCaching.etag(catalogVersion.current())))
+		.andExpect(status().isNotModified());
+
+		verify(bookService, never()).getAllBooks();
+	}
+
 	@Test
 	public void testGetAllBooks_EmptyDatabase() throws Exception {
 		given(bookService.getAllBooks()).willReturn(List.of());
@@ -93,6 +116,41 @@ class BookControllerUnitTest {
 		.andExpect(jsonPath("$.title").value(bookDTO1.getTitle()));
 	}
 
+	@Test
+	public void testGetBookById_ETagAndCacheControl() throws Exception {
+		bookDTO1.setVersion(3);
+		given(bookService.getBookById(bookDTO1.getId())).willReturn(bookDTO1);
+
+		mockMvc.perform(get("/api/books/" + bookDTO1.getId()))
+		.andExpect(status().isOk())
+		.andExpect(header().string("ETag", httpCaching.etag("3")))
+		.andExpect(header().string("Cache-Control", "max-age=30, must-revalidate, public"));
+	}
+
+	@Test
+	public void testGetBookById_NotModified() throws Exception {
+		bookDTO1.setVersion(3);
+		given(bookService.getBookById(bookDTO1.getId())).willReturn(bookDTO1);
+
+		mockMvc.perform(get("/api/books/" + bookDTO1.getId()).header("If-None-Match", "\"2\", " + httpCaching.etag("3")))
+		.andExpect(status().isNotModified())
+		.andExpect(header().string("ETag", httpCaching.etag("3")))
+		.andExpect(content().string(""));
+	}
+
+	@Test
+	public void testGetBookById_ETagOfTheBookSent() throws Exception {
+		// The book was updated after its indexed version was read
+		bookDTO1.setVersion(4);
+		given(bookService.getBookVersion(bookDTO1.getId())).willReturn(OptionalLong.of(3));
+		given(bookService.getBookById(bookDTO1.getId())).willReturn(bookDTO1);
+
+		mockMvc.perform(get("/api/books/" + bookDTO1.getId()).header("If-None-Match", httpCaching.etag("2")))
+		.andExpect(status().isOk())
+		.andExpect(header().string("ETag", httpCaching.etag("4")))
+		.andExpect(jsonPath("$.version").value(4));
+	}
+
 	@Test
 	public void testGetBookById_NotFound() throws Exception {
 		given(bookService.getBookById(100L)).willThrow(new BookNotFoundException("Book with ID 100 not found"));
@@ -6,6 +6,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -22,9 +23,13 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.bookstore.controller.PurchaseController;
 import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.dto.PurchaseTicketDTO;
 import com.bookstore.exception.BookNotFoundException;
 import com.bookstore.exception.GlobalExceptionHandler;
+import com.bookstore.exception.IntakeQueueFullException;
 import com.bookstore.exception.PurchaseNotFoundException;
+import com.bookstore.exception.PurchaseTicketNotFoundException;
+import com.bookstore.service.PurchaseIntake;
 import com.bookstore.service.PurchaseService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -33,6 +38,9 @@ class PurchaseControllerUnitTest {
 	@Mock
 	private PurchaseService purchaseService;
 
+	@Mock
+	private PurchaseIntake purchaseIntake;
+
 	@InjectMocks
 	private PurchaseController purchaseController;
 
@@ -127,6 +135,41 @@ class PurchaseControllerUnitTest {
 		.andExpect(jsonPath("$.totalPrice").value(purchaseDTO1.getTotalPrice()));
 	}
 
+	// ===========================
+	// Test submitPurchase(PurchaseDTO) and getTicket(String)
+	// ===========================
+
+	@Test
+	public void testSubmitPurchase_Accepted() throws Exception {
+		given(purchaseIntake.submit(any(PurchaseDTO.class))).willReturn(new PurchaseTicketDTO("t1", PurchaseTicketDTO.Status.QUEUED, null, null));
+
+		mockMvc.perform(post("/api/purchases/async")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(purchaseDTO1)))
+		.andExpect(status().isAccepted())
+		.andExpect(header().string("Location", "/api/purchases/tickets/t1"))
+		.andExpect(jsonPath("$.status").value("QUEUED"));
+	}
+
+	@Test
+	public void testSubmitPurchase_QueueFull() throws Exception {
+		given(purchaseIntake.submit(any(PurchaseDTO.class))).willThrow(new IntakeQueueFullException("Too many purchases waiting, please retry later"));
+
+		mockMvc.perform(post("/api/purchases/async")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(purchaseDTO1)))
+		.andExpect(status().isServiceUnavailable())
+		.andExpect(header().string("Retry-After", "1"));
+	}
+
+	@Test
+	public void testGetTicket_NotFound() throws Exception {
+		given(purchaseIntake.getTicket("t2")).willThrow(new PurchaseTicketNotFoundException("Purchase ticket not found with ID: t2"));
+
+		mockMvc.perform(get("/api/purchases/tickets/t2"))
+		.andExpect(status().isNotFound());
+	}
+
 	@Test
 	public void testCreatePurchase_InvalidCustomer() throws Exception {
 		PurchaseDTO newPurchase = new PurchaseDTO(null, null, List.of(1L, 2L), 59.99);
@@ -0,0 +1,114 @@
+package com.bookstore.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ColumnarFormatTest {
+
+	private static final List<Column> COLUMNS = List.of(
+			new Column("id", ColumnType.DELTA),
+			new Column("quantity", ColumnType.VARINT),
+			new Column("price", ColumnType.DOUBLE),
+			new Column("flag", ColumnType.BOOLEAN),
+			new Column("title", ColumnType.STRING),
+			new Column("type", ColumnType.DICTIONARY));
+
+	private static final String[] TYPES = { "REGULAR", "NEW_RELEASE", "OLD_EDITION" };
+
+	@TempDir
+	private Path directory;
+
+	// ===========================
+	// Test write and read back
+	// ===========================
+	@Test
+	public void testRoundTrip_AllColumnTypesAcrossRowGroups() throws IOException {
+		Path file = directory.resolve("table.bkc");
+		try (ColumnarWriter writer = ColumnarWriter.create(file, COLUMNS, 7)) {
+			for (int i = 0; i < 100; i++) {
+				writer.set(0, id(i)).set(1, i - 50L).set(2, i * 1.25).set(3, i % 3 == 0).set(4, "Tïtle, " + i).set(5, TYPES[i % 3]);
+				writer.endRow();
+			}
+		}
+
+		try (ColumnarReader reader = ColumnarReader.open(file)) {
+			assertEquals(COLUMNS, reader.columns());
+			assertEquals(100, reader.rowCount());
+			assertEquals(15, reader.rowGroupCount());
+
+			int i = 0;
+			for (int group = 0; group < reader.rowGroupCount(); group++) {
+				ColumnarReader.RowGroup rowGroup = reader.rowGroup(group);
+				for (int row = 0; row < rowGroup.rows(); row++, i++) {
+					assertEquals(id(i), rowGroup.getLong(0, row));
+					assertEquals(i - 50L, rowGroup.getLong(1, row));
+					assertEquals(i * 1.25, rowGroup.getDouble(2, row));
+					assertEquals(i % 3 == 0, rowGroup.getBoolean(3, row));
+					assertEquals("Tïtle, " + i, rowGroup.getString(4, row));
+					assertEquals(TYPES[i % 3], rowGroup.get(5, row));
+				}
+			}
+			assertEquals(100, i);
+		}
+	}
+
+	@Test
+	public void testWrite_DeltaAndDictionaryEncodingKeepFilesSmall() throws IOException {
+		List<Column>	columns		= List.of(new Column("id", ColumnType.DELTA), new Column("type", ColumnType.DICTIONARY));
+		Path			file		= directory.resolve("encoded.bkc");
+		int				rows		= 100_000;
+		try (ColumnarWriter writer = ColumnarWriter.create(file, columns, ColumnarWriter.DEFAULT_ROW_GROUP_SIZE)) {
+			for (int i = 0; i < rows; i++) {
+				writer.set(0, 1_000_000_000L + i).set(1, TYPES[i % 3]).endRow();
+			}
+		}
+		// Eight-byte ids alone would take 800 KB
+		assertTrue(Files.size(file) < 10_000, "File is " + Files.size(file) + " bytes");
+	}
+
+	@Test
+	public void testWrite_EmptyTable() throws IOException {
+		Path file = directory.resolve("empty.bkc");
+		ColumnarWriter.create(file, COLUMNS, 10).close();
+
+		try (ColumnarReader reader = ColumnarReader.open(file)) {
+			assertEquals(COLUMNS, reader.columns());
+			assertEquals(0, reader.rowCount());
+			assertEquals(0, reader.rowGroupCount());
+		}
+	}
+
+	@Test
+	public void testSet_RejectsValueOfOtherType() throws IOException {
+		try (ColumnarWriter writer = ColumnarWriter.create(directory.resolve("typed.bkc"), COLUMNS, 10)) {
+			assertThrows(IllegalArgumentException.class, () -> writer.set(0, "1"));
+			assertThrows(IllegalArgumentException.class, () -> writer.set(2, 1L));
+			assertThrows(IllegalArgumentException.class, () -> writer.set(5, (String) null));
+		}
+	}
+
+	@Test
+	public void testOpen_RejectsOtherFiles() throws IOException {
+		Path file = directory.resolve("other.bkc");
+		Files.writeString(file, "id,title\n1,The Hobbit\n");
+		IOException e = assertThrows(IOException.class, () -> ColumnarReader.open(file));
+		assertTrue(e.getMessage().contains("bad magic"), e.getMessage());
+
+		Files.write(file, new byte[] { 'B', 'K' });
+		assertThrows(IOException.class, () -> ColumnarReader.open(file));
+	}
+
+	// Ids going up in uneven steps, and down once in a while
+	private static long id(int i) {
+		return i * 37L + (i % 5) * 1_000L;
+	}
+}
@@ -0,0 +1,98 @@
+package com.bookstore.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.model.BookType;
+
+class BookSearchIndexTest {
+
+	private BookSearchIndex index;
+
+	@BeforeEach
+	public void setUp() {
+		index = new BookSearchIndex();
+		index.put(book(1L, "The Hobbit", "J.R.R. Tolkien"));
+		index.put(book(2L, "The Lord of the Rings", "J.R.R. Tolkien"));
+		index.put(book(3L, "Les Misérables", "Victor Hugo"));
+		index.put(book(4L, "The Hobbit Companion", "David Day"));
+	}
+
+	// ===========================
+	// Test search(String, int)
+	// ===========================
+	@Test
+	public void testSearch_FoldsCaseAndAccents() {
+		assertEquals(List.of(3L), ids(index.search("MISERABLES", 10)));
+	}
+
+	@Test
+	public void testSearch_RareTermsRankFirst() {
+		// "tolkien" is in two books, "hobbit" in two, only book 1 has both
+		assertEquals(1L, ids(index.search("hobbit tolkien", 10)).get(0));
+
+		// "day" is rarer than "the", so book 4 beats the other books containing "the"
+		assertEquals(4L, ids(index.search("the day", 10)).get(0));
+	}
+
+	@Test
+	public void testSearch_ShorterBooksRankFirstOnEqualMatch() {
+		// Book 4 has five words, book 1 has six ("j", "r", "r" count)
+		assertEquals(List.of(4L, 1L), ids(index.search("hobbit", 10)));
+	}
+
+	@Test
+	public void testSearch_Limit() {
+		assertEquals(2, index.search("the", 2).size());
+		assertThrows(IllegalArgumentException.class, () -> index.search("the", 0));
+		assertThrows(IllegalArgumentException.class, () -> index.search("the", BookSearchIndex.MAX_LIMIT + 1));
+	}
+
+	@Test
+	public void testSearch_NoWords() {
+		assertThrows(IllegalArgumentException.class, () -> index.search(" - ", 10));
+	}
+
+	// ===========================
+	// Test put, remove and rebuild
+	// ===========================
+	@Test
+	public void testPut_ReplacesOldTerms() {
+		index.put(book(1L, "There and Back Again", "J.R.R. Tolkien"));
+
+		assertEquals(List.of(4L), ids(index.search("hobbit", 10)));
+		assertEquals(List.of(1L), ids(index.search("again", 10)));
+	}
+
+	@Test
+	public void testRemove() {
+		index.remove(3L);
+
+		assertTrue(index.search("hugo", 10).isEmpty());
+		assertEquals(3, index.size());
+	}
+
+	@Test
+	public void testRebuild() {
+		index.rebuild(sink -> sink.accept(book(5L, "Dune", "Frank Herbert")));
+
+		assertEquals(1, index.size());
+		assertTrue(index.search("hobbit", 10).isEmpty());
+		assertEquals(List.of(5L), ids(index.search("dune", 10)));
+	}
+
+	private static BookDTO book(Long id, String title, String author) {
+		return new BookDTO(id, title, author, 10.0, BookType.REGULAR);
+	}
+
+	private static List<Long> ids(List<BookDTO> books) {
+		return books.stream().map(BookDTO::getId).toList();
+	}
+}
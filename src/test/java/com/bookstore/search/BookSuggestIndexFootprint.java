@@ -0,0 +1,96 @@
+package com.bookstore.search;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.model.BookType;
+
+/**
+ * Heap footprint and query latency of {@link BookSuggestIndex} for a million-book catalog.
+ *
+ * Titles are two to five words drawn from a 20,000 word vocabulary, authors come from a
+ * pool of 200,000 names. Not part of the regular test run (the class name does not end
+ * in Test). Run with a large enough heap:
+ *   mvn test -Dtest=BookSuggestIndexFootprint -DargLine=-Xmx4g
+ */
+class BookSuggestIndexFootprint {
+
+	private static final int BOOKS		= 1_000_000;
+	private static final int WORDS		= 20_000;
+	private static final int AUTHORS	= 200_000;
+	private static final int QUERIES	= 1_000_000;
+
+	@Test
+	public void reportFootprint() {
+		Random		random	= new Random(42);
+		String[]	words	= new String[WORDS];
+		for (int i = 0; i < WORDS; i++) {
+			words[i] = word(random, 3 + random.nextInt(8));
+		}
+		String[] authors = new String[AUTHORS];
+		for (int i = 0; i < AUTHORS; i++) {
+			authors[i] = capitalize(word(random, 4 + random.nextInt(5))) + " " + capitalize(word(random, 5 + random.nextInt(6)));
+		}
+
+		// Only the index itself is measured, the source books are generated on the fly
+		long				before	= usedHeap();
+		BookSuggestIndex	index	= new BookSuggestIndex();
+		long				start	= System.nanoTime();
+		index.rebuild(sink -> {
+			Random books = new Random(7);
+			for (long id = 1; id <= BOOKS; id++) {
+				StringBuilder title = new StringBuilder(capitalize(words[books.nextInt(WORDS)]));
+				for (int w = 1 + books.nextInt(4); w > 0; w--) {
+					title.append(' ').append(words[books.nextInt(WORDS)]);
+				}
+				sink.accept(new BookDTO(id, title.toString(), authors[books.nextInt(AUTHORS)], 10.0, BookType.REGULAR));
+			}
+		}, id -> id % 1000);
+		long buildMillis	= (System.nanoTime() - start) / 1_000_000;
+		long after			= usedHeap();
+
+		// Prefixes of one to four characters, as typed on the first keystrokes
+		String[] prefixes = new String[1024];
+		for (int i = 0; i < prefixes.length; i++) {
+			String word = words[random.nextInt(WORDS)];
+			prefixes[i] = word.substring(0, 1 + random.nextInt(Math.min(4, word.length())));
+		}
+		long found = 0;
+		for (int i = 0; i < QUERIES; i++) {
+			found += index.suggest(prefixes[i & (prefixes.length - 1)], BookSuggestIndex.TOP_K).size();
+		}
+		start = System.nanoTime();
+		for (int i = 0; i < QUERIES; i++) {
+			found += index.suggest(prefixes[i & (prefixes.length - 1)], BookSuggestIndex.TOP_K).size();
+		}
+		double queryNanos = (System.nanoTime() - start) / (double) QUERIES;
+
+		System.out.printf("books               %,d%n", index.size());
+		System.out.printf("tree nodes          %,d%n", index.nodeCount());
+		System.out.printf("retained heap       %,d MB (%,d bytes per book)%n", (after - before) >> 20, (after - before) / BOOKS);
+		System.out.printf("build time          %,d ms%n", buildMillis);
+		System.out.printf("suggest, top %d     %.0f ns per query (checksum %d)%n", BookSuggestIndex.TOP_K, queryNanos, found);
+	}
+
+	private static String word(Random random, int length) {
+		char[] letters = new char[length];
+		for (int i = 0; i < length; i++) {
+			letters[i] = (char) ('a' + random.nextInt(26));
+		}
+		return new String(letters);
+	}
+
+	private static String capitalize(String word) {
+		return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
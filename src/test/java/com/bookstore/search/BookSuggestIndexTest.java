@@ -0,0 +1,154 @@
+package com.bookstore.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.bookstore.dto.BookDTO;
+import com.bookstore.dto.SuggestionDTO;
+import com.bookstore.model.BookType;
+
+class BookSuggestIndexTest {
+
+	private BookSuggestIndex index;
+
+	@BeforeEach
+	public void setUp() {
+		index = new BookSuggestIndex();
+		index.put(book(1L, "The Hobbit", "J.R.R. Tolkien"));
+		index.put(book(2L, "The Two Towers", "J.R.R. Tolkien"));
+		index.put(book(3L, "Thérèse Raquin", "Émile Zola"));
+		index.put(book(4L, "Dune", "Frank Herbert"));
+	}
+
+	// ===========================
+	// Test suggest(String, int)
+	// ===========================
+	@Test
+	public void testSuggest_MatchesTitlesAndAuthorsByPrefix() {
+		assertEquals(List.of("The Hobbit", "The Two Towers", "Thérèse Raquin"), texts(index.suggest("th", 10)));
+		assertEquals(List.of("Émile Zola"), texts(index.suggest("EMI", 10)));
+		assertEquals(List.of("The Two Towers"), texts(index.suggest("the t", 10)));
+		assertTrue(index.suggest("thx", 10).isEmpty());
+	}
+
+	@Test
+	public void testSuggest_MostPurchasedFirst() {
+		index.recordSales(List.of(2L, 2L, 3L), 1);
+
+		List<SuggestionDTO> suggestions = index.suggest("th", 10);
+		assertEquals(List.of("The Two Towers", "Thérèse Raquin", "The Hobbit"), texts(suggestions));
+		assertEquals(2, suggestions.get(0).getPopularity());
+
+		// An author counts the purchases of all their books
+		assertEquals(2, index.suggest("j r r", 1).get(0).getPopularity());
+	}
+
+	@Test
+	public void testSuggest_Limit() {
+		assertEquals(1, index.suggest("th", 1).size());
+		assertThrows(IllegalArgumentException.class, () -> index.suggest("th", 0));
+		assertThrows(IllegalArgumentException.class, () -> index.suggest("th", BookSuggestIndex.TOP_K + 1));
+	}
+
+	// ===========================
+	// Test put, remove and rebuild
+	// ===========================
+	@Test
+	public void testPut_ReplacesTitleAndKeepsSales() {
+		index.recordSales(List.of(4L), 3);
+		index.put(book(4L, "Dune Messiah", "Frank Herbert"));
+
+		List<SuggestionDTO> suggestions = index.suggest("dune", 10);
+		assertEquals(List.of("Dune Messiah"), texts(suggestions));
+		assertEquals(3, suggestions.get(0).getPopularity());
+	}
+
+	@Test
+	public void testRemove_KeepsSharedAuthor() {
+		index.remove(1L);
+
+		assertTrue(index.suggest("the h", 10).isEmpty());
+		assertEquals(List.of("J.R.R. Tolkien"), texts(index.suggest("j", 10)));
+
+		index.remove(2L);
+		assertTrue(index.suggest("j", 10).isEmpty());
+	}
+
+	@Test
+	public void testRebuild() {
+		index.rebuild(sink -> sink.accept(book(5L, "Emma", "Jane Austen")), id -> 7L);
+
+		assertEquals(1, index.size());
+		assertTrue(index.suggest("the", 10).isEmpty());
+		assertEquals(7, index.suggest("em", 10).get(0).getPopularity());
+	}
+
+	// Checks the precomputed lists against a brute force ranking after random writes
+	@Test
+	public void testSuggest_MatchesBruteForceAfterRandomWrites() {
+		Random				random	= new Random(7);
+		BookSuggestIndex	fuzzed	= new BookSuggestIndex();
+		Map<Long, BookDTO>	books	= new TreeMap<>();
+		Map<Long, Long>		sales	= new TreeMap<>();
+		String[]			words	= { "a", "ab", "abc", "b", "ba", "bab", "c" };
+
+		for (int step = 0; step < 2000; step++) {
+			long id = random.nextInt(40);
+			switch (random.nextInt(3)) {
+			case	0	: {
+				BookDTO book = book(id, words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)],
+						words[random.nextInt(words.length)]);
+				fuzzed.put(book);
+				books.put(id, book);
+				sales.putIfAbsent(id, 0L);
+				break;
+			}
+			case	1	: {
+				fuzzed.remove(id);
+				books.remove(id);
+				sales.remove(id);
+				break;
+			}
+			default		: {
+				fuzzed.recordSales(List.of(id), 1);
+				sales.computeIfPresent(id, (key, count) -> count + 1);
+				break;
+			}
+			}
+		}
+
+		for (String prefix : new String[] { "", "a", "ab", "ab ", "b", "ba", "bab a", "c" }) {
+			assertEquals(bruteForce(books, sales, prefix), texts(fuzzed.suggest(prefix, BookSuggestIndex.TOP_K)), "prefix: " + prefix);
+		}
+	}
+
+	private static List<String> bruteForce(Map<Long, BookDTO> books, Map<Long, Long> sales, String prefix) {
+		Map<String, Long> weights = new TreeMap<>();
+		books.forEach((id, book) -> {
+			weights.merge(book.getTitle(), sales.get(id), Long::sum);
+			weights.merge(book.getAuthor(), sales.get(id), Long::sum);
+		});
+		List<Map.Entry<String, Long>> matches = new ArrayList<>();
+		weights.entrySet().stream().filter(entry -> entry.getKey().startsWith(prefix.strip())).forEach(matches::add);
+		matches.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+		return matches.stream().limit(BookSuggestIndex.TOP_K).map(Map.Entry::getKey).toList();
+	}
+
+	private static BookDTO book(Long id, String title, String author) {
+		return new BookDTO(id, title, author, 10.0, BookType.REGULAR);
+	}
+
+	private static List<String> texts(List<SuggestionDTO> suggestions) {
+		return suggestions.stream().map(SuggestionDTO::getText).toList();
+	}
+}
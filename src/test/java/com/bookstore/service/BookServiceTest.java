@@ -1,12 +1,15 @@
 package com.bookstore.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -17,13 +20,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import com.bookstore.cache.BookCache;
 import com.bookstore.dto.BookDTO;
 import com.bookstore.exception.BookNotFoundException;
 import com.bookstore.mapper.BookMapper;
 import com.bookstore.model.Book;
 import com.bookstore.model.BookType;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.search.BookSearchIndex;
+import com.bookstore.search.BookSuggestIndex;
 
 class BookServiceTest {
 
@@ -33,6 +40,18 @@ class BookServiceTest {
 	@Mock
 	private BookMapper bookMapper;
 
+	@Spy
+	private BookCache bookCache = new BookCache(100, Duration.ofMinutes(10));
+
+	@Spy
+	private BookSearchIndex bookSearchIndex = new BookSearchIndex();
+
+	@Spy
+	private BookSuggestIndex bookSuggestIndex = new BookSuggestIndex();
+
+	@Spy
+	private CatalogVersion catalogVersion = new CatalogVersion();
+
 	@InjectMocks
 	private BookService bookService;
 
@@ -105,6 +124,35 @@ class BookServiceTest {
 		verify(bookRepository).findById(2L);
 	}
 
+	@Test
+	public void testGetBookById_whenCached() {
+		given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+		given(bookMapper.convertToBookDTO(any(Book.class))).willReturn(bookDTO);
+
+		bookService.getBookById(1L);
+		BookDTO result = bookService.getBookById(1L);
+
+		assertEquals("Dungeons & Dragons 5th edition", result.getTitle());
+		verify(bookRepository, times(1)).findById(1L);
+		assertEquals(1, bookCache.stats().hitCount());
+	}
+
+	@Test
+	public void testGetBookById_afterUpdate() {
+		BookDTO updatedBookDTO = new BookDTO(1L, "Dungeons & Dragons 5th edition", "Rodney Thompson", 29.99, BookType.OLD_EDITION);
+
+		given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+		given(bookRepository.saveAndFlush(book)).willReturn(book);
+		given(bookMapper.convertToBookDTO(any(Book.class))).willReturn(bookDTO);
+
+		bookService.getBookById(1L);
+		bookService.updateBook(1L, updatedBookDTO);
+		bookService.getBookById(1L);
+
+		// Once per read and once for the update, the second read must not be served from the cache
+		verify(bookRepository, times(3)).findById(1L);
+	}
+
 	// ===========================
 	// Test createBook(BookDTO)
 	// ===========================
@@ -122,6 +170,19 @@ class BookServiceTest {
 		assertEquals(BookType.REGULAR, result.getType());
 
 		verify(bookRepository).save(book);
+		verify(bookSearchIndex).put(bookDTO);
+	}
+
+	@Test
+	public void testCreateBook_ChangesCatalogVersion() {
+		given(bookMapper.convertToBook(bookDTO)).willReturn(book);
+		given(bookRepository.save(book)).willReturn(book);
+		given(bookMapper.convertToBookDTO(book)).willReturn(bookDTO);
+		String before = catalogVersion.current();
+
+		bookService.createBook(bookDTO);
+
+		assertNotEquals(before, catalogVersion.current());
 	}
 
 	// ===========================
@@ -134,7 +195,7 @@ class BookServiceTest {
 
 		given(bookRepository.findById(1L)).willReturn(Optional.of(updatedBook));
 		given(bookMapper.convertToBook(updatedBookDTO)).willReturn(updatedBook);
-		given(bookRepository.save(updatedBook)).willReturn(updatedBook);
+		given(bookRepository.saveAndFlush(updatedBook)).willReturn(updatedBook);
 		given(bookMapper.convertToBookDTO(updatedBook)).willReturn(updatedBookDTO);
 
 
@@ -147,7 +208,7 @@ class BookServiceTest {
 		assertEquals(BookType.OLD_EDITION, result.getType());
 
 		verify(bookRepository).findById(1L);
-		verify(bookRepository).save(updatedBook);
+		verify(bookRepository).saveAndFlush(updatedBook);
 	}
 
 	// ===========================
@@ -0,0 +1,100 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bookstore.exception.InvalidBookTypeException;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookType;
+import com.bookstore.service.PricingEngine.PriceBreakdown;
+
+class PricingEngineTest {
+
+	private static final double DELTA = 1e-9;
+
+	private final PricingEngine pricingEngine = new PricingEngine();
+
+	private final Book regular		= new Book(1L, "The Hobbit", "J.R.R. Tolkien", 20.0, BookType.REGULAR);
+	private final Book oldEdition	= new Book(2L, "Dungeons & Dragons 3rd edition", "Monte Cook", 10.0, BookType.OLD_EDITION);
+	private final Book newRelease	= new Book(3L, "Dungeons & Dragons 2024", "Wizards RPG Team", 50.0, BookType.NEW_RELEASE);
+
+	// ===========================
+	// Test price(List<Book>)
+	// ===========================
+	@Test
+	public void testPrice_WithoutBulkDiscount() {
+		PriceBreakdown price = pricingEngine.price(Arrays.asList(regular, oldEdition));
+
+		assertEquals(30.0, price.listPrice(), DELTA);
+		assertEquals(20.0 + 10.0 * 0.8, price.discountedPrice(), DELTA);
+		assertEquals(10.0 * 0.8, price.loyaltyDiscount(), DELTA);
+	}
+
+	@Test
+	public void testPrice_WithBulkDiscount() {
+		PriceBreakdown price = pricingEngine.price(Arrays.asList(regular, oldEdition, newRelease));
+
+		assertEquals(80.0, price.listPrice(), DELTA);
+		assertEquals(20.0 * 0.9 + 10.0 * 0.8 * 0.95 + 50.0, price.discountedPrice(), DELTA);
+		assertEquals(10.0 * 0.8 * 0.95, price.loyaltyDiscount(), DELTA);
+	}
+
+	@Test
+	public void testPrice_NewReleasesAreNeverFreeWithLoyalty() {
+		PriceBreakdown price = pricingEngine.price(Arrays.asList(newRelease, newRelease));
+
+		assertEquals(0.0, price.loyaltyDiscount(), DELTA);
+		assertEquals(100.0, price.totalPrice(true), DELTA);
+	}
+
+	@Test
+	public void testPrice_LoyaltyRemovesCheapestEligibleBook() {
+		PriceBreakdown price = pricingEngine.price(Arrays.asList(regular, oldEdition, newRelease));
+
+		assertEquals(price.discountedPrice() - 10.0 * 0.8 * 0.95, price.totalPrice(true), DELTA);
+		assertEquals(price.discountedPrice(), price.totalPrice(false), DELTA);
+	}
+
+	@Test
+	public void testPrice_EmptyCart() {
+		PriceBreakdown price = pricingEngine.price(Collections.emptyList());
+
+		assertEquals(0.0, price.totalPrice(true), DELTA);
+	}
+
+	@Test
+	public void testPrice_UnknownBookType() {
+		List<Book> books = Arrays.asList(new Book(4L, "Untyped", "Unknown", 10.0, null));
+
+		assertThrows(InvalidBookTypeException.class, () -> {
+			pricingEngine.price(books);
+		});
+	}
+
+	// ===========================
+	// Test revenueByType(List<Book>, boolean)
+	// ===========================
+	@Test
+	public void testRevenueByType_LoyaltyIsTakenFromTheFreeBooksType() {
+		List<Book>	books	= Arrays.asList(regular, oldEdition, newRelease);
+		double[]	revenue	= pricingEngine.revenueByType(books, true);
+
+		assertEquals(20.0 * 0.9, revenue[BookType.REGULAR.ordinal()], DELTA);
+		assertEquals(0.0, revenue[BookType.OLD_EDITION.ordinal()], DELTA);
+		assertEquals(50.0, revenue[BookType.NEW_RELEASE.ordinal()], DELTA);
+		assertEquals(pricingEngine.price(books).totalPrice(true), Arrays.stream(revenue).sum(), DELTA);
+	}
+
+	@Test
+	public void testRevenueByType_WithoutLoyalty() {
+		List<Book> books = Arrays.asList(regular, oldEdition);
+
+		assertEquals(pricingEngine.price(books).totalPrice(false), Arrays.stream(pricingEngine.revenueByType(books, false)).sum(), DELTA);
+	}
+}
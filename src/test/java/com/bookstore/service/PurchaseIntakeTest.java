@@ -0,0 +1,170 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.bookstore.dto.PurchaseBatchItemDTO;
+import com.bookstore.dto.PurchaseBatchResultDTO;
+import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.dto.PurchaseTicketDTO;
+import com.bookstore.dto.PurchaseTicketDTO.Status;
+import com.bookstore.exception.CustomerNotFoundException;
+import com.bookstore.exception.IntakeQueueFullException;
+import com.bookstore.exception.PurchaseTicketNotFoundException;
+
+class PurchaseIntakeTest {
+
+	@Mock
+	private PurchaseService purchaseService;
+
+	private PurchaseIntake purchaseIntake;
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@BeforeEach
+	public void setUp() {
+		MockitoAnnotations.openMocks(this);
+
+		// Creates every purchase of a micro-batch, after the test releases the worker
+		given(purchaseService.createPurchases(anyList(), eq(false))).willAnswer(invocation -> {
+			release.await();
+			List<PurchaseDTO>			purchases	= invocation.getArgument(0);
+			List<PurchaseBatchItemDTO>	items		= new ArrayList<>();
+			for (int i = 0; i < purchases.size(); i++) {
+				PurchaseDTO created = new PurchaseDTO(100L + i, purchases.get(i).getCustomerId(), purchases.get(i).getBookIds(), 10.0);
+				items.add(new PurchaseBatchItemDTO(i, PurchaseBatchItemDTO.Status.CREATED, created, null));
+			}
+			return new PurchaseBatchResultDTO(purchases.size(), 0, items);
+		});
+
+		purchaseIntake = new PurchaseIntake(purchaseService, 2, 1, 10, Duration.ofMinutes(1));
+		purchaseIntake.start();
+	}
+
+	@AfterEach
+	public void tearDown() throws InterruptedException {
+		release.countDown();
+		purchaseIntake.stop();
+	}
+
+	// ===========================
+	// Test submit(PurchaseDTO)
+	// ===========================
+	@Test
+	public void testSubmit_CreatedInBackground() {
+		PurchaseTicketDTO ticket = purchaseIntake.submit(purchase());
+		assertEquals(Status.QUEUED, ticket.getStatus());
+
+		release.countDown();
+		verify(purchaseService, timeout(2000)).createPurchases(anyList(), eq(false));
+		PurchaseTicketDTO done = awaitTicket(ticket.getId());
+		assertEquals(Status.CREATED, done.getStatus());
+		assertEquals(100L, done.getPurchase().getId());
+		assertNull(done.getMessage());
+	}
+
+	@Test
+	public void testSubmit_InvalidPurchaseIsNotQueued() {
+		willThrow(new CustomerNotFoundException("Customer not found with ID: 1")).given(purchaseService).validatePurchase(any());
+
+		assertThrows(CustomerNotFoundException.class, () -> purchaseIntake.submit(purchase()));
+		assertEquals(0, purchaseIntake.queued());
+		verify(purchaseService, never()).createPurchases(anyList(), eq(false));
+	}
+
+	@Test
+	public void testSubmit_RejectsWhenQueueIsFull() {
+		// The worker takes the first purchase and blocks, the next two fill the queue
+		purchaseIntake.submit(purchase());
+		verify(purchaseService, timeout(2000)).createPurchases(argThat(batch -> batch.size() == 1), eq(false));
+		PurchaseTicketDTO second	= purchaseIntake.submit(purchase());
+		PurchaseTicketDTO third		= purchaseIntake.submit(purchase());
+
+		assertThrows(IntakeQueueFullException.class, () -> purchaseIntake.submit(purchase()));
+
+		// Once released, the queued purchases are written as one micro-batch
+		release.countDown();
+		verify(purchaseService, timeout(2000)).createPurchases(argThat(batch -> batch.size() == 2), eq(false));
+		assertEquals(Status.CREATED, awaitTicket(second.getId()).getStatus());
+		assertEquals(Status.CREATED, awaitTicket(third.getId()).getStatus());
+	}
+
+	@Test
+	public void testSubmit_FailedMicroBatchFailsItsTickets() {
+		// Stubbed this way round so that the blocking answer of setUp is not called
+		willThrow(new IllegalStateException("Database unavailable")).given(purchaseService).createPurchases(anyList(), eq(false));
+
+		PurchaseTicketDTO ticket = purchaseIntake.submit(purchase());
+
+		PurchaseTicketDTO done = awaitTicket(ticket.getId());
+		assertEquals(Status.FAILED, done.getStatus());
+		assertEquals("Database unavailable", done.getMessage());
+	}
+
+	@Test
+	public void testConstructor_RejectsBatchSizeAboveServiceLimit() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new PurchaseIntake(purchaseService, 2, 1, PurchaseService.MAX_BATCH_SIZE + 1, Duration.ofMinutes(1)));
+		assertThrows(IllegalArgumentException.class, () -> new PurchaseIntake(purchaseService, 2, 1, 0, Duration.ofMinutes(1)));
+	}
+
+	// ===========================
+	// Test getTicket(String)
+	// ===========================
+	@Test
+	public void testGetTicket_Unknown() {
+		assertThrows(PurchaseTicketNotFoundException.class, () -> purchaseIntake.getTicket("missing"));
+	}
+
+	@Test
+	public void testGetTicket_RetainedFromItsFinalState() throws InterruptedException {
+		purchaseIntake.stop();
+		purchaseIntake = new PurchaseIntake(purchaseService, 2, 1, 10, Duration.ofMillis(200));
+		purchaseIntake.start();
+
+		// Queued for longer than the retention, the ticket is still there
+		PurchaseTicketDTO ticket = purchaseIntake.submit(purchase());
+		Thread.sleep(400);
+		assertEquals(Status.QUEUED, purchaseIntake.getTicket(ticket.getId()).getStatus());
+
+		release.countDown();
+		assertEquals(Status.CREATED, awaitTicket(ticket.getId()).getStatus());
+		Thread.sleep(400);
+		assertThrows(PurchaseTicketNotFoundException.class, () -> purchaseIntake.getTicket(ticket.getId()));
+	}
+
+	private PurchaseTicketDTO awaitTicket(String id) {
+		long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+		PurchaseTicketDTO ticket = purchaseIntake.getTicket(id);
+		while (ticket.getStatus() == Status.QUEUED && System.nanoTime() < deadline) {
+			Thread.onSpinWait();
+			ticket = purchaseIntake.getTicket(id);
+		}
+		return ticket;
+	}
+
+	private static PurchaseDTO purchase() {
+		return new PurchaseDTO(null, 1L, List.of(1L), 0);
+	}
+}
@@ -1,12 +1,16 @@
 package com.bookstore.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -17,8 +21,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import com.bookstore.cache.BookCache;
+import com.bookstore.cache.CustomerCache;
 import com.bookstore.dto.PurchaseDTO;
+import com.bookstore.dto.PurchaseQuoteDTO;
 import com.bookstore.exception.BookNotFoundException;
 import com.bookstore.exception.CustomerNotFoundException;
 import com.bookstore.exception.PurchaseNotFoundException;
@@ -30,6 +38,7 @@ import com.bookstore.model.Purchase;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.CustomerRepository;
 import com.bookstore.repository.PurchaseRepository;
+import com.bookstore.search.BookSuggestIndex;
 
 class PurchaseServiceTest {
 
@@ -45,6 +54,24 @@ class PurchaseServiceTest {
 	@Mock
 	private PurchaseMapper purchaseMapper;
 
+	@Spy
+	private PricingEngine pricingEngine = new PricingEngine();
+
+	@Spy
+	private BookCache bookCache = new BookCache(100, Duration.ofMinutes(10));
+
+	@Spy
+	private CustomerCache customerCache = new CustomerCache(100, Duration.ofMinutes(1));
+
+	@Spy
+	private BookSuggestIndex bookSuggestIndex = new BookSuggestIndex();
+
+	@Mock
+	private LoyaltyLedger loyaltyLedger;
+
+	@Mock
+	private PurchaseMetrics purchaseMetrics;
+
 	@InjectMocks
 	private PurchaseService purchaseService;
 
@@ -137,9 +164,31 @@ class PurchaseServiceTest {
 		assertEquals(1L, result.getCustomerId());
 		assertEquals(39.99, result.getTotalPrice());
 
-		verify(purchaseRepository).save(any(Purchase.class));
+		verify(purchaseRepository).save(argThat(saved -> !saved.isLoyaltyPointsUsed()));
 		verify(customerRepository).findById(1L);
 		verify(bookRepository).findAllById(Arrays.asList(1L));
+
+		// Points are appended to the ledger, the loaded customer is never written back
+		verify(loyaltyLedger).claimRedemption(1L, 10);
+		verify(loyaltyLedger).accrue(1L, 1L, 1);
+		verify(customerRepository, never()).save(any());
+		verify(purchaseMetrics).recordCreated(List.of(purchase));
+	}
+
+	@Test
+	public void testCreatePurchase_RedeemsLoyaltyPoints() {
+		given(customerRepository.findById(1L)).willReturn(Optional.of(customer));
+		given(bookRepository.findAllById(Arrays.asList(1L))).willReturn(Arrays.asList(book));
+		given(loyaltyLedger.claimRedemption(1L, 10)).willReturn(12);
+		given(purchaseRepository.save(any(Purchase.class))).willReturn(purchase);
+		given(purchaseMapper.convertToPurchaseDTO(any(Purchase.class))).willReturn(purchaseDTO);
+
+		purchaseService.createPurchase(purchaseDTO);
+
+		verify(purchaseRepository).save(argThat(saved -> saved.isLoyaltyPointsUsed() && saved.getTotalPrice() == 0.0));
+		verify(loyaltyLedger).redeem(1L, 1L, 12);
+		verify(loyaltyLedger, never()).accrue(any(), any(), anyInt());
+		verify(customerRepository, never()).save(any());
 	}
 
 	@Test
@@ -167,6 +216,52 @@ class PurchaseServiceTest {
 		verify(customerRepository).findById(1L);
 		verify(bookRepository).findAllById(Arrays.asList(1L));
 		verify(purchaseRepository, never()).save(any());
+		verify(purchaseMetrics, never()).recordCreated(any());
+	}
+
+	// ===========================
+	// Test quotePurchase(PurchaseDTO)
+	// ===========================
+	@Test
+	public void testQuotePurchase() {
+		given(customerRepository.findById(1L)).willReturn(Optional.of(customer));
+		given(bookRepository.findAllById(Arrays.asList(1L))).willReturn(Arrays.asList(book));
+
+		PurchaseQuoteDTO result = purchaseService.quotePurchase(purchaseDTO);
+
+		assertEquals(39.99, result.getListPrice());
+		assertEquals(39.99, result.getTotalPrice());
+		assertFalse(result.isLoyaltyPointsApplied());
+
+		// Nothing is changed or saved
+		assertEquals(5, customer.getLoyaltyPoints());
+		verify(customerRepository, never()).save(any());
+		verify(purchaseRepository, never()).save(any());
+	}
+
+	@Test
+	public void testQuotePurchase_WithLoyaltyPoints() {
+		Book newRelease = new Book(2L, "Dungeons & Dragons 2024", "Wizards RPG Team", 49.99, BookType.NEW_RELEASE);
+		customer.setLoyaltyPoints(10);
+		given(customerRepository.findById(1L)).willReturn(Optional.of(customer));
+		given(bookRepository.findAllById(Arrays.asList(1L, 2L))).willReturn(Arrays.asList(book, newRelease));
+
+		PurchaseQuoteDTO result = purchaseService.quotePurchase(new PurchaseDTO(null, 1L, Arrays.asList(1L, 2L), 0));
+
+		assertTrue(result.isLoyaltyPointsApplied());
+		assertEquals(39.99, result.getLoyaltyDiscount());
+		assertEquals(49.99, result.getTotalPrice(), 1e-9);
+		assertEquals(10, customer.getLoyaltyPoints());
+	}
+
+	@Test
+	public void testQuotePurchase_BookNotFound() {
+		given(customerRepository.findById(1L)).willReturn(Optional.of(customer));
+		given(bookRepository.findAllById(Arrays.asList(1L))).willReturn(Arrays.asList());
+
+		assertThrows(BookNotFoundException.class, () -> {
+			purchaseService.quotePurchase(purchaseDTO);
+		});
 	}
 
 	// ===========================
@@ -205,6 +300,7 @@ class PurchaseServiceTest {
 		assertTrue(result);
 		verify(purchaseRepository).findById(1L);
 		verify(purchaseRepository).delete(purchase);
+		verify(loyaltyLedger).reverse(1L, 1L);
 	}
 
 	@Test